@@ -22,9 +22,107 @@ dependencies {
     implementation("org.springframework.boot:spring-boot")
     
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.5.2")
+    // The controller tests drive it through the whole Spring MVC stack using MockMvc
+    testImplementation("org.springframework:spring-test")
+    testImplementation("javax.servlet:javax.servlet-api")
+    testImplementation("com.fasterxml.jackson.core:jackson-databind")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.5.2")
 }
 
+// Benchmarks are kept apart from the tests because they take long and are run on demand
+val benchmark: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+// The client-side modules bundled in a single runtime, loaded once by the pages. The core module
+// is not bundled, because the pages load it as their entry point and it keeps their state, so the
+// bundle imports it and exposes it along with the others.
+val clientRuntimeDir = file("$buildDir/generated/client-runtime")
+
+val bundleClientRuntime by tasks.registering {
+    description = "Bundles the client-side modules in a single runtime module."
+    group = "build"
+    
+    val staticDir = file("src/main/resources/static")
+    val coreModuleFileName = "gazeui-core.mjs"
+    
+    inputs.dir(staticDir)
+    outputs.dir(clientRuntimeDir)
+    
+    doLast {
+        val coreImportRegex = Regex(
+                """^import \* as (\w+) from '(?:\.\.?/)+gazeui-core\.mjs';\s*$""",
+                RegexOption.MULTILINE)
+        val exportRegex = Regex(
+                """^export\s+(?:(?:async\s+)?function\s+|const\s+|let\s+|class\s+)(\w+)""",
+                RegexOption.MULTILINE)
+        val exportKeywordRegex = Regex("^export\\s+", RegexOption.MULTILINE)
+        // The same rule is used by RenderScriptWriter: the file name in Pascal case
+        fun namespaceName(file: File) =
+            file.nameWithoutExtension.split('-').joinToString("") { it.capitalize() }
+        
+        val coreNamespaceName = namespaceName(File(coreModuleFileName))
+        val modules = fileTree(staticDir).matching { include("**/*.mjs") }.files
+            .filter { it.name != coreModuleFileName }
+            .sortedBy { it.relativeTo(staticDir).invariantSeparatorsPath }
+        val sbBundle = StringBuilder()
+        
+        sbBundle.append("// Generated by the $name task. Do not edit.\n\n")
+        sbBundle.append("import * as $coreNamespaceName from './$coreModuleFileName';\n")
+        
+        modules.forEach { module ->
+            var source = module.readText()
+            val coreAlias = coreImportRegex.find(source)?.groupValues?.get(1)
+            
+            source = coreImportRegex.replace(source, "")
+            
+            if (source.lines().any { it.startsWith("import ") }) {
+                throw GradleException(
+                        "${module.name} can only import $coreModuleFileName, as a namespace.")
+            }
+            
+            val exportedNames = exportRegex.findAll(source).map { it.groupValues[1] }.toList()
+            
+            // Each module keeps its own scope and exposes its exports as a frozen namespace
+            sbBundle.append("\n// ${module.relativeTo(staticDir).invariantSeparatorsPath}\n")
+            sbBundle.append("const ${namespaceName(module)} = (function() {\n")
+            
+            if (coreAlias != null && coreAlias != coreNamespaceName) {
+                sbBundle.append("const $coreAlias = $coreNamespaceName;\n")
+            }
+            
+            sbBundle.append(source.replace(exportKeywordRegex, "").trimEnd())
+            sbBundle.append("\n\nreturn Object.freeze({ ${exportedNames.joinToString(", ")} });\n")
+            sbBundle.append("})();\n")
+        }
+        
+        val namespaceNames = (listOf(coreNamespaceName) + modules.map { namespaceName(it) })
+            .joinToString(", ")
+        
+        // Registers the bundle, so the core module passes it to the scripts it runs
+        sbBundle.append("\n$coreNamespaceName.setRuntime(Object.freeze({ $namespaceNames }));\n")
+        sbBundle.append("\nexport { $namespaceNames };\n")
+        
+        val bundleFile = File(clientRuntimeDir, "static/gazeui-runtime.mjs")
+        bundleFile.parentFile.mkdirs()
+        bundleFile.writeText(sbBundle.toString())
+    }
+}
+
+sourceSets.main.get().resources.srcDir(clientRuntimeDir)
+
+configurations[benchmark.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[benchmark.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+    // The load test drives the controller through the whole Spring MVC stack using MockMvc
+    add(benchmark.implementationConfigurationName, "org.springframework:spring-test")
+    add(benchmark.implementationConfigurationName, "javax.servlet:javax.servlet-api")
+    // Also used to store the benchmark results
+    add(benchmark.implementationConfigurationName, "com.fasterxml.jackson.core:jackson-databind")
+}
+
 java {
     sourceCompatibility = JavaVersion.VERSION_1_8
     targetCompatibility = JavaVersion.VERSION_1_8
@@ -43,7 +141,67 @@ tasks {
         enabled = true
     }
     
+    processResources {
+        dependsOn(bundleClientRuntime)
+    }
+    
     test {
         useJUnitPlatform()
     }
+    
+    val benchmarkResultsFile = file("$buildDir/benchmark/results.json")
+    val benchmarkBaselineFile = file("src/benchmark/baseline.json")
+    val benchmarkTolerancesFile = file("src/benchmark/tolerances.properties")
+    
+    val runBenchmarks = register<JavaExec>("benchmark") {
+        description = "Runs the benchmarks."
+        group = "verification"
+        classpath = benchmark.runtimeClasspath
+        main = "io.gazeui.benchmark.Benchmarks"
+        systemProperty("benchmark.resultsFile", benchmarkResultsFile)
+        outputs.file(benchmarkResultsFile)
+        // The results depend on the machine load, so the benchmarks always run
+        outputs.upToDateWhen { false }
+    }
+    
+    register<Copy>("benchmarkBaseline") {
+        description = "Runs the benchmarks and stores the results as the baseline of the " +
+                "benchmarkCompare task."
+        group = "verification"
+        from(runBenchmarks)
+        into(benchmarkBaselineFile.parentFile)
+        rename { benchmarkBaselineFile.name }
+    }
+    
+    val compareBenchmarks = register<JavaExec>("benchmarkCompare") {
+        description = "Runs the benchmarks and compares the results with the baseline, failing " +
+                "if any benchmark regressed beyond its tolerance."
+        group = "verification"
+        dependsOn(runBenchmarks)
+        classpath = benchmark.runtimeClasspath
+        main = "io.gazeui.benchmark.BenchmarkComparison"
+        args(benchmarkBaselineFile, benchmarkResultsFile, benchmarkTolerancesFile)
+    }
+    
+    // The baseline depends on the machine, so it is not committed. Without it, the comparison
+    // fails before spending minutes running the benchmarks.
+    gradle.taskGraph.whenReady {
+        if (hasTask(compareBenchmarks.get()) && !benchmarkBaselineFile.exists()) {
+            throw GradleException("The benchmark baseline $benchmarkBaselineFile does not exist. " +
+                    "Run the benchmarkBaseline task on this machine to create it.")
+        }
+    }
+    
+    register<JavaExec>("loadTest") {
+        description = "Runs the load test, driving the GazeUI controller with simulated " +
+                "sessions. The loadTest.sessions, loadTest.clicks and loadTest.threads project " +
+                "properties change its size."
+        group = "verification"
+        classpath = benchmark.runtimeClasspath
+        main = "io.gazeui.benchmark.LoadTest"
+        
+        listOf("loadTest.sessions", "loadTest.clicks", "loadTest.threads").forEach { propertyName ->
+            project.findProperty(propertyName)?.let { systemProperty(propertyName, it) }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the results of a benchmark run with a baseline, printing a report with the change of
+ * each benchmark and flagging the ones that got slower or allocate more than their tolerance
+ * allows. The process exits with status 1 if any benchmark regressed.
+ * <p>
+ * The arguments are the baseline file, the results file and the tolerances file. The tolerances
+ * are the accepted relative changes, like {@code 0.1} for 10%, keyed by benchmark name. Keys may
+ * have {@code *} wildcards, matching any characters, and the most specific key matching a benchmark
+ * wins. The {@code default} key applies to the benchmarks matched by no key.
+ * <p>
+ * Keys prefixed by {@code absolute.} set absolute tolerances instead, in the unit of the
+ * benchmark. The change accepted for a benchmark is the largest of its relative and absolute
+ * tolerances, so values close to zero are not flagged because of noise.
+ */
+public final class BenchmarkComparison {
+    
+    private static final String DEFAULT_TOLERANCE_KEY = "default";
+    private static final String ABSOLUTE_TOLERANCE_KEY_PREFIX = "absolute.";
+    private static final double DEFAULT_TOLERANCE = 0.1;
+    private static final String REPORT_LINE_FORMAT = "%-40s %22s %22s %9s %10s  %s";
+    
+    private BenchmarkComparison() {
+        // No instances allowed
+    }
+    
+    public static void main(String[] args) throws IOException {
+        Path baselineFile = Paths.get(args[0]);
+        
+        if (!Files.exists(baselineFile)) {
+            System.err.println(String.format(
+                    "The baseline %s does not exist. Run the benchmarkBaseline task to create it.",
+                    baselineFile));
+            System.exit(1);
+        }
+        
+        Map<String, BenchmarkResult> baseline = BenchmarkResult.read(baselineFile);
+        Map<String, BenchmarkResult> results = BenchmarkResult.read(Paths.get(args[1]));
+        Properties tolerances = BenchmarkComparison.readTolerances(Paths.get(args[2]));
+        int regressionCount = 0;
+        
+        System.out.println(String.format(REPORT_LINE_FORMAT, "Benchmark", "Baseline", "Current",
+                "Change", "Tolerance", "Status"));
+        
+        for (Map.Entry<String, BenchmarkResult> resultEntry : results.entrySet()) {
+            String benchmarkName = resultEntry.getKey();
+            BenchmarkResult result = resultEntry.getValue();
+            BenchmarkResult baselineResult = baseline.get(benchmarkName);
+            
+            if (baselineResult == null || !baselineResult.getUnit().equals(result.getUnit())) {
+                System.out.println(String.format(REPORT_LINE_FORMAT, benchmarkName, "",
+                        BenchmarkComparison.formatValue(result), "", "", "new"));
+                continue;
+            }
+            
+            double tolerance = BenchmarkComparison.getTolerance(tolerances, benchmarkName);
+            double absoluteTolerance =
+                    BenchmarkComparison.getAbsoluteTolerance(tolerances, benchmarkName);
+            double relativeAcceptedChange = tolerance * Math.abs(baselineResult.getValue());
+            double acceptedChange = Math.max(relativeAcceptedChange, absoluteTolerance);
+            double difference = result.getValue() - baselineResult.getValue();
+            double change = difference / Math.abs(baselineResult.getValue());
+            // A positive worsening means the result is worse than the baseline, in its unit
+            double worsening = result.isHigherBetter() ? -difference : difference;
+            String status;
+            
+            if (Double.isNaN(difference)) {
+                status = "not comparable";
+            } else if (worsening > acceptedChange) {
+                status = "REGRESSION: " + BenchmarkComparison.describeChange(result, true);
+                regressionCount++;
+            } else if (worsening < -acceptedChange) {
+                status = BenchmarkComparison.describeChange(result, false);
+            } else {
+                status = "ok";
+            }
+            
+            System.out.println(String.format(REPORT_LINE_FORMAT, benchmarkName,
+                    BenchmarkComparison.formatValue(baselineResult),
+                    BenchmarkComparison.formatValue(result),
+                    String.format("%+.1f%%", change * 100),
+                    absoluteTolerance > relativeAcceptedChange ?
+                            String.format("%.1f abs", absoluteTolerance) :
+                            String.format("%.0f%%", tolerance * 100),
+                    status));
+        }
+        
+        for (String benchmarkName : baseline.keySet()) {
+            if (!results.containsKey(benchmarkName)) {
+                System.out.println(String.format(REPORT_LINE_FORMAT, benchmarkName,
+                        BenchmarkComparison.formatValue(baseline.get(benchmarkName)), "", "", "",
+                        "missing"));
+            }
+        }
+        
+        System.out.println();
+        System.out.println(String.format("%d benchmark(s) regressed beyond their tolerance.",
+                regressionCount));
+        
+        if (regressionCount > 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static Properties readTolerances(Path tolerancesFile) throws IOException {
+        Properties tolerances = new Properties();
+        
+        if (Files.exists(tolerancesFile)) {
+            try (Reader reader = Files.newBufferedReader(tolerancesFile)) {
+                tolerances.load(reader);
+            }
+        }
+        
+        return tolerances;
+    }
+    
+    /**
+     * The relative tolerance of the benchmark, set by the matching key with the most characters
+     * other than wildcards.
+     */
+    static double getTolerance(Properties tolerances, String benchmarkName) {
+        String tolerance = BenchmarkComparison.findTolerance(tolerances, "", benchmarkName);
+        
+        if (tolerance == null) {
+            tolerance = tolerances.getProperty(DEFAULT_TOLERANCE_KEY);
+        }
+        
+        return tolerance != null ? Double.parseDouble(tolerance) : DEFAULT_TOLERANCE;
+    }
+    
+    /**
+     * The absolute tolerance of the benchmark, in its unit, or zero if no absolute key matches it.
+     */
+    static double getAbsoluteTolerance(Properties tolerances, String benchmarkName) {
+        String tolerance = BenchmarkComparison.findTolerance(tolerances,
+                ABSOLUTE_TOLERANCE_KEY_PREFIX, benchmarkName);
+        
+        return tolerance != null ? Double.parseDouble(tolerance) : 0;
+    }
+    
+    /**
+     * Returns the tolerance of the matching key with the given prefix and the most characters other
+     * than wildcards, or null if no key matches. Relative keys have an empty prefix, so the
+     * absolute ones are skipped for them.
+     */
+    private static String findTolerance(Properties tolerances, String keyPrefix,
+            String benchmarkName) {
+        String tolerance = null;
+        int mostLiteralCharacters = -1;
+        
+        for (String key : tolerances.stringPropertyNames()) {
+            if (key.startsWith(ABSOLUTE_TOLERANCE_KEY_PREFIX) != !keyPrefix.isEmpty()) {
+                continue;
+            }
+            
+            String pattern = key.substring(keyPrefix.length());
+            int literalCharacters = pattern.replace("*", "").length();
+            
+            if (literalCharacters > mostLiteralCharacters &&
+                    BenchmarkComparison.matches(pattern, benchmarkName)) {
+                tolerance = tolerances.getProperty(key);
+                mostLiteralCharacters = literalCharacters;
+            }
+        }
+        
+        return tolerance;
+    }
+    
+    private static boolean matches(String key, String benchmarkName) {
+        StringBuilder sbRegex = new StringBuilder();
+        
+        for (String literal : key.split("\\*", -1)) {
+            if (sbRegex.length() > 0) {
+                sbRegex.append(".*");
+            }
+            
+            sbRegex.append(Pattern.quote(literal));
+        }
+        
+        return benchmarkName.matches(sbRegex.toString());
+    }
+    
+    private static String describeChange(BenchmarkResult result, boolean worse) {
+        if (result.isAllocation()) {
+            return worse ? "allocates more" : "allocates less";
+        } else if (result.isTime()) {
+            return worse ? "slower" : "faster";
+        } else {
+            return worse ? "worse" : "better";
+        }
+    }
+    
+    private static String formatValue(BenchmarkResult result) {
+        return String.format("%.1f %s", result.getValue(), result.getUnit());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * A value measured by a benchmark. Results are stored as JSON objects keyed by the benchmark
+ * names, in the order the benchmarks were run.
+ */
+final class BenchmarkResult {
+    
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+    
+    private double value;
+    private String unit;
+    
+    // Used when reading the results
+    private BenchmarkResult() {
+    }
+    
+    BenchmarkResult(double value, String unit) {
+        this.value = value;
+        this.unit = unit;
+    }
+    
+    public double getValue() {
+        return this.value;
+    }
+    
+    public String getUnit() {
+        return this.unit;
+    }
+    
+    /**
+     * If a higher value is better, as in throughputs and speedups. A lower value is better for
+     * times and sizes.
+     */
+    boolean isHigherBetter() {
+        return this.unit.endsWith("/s") || this.unit.equals("x");
+    }
+    
+    /**
+     * If the value measures how fast an operation is, either as a throughput or as a duration.
+     */
+    boolean isTime() {
+        return this.isHigherBetter() || this.unit.equals("ms");
+    }
+    
+    /**
+     * If the value measures the memory allocated by an operation.
+     */
+    boolean isAllocation() {
+        return this.unit.startsWith("bytes/");
+    }
+    
+    static Map<String, BenchmarkResult> read(Path path) throws IOException {
+        return BenchmarkResult.OBJECT_MAPPER.readValue(path.toFile(),
+                new TypeReference<LinkedHashMap<String, BenchmarkResult>>() {});
+    }
+    
+    static void write(Path path, Map<String, BenchmarkResult> results) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        
+        BenchmarkResult.OBJECT_MAPPER.writeValue(path.toFile(), results);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs all the benchmarks, printing one result per line. The benchmarks are simple throughput
+ * loops: each operation is run for a warmup period, to let the JIT compiler do its work, and then
+ * counted during a measurement period.
+ * <p>
+ * If the {@code benchmark.resultsFile} system property is set, the results are also written to
+ * that file, as JSON, to be compared with a baseline by {@link BenchmarkComparison}.
+ */
+public final class Benchmarks {
+    
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(3);
+    private static final long MEASUREMENT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    
+    // Keeps the results of the operations reachable, so the JIT compiler can not eliminate them
+    private static volatile Object sink;
+    // The results printed so far, by benchmark name
+    private static final Map<String, BenchmarkResult> results = new LinkedHashMap<>();
+    
+    private Benchmarks() {
+        // No instances allowed
+    }
+    
+    public static void main(String[] args) throws IOException {
+        SessionCreationBenchmark.run();
+        ViewStateBenchmark.run();
+        ViewStateRepositoryBenchmark.run();
+        RenderUpdateBenchmark.run();
+        ParallelRenderingBenchmark.run();
+        
+        String resultsFile = System.getProperty("benchmark.resultsFile");
+        
+        if (resultsFile != null) {
+            BenchmarkResult.write(Paths.get(resultsFile), Benchmarks.results);
+        }
+    }
+    
+    /**
+     * Returns how many times per second the operation can be run.
+     */
+    static double measureThroughput(Operation operation) {
+        Benchmarks.runFor(operation, WARMUP_NANOS);
+        
+        long startTime = System.nanoTime();
+        long operationCount = Benchmarks.runFor(operation, MEASUREMENT_NANOS);
+        long elapsedNanos = System.nanoTime() - startTime;
+        
+        return operationCount * (double)TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+    
+    /**
+     * Returns how many bytes are allocated, on average, by each run of the operation, or NaN if the
+     * JVM can not measure the allocations of a thread.
+     */
+    static double measureAllocation(Operation operation) {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return Double.NaN;
+        }
+        
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean)threadMXBean;
+        long threadId = Thread.currentThread().getId();
+        
+        Benchmarks.runFor(operation, WARMUP_NANOS);
+        
+        long startAllocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId);
+        long operationCount = Benchmarks.runFor(operation, MEASUREMENT_NANOS);
+        long allocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+        
+        return (double)allocatedBytes / operationCount;
+    }
+    
+    private static long runFor(Operation operation, long nanos) {
+        long endTime = System.nanoTime() + nanos;
+        long operationCount = 0;
+        
+        do {
+            Benchmarks.sink = operation.run();
+            operationCount++;
+        } while (System.nanoTime() < endTime);
+        
+        return operationCount;
+    }
+    
+    static void printResult(String benchmarkName, double value, String unit) {
+        Benchmarks.results.put(benchmarkName, new BenchmarkResult(value, unit));
+        System.out.println(String.format("%s: %.1f %s", benchmarkName, value, unit));
+    }
+    
+    @FunctionalInterface
+    interface Operation {
+        Object run();
+    }
+}
\ No newline at end of file
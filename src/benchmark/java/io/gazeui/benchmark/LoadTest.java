@@ -0,0 +1,319 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import io.gazeui.Button;
+import io.gazeui.ContainerControl;
+import io.gazeui.RenderScriptWriter;
+import io.gazeui.Window;
+import io.gazeui.benchmark.SessionCreationBenchmark.OrdersPage;
+import io.gazeui.springboot.annotation.EnableGazeUI;
+
+/**
+ * Drives the endpoints of the GazeUI controller with thousands of simulated sessions, all of them
+ * alive at the same time. Each session loads the initial UI and then clicks buttons of the page
+ * in a sequence that is the same in every run. The requests go through the whole Spring MVC stack,
+ * using MockMvc, so the results do not depend on the network.
+ * <p>
+ * The number of sessions, of clicks per session and of threads sending requests at the same time
+ * are set by the {@code loadTest.sessions}, {@code loadTest.clicks} and {@code loadTest.threads}
+ * system properties.
+ */
+public final class LoadTest {
+    
+    private static final int SESSION_COUNT = Integer.getInteger("loadTest.sessions", 2_000);
+    private static final int CLICKS_PER_SESSION = Integer.getInteger("loadTest.clicks", 20);
+    private static final int THREAD_COUNT = Integer.getInteger("loadTest.threads",
+            Runtime.getRuntime().availableProcessors() * 2);
+    // Sessions run before the measured ones, to let the JIT compiler do its work
+    private static final int WARMUP_SESSION_COUNT = 200;
+    private static final long RANDOM_SEED = 20200101;
+    
+    private LoadTest() {
+        // No instances allowed
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = OrdersPage.class)
+    static class LoadTestConfiguration {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        try (AnnotationConfigWebApplicationContext context =
+                new AnnotationConfigWebApplicationContext()) {
+            context.setServletContext(new MockServletContext());
+            context.register(LoadTestConfiguration.class);
+            context.refresh();
+            
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+            List<String> buttonIds = LoadTest.getButtonIds();
+            ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+            
+            try {
+                LoadTest.simulateSessions(mockMvc, executor, buttonIds, WARMUP_SESSION_COUNT)
+                        .invalidateSessions();
+                LoadTest.runMeasuredSessions(mockMvc, executor, buttonIds);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+    
+    private static void runMeasuredSessions(MockMvc mockMvc, ExecutorService executor,
+            List<String> buttonIds) throws Exception {
+        try (GcPauseRecorder gcPauseRecorder = new GcPauseRecorder()) {
+            long usedHeapBefore = LoadTest.getUsedHeapAfterGc();
+            
+            System.out.println(String.format("loadTest: %d sessions, %d clicks each, %d threads",
+                    SESSION_COUNT, CLICKS_PER_SESSION, THREAD_COUNT));
+            
+            SimulationResult result = LoadTest.simulateSessions(mockMvc, executor, buttonIds,
+                    SESSION_COUNT);
+            
+            // The sessions are still referenced by the result, so their windows are kept alive
+            long usedHeapAfter = LoadTest.getUsedHeapAfterGc();
+            result.invalidateSessions();
+            
+            LoadTest.printLatencies("loadTest.initialUI", result.initialUILatencies,
+                    result.initialUINanos);
+            LoadTest.printLatencies("loadTest.click", result.clickLatencies, result.clickNanos);
+            Benchmarks.printResult("loadTest.heapPerSession",
+                    (usedHeapAfter - usedHeapBefore) / 1024.0 / result.sessions.length, "KB");
+            gcPauseRecorder.printResults("loadTest.gcPause");
+        }
+    }
+    
+    /**
+     * The IDs of the buttons of the initial page, which are the same in every session because they
+     * are assigned in rendering order.
+     */
+    private static List<String> getButtonIds() {
+        Window window = Window.createInstance(OrdersPage.class);
+        window.renderCreation(new RenderScriptWriter());
+        
+        ContainerControl<?> table =
+                (ContainerControl<?>)window.getChildPage().get().getControls().get(1);
+        List<String> buttonIds = new ArrayList<>();
+        
+        for (Object row : table.getControls()) {
+            Button button = (Button)((ContainerControl<?>)row).getControls().get(2);
+            buttonIds.add(button.getClientId().get());
+        }
+        
+        return buttonIds;
+    }
+    
+    private static SimulationResult simulateSessions(MockMvc mockMvc, ExecutorService executor,
+            List<String> buttonIds, int sessionCount) throws Exception {
+        SimulationResult result = new SimulationResult(sessionCount);
+        
+        // Every session loads the initial UI before the first click, so all of them are alive
+        // during the clicks
+        long startTime = System.nanoTime();
+        LoadTest.runAll(executor, sessionCount, sessionIndex -> {
+            MockHttpSession session = new MockHttpSession();
+            result.sessions[sessionIndex] = session;
+            result.initialUILatencies[sessionIndex] = LoadTest.perform(mockMvc,
+                    get("/create-initial-ui.mjs").session(session));
+        });
+        result.initialUINanos = System.nanoTime() - startTime;
+        
+        startTime = System.nanoTime();
+        LoadTest.runAll(executor, sessionCount, sessionIndex -> {
+            Random random = new Random(RANDOM_SEED + sessionIndex);
+            
+            for (int i = 0; i < CLICKS_PER_SESSION; i++) {
+                String eventInfo = String.format(
+                        "{\"controlId\":\"%s\",\"eventName\":\"Click\",\"templateCacheId\":\"%d\"}",
+                        buttonIds.get(random.nextInt(buttonIds.size())), sessionIndex);
+                
+                result.clickLatencies[sessionIndex * CLICKS_PER_SESSION + i] = LoadTest.perform(
+                        mockMvc, post("/process-server-ui-event.json")
+                                .session(result.sessions[sessionIndex])
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(eventInfo));
+            }
+        });
+        result.clickNanos = System.nanoTime() - startTime;
+        
+        return result;
+    }
+    
+    private static void runAll(ExecutorService executor, int sessionCount, SessionTask task)
+            throws Exception {
+        List<Future<?>> futures = new ArrayList<>(sessionCount);
+        
+        for (int i = 0; i < sessionCount; i++) {
+            int sessionIndex = i;
+            futures.add(executor.submit(() -> {
+                task.run(sessionIndex);
+                
+                return null;
+            }));
+        }
+        
+        for (Future<?> future : futures) {
+            // Rethrows the failures of the sessions
+            future.get();
+        }
+    }
+    
+    /**
+     * Performs the request and returns how long it took, in nanoseconds.
+     */
+    private static long perform(MockMvc mockMvc, RequestBuilder requestBuilder) throws Exception {
+        long startTime = System.nanoTime();
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+        long latency = System.nanoTime() - startTime;
+        
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException(String.format("The request failed with status %d: %s",
+                    response.getStatus(), response.getContentAsString()));
+        }
+        
+        return latency;
+    }
+    
+    private static void printLatencies(String benchmarkName, long[] latencies, long elapsedNanos) {
+        long[] sortedLatencies = latencies.clone();
+        Arrays.sort(sortedLatencies);
+        
+        Benchmarks.printResult(benchmarkName + ".throughput",
+                latencies.length * (double)TimeUnit.SECONDS.toNanos(1) / elapsedNanos, "requests/s");
+        
+        for (int percentile : new int[] { 50, 95, 99 }) {
+            int index = (int)Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            
+            double latencyMillis = sortedLatencies[Math.max(index, 0)] /
+                    (double)TimeUnit.MILLISECONDS.toNanos(1);
+            
+            Benchmarks.printResult(benchmarkName + ".p" + percentile, latencyMillis, "ms");
+        }
+    }
+    
+    private static long getUsedHeapAfterGc() {
+        // A single request is not guaranteed to collect everything, so it is made a few times
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+    
+    private static class SimulationResult {
+        
+        private final MockHttpSession[] sessions;
+        private final long[] initialUILatencies;
+        private final long[] clickLatencies;
+        private long initialUINanos;
+        private long clickNanos;
+        
+        private SimulationResult(int sessionCount) {
+            this.sessions = new MockHttpSession[sessionCount];
+            this.initialUILatencies = new long[sessionCount];
+            this.clickLatencies = new long[sessionCount * CLICKS_PER_SESSION];
+        }
+        
+        /**
+         * Ends the sessions, the way a servlet container does when they time out, so their windows
+         * are not kept alive by the next runs.
+         */
+        private void invalidateSessions() {
+            for (MockHttpSession session : this.sessions) {
+                session.invalidate();
+            }
+        }
+    }
+    
+    /**
+     * Records the duration of the garbage collections, except the ones requested by the load test
+     * itself to measure the heap.
+     */
+    private static class GcPauseRecorder implements NotificationListener, AutoCloseable {
+        
+        private static final String EXPLICIT_GC_CAUSE = "System.gc()";
+        
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+        
+        private GcPauseRecorder() {
+            for (GarbageCollectorMXBean gcMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter)gcMXBean).addNotificationListener(this, null, null);
+            }
+        }
+        
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!notification.getType().equals(
+                    GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                    (CompositeData)notification.getUserData());
+            
+            if (!info.getGcCause().equals(EXPLICIT_GC_CAUSE)) {
+                long durationMillis = info.getGcInfo().getDuration();
+                
+                this.count.incrementAndGet();
+                this.totalMillis.addAndGet(durationMillis);
+                this.maxMillis.accumulate(durationMillis);
+            }
+        }
+        
+        private void printResults(String benchmarkName) {
+            Benchmarks.printResult(benchmarkName + ".count", this.count.get(), "collections");
+            Benchmarks.printResult(benchmarkName + ".total", this.totalMillis.get(), "ms");
+            Benchmarks.printResult(benchmarkName + ".max", this.maxMillis.get(), "ms");
+        }
+        
+        @Override
+        public void close() throws Exception {
+            for (GarbageCollectorMXBean gcMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter)gcMXBean).removeNotificationListener(this);
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SessionTask {
+        void run(int sessionIndex) throws Exception;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import io.gazeui.Button;
+import io.gazeui.ContainerControl;
+import io.gazeui.Control;
+import io.gazeui.Label;
+import io.gazeui.RenderScriptWriter;
+import io.gazeui.WebPage;
+import io.gazeui.Window;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Measures the rendering of the creation of a page with about 100 thousand controls, and of an
+ * update changing a third of its rows, sequentially and in parallel with an increasing number of
+ * threads, up to the number of available cores.
+ */
+final class ParallelRenderingBenchmark {
+    
+    private static final int ROW_COUNT = 25_000;
+    
+    private ParallelRenderingBenchmark() {
+        // No instances allowed
+    }
+    
+    static void run() {
+        Window window = Window.createInstance(LargeReportPage.class);
+        
+        ParallelRenderingBenchmark.measure("renderCreation", pool -> {
+            RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_STATIC_IMPORTS,
+                    true, pool);
+            window.renderCreation(writer);
+            
+            return writer;
+        });
+        
+        Window previousWindow = window.clone();
+        LargeReportPage page = (LargeReportPage)window.getChildPage().get();
+        
+        for (int i = 0; i < ROW_COUNT; i += 3) {
+            ContainerControl<?> row = (ContainerControl<?>)page.table.getControls().get(i);
+            ((Label)row.getControls().get(1)).setText(String.valueOf(i * 5));
+        }
+        
+        ParallelRenderingBenchmark.measure("renderUpdate", pool -> {
+            RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                    true, pool);
+            window.renderUpdate(writer, previousWindow);
+            
+            return writer;
+        });
+    }
+    
+    private static void measure(String benchmarkName, Function<ForkJoinPool, Object> operation) {
+        double sequentialThroughput = Benchmarks.measureThroughput(() -> operation.apply(null));
+        
+        Benchmarks.printResult(benchmarkName + ".sequential", sequentialThroughput, "ops/s");
+        
+        int availableProcessors = Runtime.getRuntime().availableProcessors();
+        
+        for (int parallelism = 1; parallelism <= availableProcessors; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            
+            try {
+                double parallelThroughput = Benchmarks.measureThroughput(() -> operation.apply(pool));
+                
+                Benchmarks.printResult(benchmarkName + ".parallel." + parallelism, parallelThroughput,
+                        "ops/s");
+                Benchmarks.printResult(benchmarkName + ".parallel." + parallelism + ".speedup",
+                        parallelThroughput / sequentialThroughput, "x");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class LargeReportPage extends WebPage {
+        
+        private final ContainerControl<Control> table = new ContainerControl<>();
+        
+        public LargeReportPage() {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                ContainerControl<Control> row = new ContainerControl<>();
+                row.getControls().add(new Label("Item " + i));
+                row.getControls().add(new Label(String.valueOf(i * 3)));
+                row.getControls().add(new Button("Remove"));
+                this.table.getControls().add(row);
+            }
+            
+            this.getControls().add(this.table);
+        }
+    }
+}
\ No newline at end of file
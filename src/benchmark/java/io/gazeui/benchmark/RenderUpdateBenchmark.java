@@ -0,0 +1,92 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import java.util.List;
+
+import io.gazeui.ContainerControl;
+import io.gazeui.Control;
+import io.gazeui.Label;
+import io.gazeui.RenderScriptWriter;
+import io.gazeui.Window;
+
+/**
+ * Measures the cost of diffing a window that did not change, which is the baseline paid by every
+ * event for each control of the tree, both in time and in allocated bytes. The cloning of the
+ * window, done before every event to keep its previous state, is measured as well.
+ * <p>
+ * The diff of a table whose rows were moved, removed and changed, as done when sorting or filtering
+ * it, is measured too, since it is the case where the children have to be matched.
+ */
+final class RenderUpdateBenchmark {
+    
+    private RenderUpdateBenchmark() {
+        // No instances allowed
+    }
+    
+    static void run() {
+        Window window = Window.createInstance(SessionCreationBenchmark.OrdersPage.class);
+        
+        // Updates are always rendered after the creation, which sets the defaults of the page
+        window.renderCreation(new RenderScriptWriter(RenderScriptWriter.USE_STATIC_IMPORTS, true));
+        Window previousWindow = window.clone();
+        int controlCount = RenderUpdateBenchmark.countControls(window);
+        
+        Benchmarks.Operation renderUpdate = () -> {
+            RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                    true);
+            window.renderUpdate(writer, previousWindow);
+            
+            return writer;
+        };
+        
+        Benchmarks.printResult("renderUpdate.unchanged", Benchmarks.measureThroughput(renderUpdate),
+                "ops/s");
+        Benchmarks.printResult("renderUpdate.unchanged.allocation",
+                Benchmarks.measureAllocation(renderUpdate) / controlCount, "bytes/control");
+        
+        Benchmarks.Operation cloneWindow = window::clone;
+        
+        Benchmarks.printResult("windowClone", Benchmarks.measureThroughput(cloneWindow), "ops/s");
+        Benchmarks.printResult("windowClone.allocation",
+                Benchmarks.measureAllocation(cloneWindow) / controlCount, "bytes/control");
+        
+        RenderUpdateBenchmark.reorderRows(window);
+        
+        Benchmarks.printResult("renderUpdate.reordered", Benchmarks.measureThroughput(renderUpdate),
+                "ops/s");
+        Benchmarks.printResult("renderUpdate.reordered.allocation",
+                Benchmarks.measureAllocation(renderUpdate) / controlCount, "bytes/control");
+    }
+    
+    /**
+     * Moves the last row of the table to the top, removes a row from the middle and changes the
+     * price of another one.
+     */
+    @SuppressWarnings("unchecked")
+    private static void reorderRows(Window window) {
+        ContainerControl<ContainerControl<Control>> table =
+                (ContainerControl<ContainerControl<Control>>)window.getChildPage().get()
+                        .getControls().get(1);
+        List<ContainerControl<Control>> rows = table.getControls();
+        
+        rows.add(0, rows.remove(rows.size() - 1));
+        rows.remove(rows.size() / 2);
+        ((Label)rows.get(rows.size() / 4).getControls().get(1)).setText("0");
+    }
+    
+    private static int countControls(Control control) {
+        int controlCount = 1;
+        
+        if (control instanceof ContainerControl) {
+            for (Control childControl : ((ContainerControl<?>)control).getControls()) {
+                controlCount += RenderUpdateBenchmark.countControls(childControl);
+            }
+        }
+        
+        return controlCount;
+    }
+}
\ No newline at end of file
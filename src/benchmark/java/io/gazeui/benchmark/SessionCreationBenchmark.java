@@ -0,0 +1,74 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import io.gazeui.Button;
+import io.gazeui.ContainerControl;
+import io.gazeui.Control;
+import io.gazeui.Label;
+import io.gazeui.WebPage;
+import io.gazeui.WebPagePrototype;
+import io.gazeui.Window;
+
+/**
+ * Measures how many session windows can be created per second when the initial page is constructed
+ * for each session and when it is copied from a prototype.
+ */
+final class SessionCreationBenchmark {
+    
+    private SessionCreationBenchmark() {
+        // No instances allowed
+    }
+    
+    @SuppressWarnings("serial")
+    public static class OrdersPage extends WebPage {
+        
+        private static final int ROW_COUNT = 200;
+        
+        private final Label totalLabel = new Label("0");
+        private final ContainerControl<ContainerControl<Control>> table = new ContainerControl<>();
+        
+        public OrdersPage() {
+            this.getControls().add(this.totalLabel);
+            this.getControls().add(this.table);
+            
+            this.table.addControlsInBatch(rows -> {
+                for (int i = 0; i < ROW_COUNT; i++) {
+                    ContainerControl<Control> row = new ContainerControl<>();
+                    row.getControls().add(new Label("Order " + i));
+                    row.getControls().add(new Label(Integer.toString(i * 10)));
+                    row.getControls().add(new Button("Add"));
+                    rows.add(row);
+                }
+            });
+        }
+        
+        @Override
+        protected void bindEventHandlers() {
+            for (ContainerControl<Control> row : this.table.getControls()) {
+                Label priceLabel = (Label)row.getControls().get(1);
+                
+                ((Button)row.getControls().get(2)).addOnClickHandler(e -> {
+                    int total = Integer.parseInt(this.totalLabel.getText()) +
+                            Integer.parseInt(priceLabel.getText());
+                    this.totalLabel.setText(Integer.toString(total));
+                });
+            }
+        }
+    }
+    
+    static void run() {
+        Benchmarks.printResult("sessionCreation.constructor",
+                Benchmarks.measureThroughput(() -> Window.createInstance(OrdersPage.class)),
+                "sessions/s");
+        
+        WebPagePrototype<OrdersPage> prototype = new WebPagePrototype<>(OrdersPage.class);
+        
+        Benchmarks.printResult("sessionCreation.prototype",
+                Benchmarks.measureThroughput(() -> Window.createInstance(prototype)),
+                "sessions/s");
+    }
+}
\ No newline at end of file
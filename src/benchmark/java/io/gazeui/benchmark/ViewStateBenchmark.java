@@ -0,0 +1,32 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import io.gazeui.Window;
+import io.gazeui.springboot.viewstate.SignedViewStateCodec;
+
+/**
+ * Measures the cost, per event, of keeping the view state on the client side: serializing,
+ * compressing and signing the window, and verifying, decompressing and deserializing it back.
+ */
+final class ViewStateBenchmark {
+    
+    private ViewStateBenchmark() {
+        // No instances allowed
+    }
+    
+    static void run() {
+        SignedViewStateCodec codec = new SignedViewStateCodec(new byte[32], 1024 * 1024);
+        Window window = Window.createInstance(SessionCreationBenchmark.OrdersPage.class);
+        String token = codec.encode(window);
+        
+        Benchmarks.printResult("viewState.tokenLength", token.length(), "chars");
+        Benchmarks.printResult("viewState.encode", Benchmarks.measureThroughput(() -> codec.encode(window)),
+                "ops/s");
+        Benchmarks.printResult("viewState.decode", Benchmarks.measureThroughput(() -> codec.decode(token)),
+                "ops/s");
+    }
+}
\ No newline at end of file
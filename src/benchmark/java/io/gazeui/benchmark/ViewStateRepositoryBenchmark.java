@@ -0,0 +1,41 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.benchmark;
+
+import io.gazeui.Window;
+import io.gazeui.springboot.viewstate.InMemoryViewStateRepository;
+import io.gazeui.springboot.viewstate.SerializingViewStateRepository;
+import io.gazeui.springboot.viewstate.ViewStateRepository;
+
+/**
+ * Measures the store latency of the view state repositories, apart from the render latency: each
+ * operation loads a window and saves it back, as done for every event.
+ */
+final class ViewStateRepositoryBenchmark {
+    
+    private static final String VIEW_STATE_ID = "benchmark";
+    
+    private ViewStateRepositoryBenchmark() {
+        // No instances allowed
+    }
+    
+    static void run() {
+        ViewStateRepositoryBenchmark.run("viewStateRepository.inMemory", new InMemoryViewStateRepository());
+        ViewStateRepositoryBenchmark.run("viewStateRepository.serializing",
+                new SerializingViewStateRepository());
+    }
+    
+    private static void run(String benchmarkName, ViewStateRepository repository) {
+        repository.save(VIEW_STATE_ID, Window.createInstance(SessionCreationBenchmark.OrdersPage.class));
+        
+        Benchmarks.printResult(benchmarkName, Benchmarks.measureThroughput(() -> {
+            Window window = repository.load(VIEW_STATE_ID).get();
+            repository.save(VIEW_STATE_ID, window);
+            
+            return window;
+        }), "ops/s");
+    }
+}
\ No newline at end of file
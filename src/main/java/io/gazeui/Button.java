@@ -5,20 +5,35 @@
 
 package io.gazeui;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import io.gazeui.event.EventArgs;
 import io.gazeui.event.EventHandler;
+import io.gazeui.event.EventHandlerList;
+import io.gazeui.event.EventKey;
+import io.gazeui.event.EventRatePolicy;
+import io.gazeui.text.Strings;
 
+@SuppressWarnings("serial")
 public class Button extends Control {
     
     private static final String MODULE_NAME = "Button";
     private static final String MODULE_PATH = "./button/button.mjs";
+    private static final String ADD_CLICK_LISTENER_FUNCTION_ALIAS = "L";
+    private static final String REMOVE_CLICK_LISTENER_FUNCTION_ALIAS = "R";
+    
+    static final EventKey<EventArgs> CLICK_EVENT = EventKey.of("Click");
+    
+    static {
+        UIEventRegistry.register(Button.class, CLICK_EVENT,
+                (button, eventArgument) -> button.processOnClickEvent());
+    }
     
     private String text;
-    private List<EventHandler<EventArgs>> clickHandlers;
+    private EventHandlerList<EventArgs> clickHandlers = EventHandlerList.empty();
+    private EventRatePolicy clickRatePolicy;
     
     public Button() {
     }
@@ -32,45 +47,62 @@ public class Button extends Control {
     }
     
     public void setText(String text) {
+        this.adjustRetainedSizeEstimate(
+                Control.estimateStringSize(text) - Control.estimateStringSize(this.text));
         this.text = text;
     }
     
     public void addOnClickHandler(EventHandler<EventArgs> onClickHandler) {
-        if (!this.getClickHandlers().contains(onClickHandler)) {
-            this.getClickHandlers().add(onClickHandler);
-        }
+        this.setClickHandlers(this.clickHandlers.add(onClickHandler));
+    }
+    
+    /**
+     * Adds a click handler and sets the policy that limits, on the client side, how often the
+     * clicks are sent to the server. The policy applies to all the click handlers of this button,
+     * so the last one given is used.
+     */
+    public void addOnClickHandler(EventHandler<EventArgs> onClickHandler, EventRatePolicy clickRatePolicy) {
+        this.clickRatePolicy = Objects.requireNonNull(clickRatePolicy);
+        this.addOnClickHandler(onClickHandler);
+    }
+    
+    public Optional<EventRatePolicy> getClickRatePolicy() {
+        return Optional.ofNullable(this.clickRatePolicy);
     }
     
     public void removeOnClickHandler(EventHandler<EventArgs> onClickHandler) {
-        this.getClickHandlers().remove(onClickHandler);
+        this.setClickHandlers(this.clickHandlers.remove(onClickHandler));
     }
     
-    void processOnClickEvent() {
-        EventArgs eventArgs = new EventArgs(this);
-        
-        for (EventHandler<EventArgs> clickHandler : this.getClickHandlers()) {
-            clickHandler.handle(eventArgs);
-        }
+    private void setClickHandlers(EventHandlerList<EventArgs> clickHandlers) {
+        this.adjustRetainedSizeEstimate(clickHandlers.getRetainedSizeEstimate() -
+                this.clickHandlers.getRetainedSizeEstimate());
+        this.clickHandlers = clickHandlers;
     }
     
-    private List<EventHandler<EventArgs>> getClickHandlers() {
-        if (this.clickHandlers == null) {
-            this.clickHandlers = new LinkedList<>();
-        }
-        
-        return this.clickHandlers;
+    @Override
+    protected boolean hasServerEventHandlers() {
+        return !this.clickHandlers.isEmpty();
+    }
+    
+    @Override
+    boolean hasEventHandlers() {
+        return !this.clickHandlers.isEmpty();
+    }
+    
+    @Override
+    void clearEventHandlers() {
+        this.setClickHandlers(EventHandlerList.empty());
+    }
+    
+    void processOnClickEvent() {
+        this.clickHandlers.fire(CLICK_EVENT, this);
     }
     
     @Override
     protected Button clone() {
-        Button clonedButton = (Button)super.clone();
-        
-        if (this.clickHandlers != null) {
-            // Doing a shallow copy of the list of handlers
-            clonedButton.clickHandlers = new LinkedList<>(this.clickHandlers);
-        }
-        
-        return clonedButton;
+        // The list of handlers is immutable, so it is shared with the clone instead of copied
+        return (Button)super.clone();
     }
     
     @Override
@@ -83,10 +115,20 @@ public class Button extends Control {
     
     @Override
     protected void renderCreation(RenderScriptWriter writer) {
-        boolean moduleNeeded = false;
+        if (writer.isCompact()) {
+            this.renderCompactCreation(writer, "button", this.getText());
+            
+            if (this.hasServerEventHandlers()) {
+                this.renderAddClickListener(writer);
+            }
+            
+            return;
+        }
+        
+        String clientId = this.getClientIdOrNull();
         
-        writer.format("let %s = document.createElement('button');\n", this.getClientId().get());
-        writer.format("%1$s.id = '%1$s';\n", this.getClientId().get());
+        writer.format("let %s = document.createElement('button');\n", clientId);
+        writer.format("%1$s.id = '%1$s';\n", clientId);
         
         // According to the MDN website¹:
         //
@@ -98,70 +140,137 @@ public class Button extends Control {
         //   [1]: https://developer.mozilla.org/en-US/docs/Web/API/Element/innerHTML
         
         if (this.getText() != null && !this.getText().isEmpty()) {
-            // TODO: JavaScript escape
-            writer.format("%s.textContent = '%s';\n", this.getClientId().get(), this.getText());
+            writer.format("%s.textContent = '%s';\n", clientId,
+                    Strings.escapeJavaScript(this.getText()));
         }
         
-        // Here we are accessing the variable directly to avoid the unnecessary creation of the
-        // collection when there are no handlers.
-        if (this.clickHandlers != null && !this.clickHandlers.isEmpty()) {
-            moduleNeeded = true;
-            
-            writer.format("%s.addEventListener('click', %s.onClickHandler, {\n",
-                    this.getClientId().get(), MODULE_NAME);
-            writer.print(
-                "    capture: false,\n" +
-                "    passive: true\n" +
-                "});\n");
+        if (this.hasServerEventHandlers()) {
+            this.renderAddClickListener(writer);
+        }
+    }
+    
+    @Override
+    boolean appendTemplateHtml(StringBuilder templateHtml) {
+        // Subclasses may render a different structure
+        if (this.getClass() != Button.class) {
+            return false;
         }
         
-        if (moduleNeeded) {
-            writer.importModule(MODULE_NAME, MODULE_PATH);
+        templateHtml.append("<button></button>");
+        
+        return true;
+    }
+    
+    @Override
+    void renderTemplateInstance(RenderScriptWriter writer, List<String> clientIds, List<String> texts) {
+        clientIds.add(this.getClientIdOrNull());
+        texts.add(this.getText() != null && !this.getText().isEmpty() ? this.getText() : null);
+        
+        // Event listeners are not copied when cloning elements
+        if (this.hasServerEventHandlers()) {
+            this.renderAddClickListener(writer);
         }
     }
     
     @Override
     protected void renderUpdate(RenderScriptWriter writer, Control previousControlState) {
         Button previousButton = (Button)previousControlState;
-        RenderScriptWriter localWriter = new RenderScriptWriter();
-        boolean moduleNeeded = false;
+        String currentText = Strings.nullToEmpty(this.getText());
+        boolean textChanged = !currentText.equals(Strings.nullToEmpty(previousButton.getText()));
+        
+        boolean previousListening = previousButton.hasServerEventHandlers();
+        boolean currentListening = this.hasServerEventHandlers();
+        boolean removeListener = previousListening && (!currentListening ||
+                !Objects.equals(this.clickRatePolicy, previousButton.clickRatePolicy));
+        boolean addListener = currentListening && (!previousListening || removeListener);
         
-        String currentText = Optional.ofNullable(this.getText()).orElse("");
-        String previousText = Optional.ofNullable(previousButton.getText()).orElse("");
+        // Most buttons do not change between updates, so nothing is allocated for them
+        if (!textChanged && !removeListener && !addListener) {
+            return;
+        }
+        
+        this.renderSelection(writer);
+        
+        if (textChanged) {
+            writer.format(writer.isCompact() ? "%s.textContent='%s';" : "%s.textContent = '%s';\n",
+                    this.getClientIdOrNull(), Strings.escapeJavaScript(currentText));
+        }
         
-        if (!currentText.equals(previousText)) {
-            // TODO: JavaScript escape
-            localWriter.format("%s.textContent = '%s';\n", this.getClientId().get(), currentText);
+        if (removeListener) {
+            previousButton.renderRemoveClickListener(writer);
         }
         
-        if (previousButton.getClickHandlers().isEmpty() &&
-                this.clickHandlers != null && !this.clickHandlers.isEmpty()) {
-            moduleNeeded = true;
+        if (addListener) {
+            this.renderAddClickListener(writer);
+        }
+    }
+    
+    private void renderAddClickListener(RenderScriptWriter writer) {
+        String clientId = this.getClientIdOrNull();
+        
+        if (writer.isCompact()) {
+            writer.importFunction(ADD_CLICK_LISTENER_FUNCTION_ALIAS, "addClickListener", MODULE_PATH);
             
-            localWriter.format("%s.addEventListener('click', %s.onClickHandler, {\n",
-                    this.getClientId().get(), MODULE_NAME);
-            localWriter.print(
-                "    capture: false,\n" +
-                "    passive: true\n" +
-                "});\n");
-        } else if (!previousButton.getClickHandlers().isEmpty() && this.getClickHandlers().isEmpty()) {
-            moduleNeeded = true;
+            if (this.clickRatePolicy != null) {
+                writer.format("%s(%s,%s);", ADD_CLICK_LISTENER_FUNCTION_ALIAS, clientId,
+                        Button.ratePolicyArguments(this.clickRatePolicy, ","));
+            } else {
+                writer.format("%s(%s);", ADD_CLICK_LISTENER_FUNCTION_ALIAS, clientId);
+            }
+        } else {
+            writer.importModule(MODULE_NAME, MODULE_PATH);
             
-            localWriter.format("%s.removeEventListener('click', %s.onClickHandler, {\n",
-                    this.getClientId().get(), MODULE_NAME);
-            localWriter.print(
-                "    capture: false,\n" +
-                "    passive: true\n" +
-                "});\n");
+            if (this.clickRatePolicy != null) {
+                // The rate limited listener is kept by the module, so it can be removed later
+                writer.format("%s.addClickListener(%s, %s);\n", MODULE_NAME, clientId,
+                        Button.ratePolicyArguments(this.clickRatePolicy, ", "));
+            } else {
+                writer.format("%s.addEventListener('click', %s.onClickHandler, {\n",
+                        clientId, MODULE_NAME);
+                writer.print(
+                    "    capture: false,\n" +
+                    "    passive: true\n" +
+                    "});\n");
+            }
         }
+    }
+    
+    private void renderRemoveClickListener(RenderScriptWriter writer) {
+        String clientId = this.getClientIdOrNull();
         
-        if (!localWriter.isEmpty()) {
-            if (moduleNeeded) {
-                writer.importModule(MODULE_NAME, MODULE_PATH);
+        if (writer.isCompact()) {
+            writer.importFunction(REMOVE_CLICK_LISTENER_FUNCTION_ALIAS, "removeClickListener", MODULE_PATH);
+            writer.format("%s(%s);", REMOVE_CLICK_LISTENER_FUNCTION_ALIAS, clientId);
+        } else {
+            writer.importModule(MODULE_NAME, MODULE_PATH);
+            
+            if (this.clickRatePolicy != null) {
+                writer.format("%s.removeClickListener(%s);\n", MODULE_NAME, clientId);
+            } else {
+                writer.format("%s.removeEventListener('click', %s.onClickHandler, {\n",
+                        clientId, MODULE_NAME);
+                writer.print(
+                    "    capture: false,\n" +
+                    "    passive: true\n" +
+                    "});\n");
             }
+        }
+    }
+    
+    /**
+     * Returns the arguments identifying the rate policy to the 'applyRatePolicy' function of the
+     * GazeUI core module.
+     */
+    private static String ratePolicyArguments(EventRatePolicy ratePolicy, String separator) {
+        switch (ratePolicy.getKind()) {
+            case DEBOUNCE:
+                return String.format("'debounce'%s%d", separator, ratePolicy.getDelayMillis());
+            
+            case THROTTLE:
+                return String.format("'throttle'%s%d", separator, ratePolicy.getDelayMillis());
             
-            writer.print(this.selectionScript());
-            writer.print(localWriter);
+            default:
+                return "'dropWhileInFlight'";
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.util.OptionalInt;
+
+/**
+ * Defines how the numeric IDs automatically assigned to controls are rendered on the client side.
+ * The rendered ID is used both as the HTML ID attribute and as the JavaScript variable name of the
+ * control, so it must be a valid identifier in both languages.
+ */
+public enum ClientIdStrategy {
+    
+    /**
+     * Short base-36 IDs like '_1', '_z' and '_10'. The underscore prefix makes it impossible for
+     * an ID to start with a digit or to be equal to a JavaScript reserved word.
+     */
+    COMPACT {
+        @Override
+        public String format(int controlId) {
+            return "_" + Integer.toString(controlId, Character.MAX_RADIX);
+        }
+        
+        @Override
+        int parse(String clientId) {
+            return clientId.startsWith("_") ?
+                    Integer.parseInt(clientId.substring(1), Character.MAX_RADIX) : 0;
+        }
+    },
+    
+    /**
+     * Readable decimal IDs like 'ctl01', 'ctl09' and 'ctl10', useful when debugging the generated
+     * scripts.
+     */
+    READABLE {
+        @Override
+        public String format(int controlId) {
+            return (controlId < 10 ? "ctl0" : "ctl") + controlId;
+        }
+        
+        @Override
+        int parse(String clientId) {
+            return clientId.startsWith("ctl") ? Integer.parseInt(clientId.substring(3)) : 0;
+        }
+    };
+    
+    public abstract String format(int controlId);
+    
+    /**
+     * Returns the numeric control ID for a client ID produced by the {@link #format(int)} method. An
+     * empty result is returned when the client ID was not produced by this strategy.
+     */
+    public OptionalInt parseClientId(String clientId) {
+        int controlId = this.parseControlId(clientId);
+        
+        return controlId != 0 ? OptionalInt.of(controlId) : OptionalInt.empty();
+    }
+    
+    /**
+     * The same as {@link #parseClientId(String)}, but returning zero instead of an empty result.
+     */
+    int parseControlId(String clientId) {
+        try {
+            int controlId = this.parse(clientId);
+            
+            // Only the canonical form is accepted, so different strings can not refer to the same control
+            if (controlId > 0 && this.format(controlId).equals(clientId)) {
+                return controlId;
+            }
+        } catch (NumberFormatException ex) {
+            // The client ID is not in the format of this strategy
+        }
+        
+        return 0;
+    }
+    
+    abstract int parse(String clientId);
+}
\ No newline at end of file
@@ -5,41 +5,64 @@
 
 package io.gazeui;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
+import io.gazeui.collections.IntObjectHashMap;
 import io.gazeui.collections.Lists;
+import io.gazeui.text.Strings;
 
 /**
  * Represents a control that can function as a container for other controls.
  * 
  * @param <T> the type of controls in this container
  */
+@SuppressWarnings("serial")
 public class ContainerControl<T extends Control> extends Control {
-
+    
+    // Minimum number of sibling controls with the same structure to create them from a template
+    private static final int TEMPLATE_MIN_INSTANCES = 3;
+    // Minimum number of child controls to split their creation or update in parallel tasks, and
+    // minimum number of child controls rendered by each task
+    private static final int PARALLEL_RENDERING_MIN_CHILDREN = 64;
+    private static final int PARALLEL_RENDERING_MIN_TASK_CHILDREN = 16;
+    // Tasks per thread of the pool, so threads that finish early can take the remaining tasks
+    private static final int PARALLEL_RENDERING_TASKS_PER_THREAD = 4;
+    // The control collection, its inner list and the initial array of the list
+    private static final int CONTROL_COLLECTION_RETAINED_SIZE = 96;
+    
+    private static final ClassValue<Boolean> creationScriptOverridden =
+            new OverrideCheck("creationScript", ContainerControl.class);
+    
     private static final Comparator<Control> clientIdComparator;
-    private static final Function<Control, String> funcControlToClientId;
     
     static {
         clientIdComparator = new Comparator<Control>() {
             @Override
             public int compare(Control c1, Control c2) {
-                return c1.getClientId().get().compareTo(c2.getClientId().get());
+                return Integer.compare(c1.getControlId(), c2.getControlId());
             }
         };
-        
-        funcControlToClientId = ((Function<Control, Optional<String>>) Control::getClientId)
-                .andThen(Optional::get);
     }
     
     private List<T> controls;
     
+    public ContainerControl() {
+        // The collection of child controls is created lazily, but accounted from the start, so
+        // clones never differ from the original in their estimates
+        this.adjustRetainedSizeEstimate(CONTROL_COLLECTION_RETAINED_SIZE);
+    }
+    
     public List<T> getControls() {
         if (this.controls == null) {
             // To generate the automatic ID for controls, we have to know when they are added.
@@ -50,6 +73,23 @@ public class ContainerControl<T extends Control> extends Control {
         return this.controls;
     }
     
+    /**
+     * Adds to the end of this container all the controls added by the given action to the list it
+     * receives. Linking the controls to this container, resolving their page and assigning their
+     * client IDs is deferred until the action completes and then done in a single pass, which is
+     * considerably faster than adding the controls one by one when building large control trees.
+     * 
+     * @param batchAction an action that adds to the received list the controls to be added
+     */
+    public void addControlsInBatch(Consumer<? super List<T>> batchAction) {
+        List<T> stagedControls = new ArrayList<>();
+        batchAction.accept(stagedControls);
+        
+        // The addAll method of the control collection already links the controls and assigns
+        // their IDs in a single pass
+        this.getControls().addAll(stagedControls);
+    }
+    
     @SuppressWarnings("unchecked")
     @Override
     protected ContainerControl<T> clone() {
@@ -59,31 +99,301 @@ public class ContainerControl<T extends Control> extends Control {
         // ControlCollection
         clonedContainerControl.controls = new ArrayList<>(this.getControls().size());
         
-        // Doing a deep copy of child controls
-        for (T control : this.getControls()) {
-            clonedContainerControl.getControls().add((T)control.clone());
+        List<T> controls = this.getControls();
+        
+        // Doing a deep copy of child controls. Both lists allow fast access by index, which saves
+        // allocating iterators for each container of the tree.
+        for (int i = 0; i < controls.size(); i++) {
+            clonedContainerControl.controls.add((T)controls.get(i).clone());
         }
         
         return clonedContainerControl;
     }
     
+    @Override
+    protected boolean hasServerEventHandlers() {
+        for (Control childControl : this.getControls()) {
+            if (childControl.hasServerEventHandlers()) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Turns the plain list of child controls set by {@link #clone()} into a control collection, so
+     * the cloned container can be used as a live one.
+     * 
+     * @return the plain list of child controls
+     */
+    List<T> wrapClonedControls() {
+        List<T> clonedControls = this.controls;
+        this.controls = new ControlCollection<>(this, clonedControls);
+        
+        return clonedControls;
+    }
+    
     /**
      * A script that will be responsible to create the container for child controls on the client side.
      */
     protected String creationScript() {
         return String.format(
                 "let %1$s = document.createElement('div');\n" +
-                "%1$s.id = '%1$s';\n", this.getClientId().get());
+                "%1$s.id = '%1$s';\n", this.getClientIdOrNull());
+    }
+    
+    /**
+     * Prints the {@link #creationScript()} of this container. In compact mode, a shorter script
+     * using a shared helper function is printed instead, unless a subclass overrides
+     * {@link #creationScript()}.
+     */
+    protected void renderContainerCreation(RenderScriptWriter writer) {
+        if (writer.isCompact() &&
+                !ContainerControl.creationScriptOverridden.get(this.getClass())) {
+            this.renderCompactCreation(writer, "div", null);
+        } else {
+            writer.print(this.creationScript());
+        }
     }
     
     @Override
     protected void renderCreation(RenderScriptWriter writer) {
-        writer.print(this.creationScript());
+        this.renderContainerCreation(writer);
+        this.renderChildrenCreation(writer, this.isAttachedOnCreation());
+    }
+    
+    /**
+     * Renders the creation of all the child controls, appending them to the element of this
+     * container, which must already be identified in the script.
+     * 
+     * @param attachedOnCreation if the element of this container is in the live DOM tree, in which
+     *        case all the children are inserted at once
+     */
+    void renderChildrenCreation(RenderScriptWriter writer, boolean attachedOnCreation) {
+        // Templates are used only in compact mode, to keep the readable mode easy to debug
+        String[] childTemplateHtmls = writer.isCompact() ? this.findRepeatedChildTemplates() : null;
+        List<T> childControls = this.getControls();
+        
+        if (this.rendersChildrenInParallel(writer)) {
+            RenderScriptWriter[] forkedWriters = new RenderScriptWriter[childControls.size()];
+            
+            ContainerControl.invokeInParallel(writer.getParallelRenderingPool(), childControls.size(),
+                    (fromIndex, toIndex) -> {
+                        forkedWriters[fromIndex] = writer.createForkedWriter();
+                        this.renderChildrenCreation(forkedWriters[fromIndex], childTemplateHtmls,
+                                attachedOnCreation, fromIndex, toIndex);
+                    });
+            
+            ContainerControl.printForkedWriters(writer, forkedWriters);
+        } else {
+            this.renderChildrenCreation(writer, childTemplateHtmls, attachedOnCreation, 0,
+                    childControls.size());
+        }
+        
+        if (attachedOnCreation && !childControls.isEmpty()) {
+            List<String> childTokens = new ArrayList<>(childControls.size());
+            
+            for (int i = 0; i < childControls.size(); i++) {
+                childTokens.add(childControls.get(i).identificationToken());
+            }
+            
+            // A container that is already in the live DOM tree receives all its children at once
+            this.renderInsertAllBefore(writer, childTokens, null);
+        }
+    }
+    
+    private void renderChildrenCreation(RenderScriptWriter writer, String[] childTemplateHtmls,
+            boolean attachedOnCreation, int fromIndex, int toIndex) {
+        List<T> childControls = this.getControls();
+        
+        for (int childIndex = fromIndex; childIndex < toIndex; childIndex++) {
+            Control childControl = childControls.get(childIndex);
+            
+            if (childTemplateHtmls != null && childTemplateHtmls[childIndex] != null) {
+                this.renderCreationFromTemplate(writer, childControl, childTemplateHtmls[childIndex]);
+            } else {
+                childControl.renderCreation(writer);
+            }
+            
+            if (!attachedOnCreation) {
+                // The container is still detached, so appending the child does not trigger any
+                // style or layout work on the browser
+                writer.format(writer.isCompact() ? "%s.appendChild(%s);" : "%s.appendChild(%s);\n",
+                        this.identificationToken(), childControl.identificationToken());
+            }
+        }
+    }
+    
+    private boolean rendersChildrenInParallel(RenderScriptWriter writer) {
+        return writer.getParallelRenderingPool() != null &&
+                this.getControls().size() >= PARALLEL_RENDERING_MIN_CHILDREN;
+    }
+    
+    /**
+     * Runs the action for ranges of the child controls in parallel, in the given pool, returning
+     * when all of them are done. Ranges are small enough to be balanced between the threads.
+     */
+    private static void invokeInParallel(ForkJoinPool parallelRenderingPool, int childCount,
+            ChildRangeAction action) {
+        int maxTaskCount = parallelRenderingPool.getParallelism() * PARALLEL_RENDERING_TASKS_PER_THREAD;
+        int taskChildCount = Math.max(PARALLEL_RENDERING_MIN_TASK_CHILDREN,
+                (childCount + maxTaskCount - 1) / maxTaskCount);
+        List<RecursiveAction> tasks = new ArrayList<>();
+        
+        for (int i = 0; i < childCount; i += taskChildCount) {
+            int fromIndex = i;
+            int toIndex = Math.min(fromIndex + taskChildCount, childCount);
+            
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    action.run(fromIndex, toIndex);
+                }
+            });
+        }
+        
+        // Nested containers are rendered by tasks already running in the pool
+        if (ForkJoinTask.getPool() == parallelRenderingPool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            parallelRenderingPool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Prints the forked writers in the order of the child controls they rendered, skipping the
+     * null entries, so the script is the same as the one rendered sequentially.
+     */
+    private static void printForkedWriters(RenderScriptWriter writer,
+            RenderScriptWriter[] forkedWriters) {
+        for (RenderScriptWriter forkedWriter : forkedWriters) {
+            if (forkedWriter != null) {
+                writer.printForked(forkedWriter);
+            }
+        }
+    }
+    
+    /**
+     * If the element of this container is already in the live DOM tree when its creation script
+     * is run, instead of being created detached.
+     */
+    boolean isAttachedOnCreation() {
+        return false;
+    }
+    
+    /**
+     * Returns, for each child control, the HTML of its template if there are enough siblings with
+     * the same structure to be worth creating them from a template, or null otherwise. Only child
+     * containers are considered, because cloning a single element has no advantage over creating it.
+     */
+    private String[] findRepeatedChildTemplates() {
+        if (this.getControls().size() < TEMPLATE_MIN_INSTANCES) {
+            return null;
+        }
+        
+        String[] childTemplateHtmls = new String[this.getControls().size()];
+        Map<String, Integer> templateInstancesCount = new HashMap<>();
+        StringBuilder sbTemplateHtml = new StringBuilder();
+        int childIndex = 0;
         
         for (Control childControl : this.getControls()) {
-            childControl.renderCreation(writer);
-            writer.format("%s.appendChild(%s);\n", this.identificationToken(),
-                    childControl.identificationToken());
+            if (childControl instanceof ContainerControl &&
+                    !((ContainerControl<?>)childControl).getControls().isEmpty()) {
+                sbTemplateHtml.setLength(0);
+                
+                if (childControl.appendTemplateHtml(sbTemplateHtml)) {
+                    childTemplateHtmls[childIndex] = sbTemplateHtml.toString();
+                    templateInstancesCount.merge(childTemplateHtmls[childIndex], 1, Integer::sum);
+                }
+            }
+            
+            childIndex++;
+        }
+        
+        boolean anyTemplate = false;
+        
+        for (int i = 0; i < childTemplateHtmls.length; i++) {
+            if (childTemplateHtmls[i] != null) {
+                if (templateInstancesCount.get(childTemplateHtmls[i]) >= TEMPLATE_MIN_INSTANCES) {
+                    anyTemplate = true;
+                } else {
+                    childTemplateHtmls[i] = null;
+                }
+            }
+        }
+        
+        return anyTemplate ? childTemplateHtmls : null;
+    }
+    
+    private void renderCreationFromTemplate(RenderScriptWriter writer, Control control, String templateHtml) {
+        writer.importFunction(CREATE_TEMPLATE_FUNCTION_ALIAS, "createTemplate", RENDER_FUNCTIONS_MODULE_PATH);
+        writer.importFunction(INSTANTIATE_TEMPLATE_FUNCTION_ALIAS, "instantiateTemplate",
+                RENDER_FUNCTIONS_MODULE_PATH);
+        
+        // The template is declared only once per script, no matter how many instances are created
+        String templateVariable = writer.declareSharedVariable(
+                String.format("%s('%s')", CREATE_TEMPLATE_FUNCTION_ALIAS, templateHtml));
+        
+        List<String> clientIds = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        RenderScriptWriter instanceWriter = writer.createLocalWriter();
+        control.renderTemplateInstance(instanceWriter, clientIds, texts);
+        
+        // Elements without text are represented as holes in the array, like [,'a',,'b']
+        StringJoiner sjClientIds = new StringJoiner(",");
+        StringJoiner sjTexts = new StringJoiner(",");
+        int lastTextIndex = -1;
+        
+        for (int i = 0; i < clientIds.size(); i++) {
+            sjClientIds.add("'" + clientIds.get(i) + "'");
+            
+            if (texts.get(i) != null) {
+                lastTextIndex = i;
+            }
+        }
+        
+        for (int i = 0; i <= lastTextIndex; i++) {
+            sjTexts.add(texts.get(i) != null ?
+                    "'" + Strings.escapeJavaScript(texts.get(i)) + "'" : "");
+        }
+        
+        writer.format("let[%s]=%s(%s,[%s],[%s]);", String.join(",", clientIds),
+                INSTANTIATE_TEMPLATE_FUNCTION_ALIAS, templateVariable, sjClientIds, sjTexts);
+        writer.print(instanceWriter);
+    }
+    
+    @Override
+    boolean appendTemplateHtml(StringBuilder templateHtml) {
+        // Subclasses may render a different structure
+        if (this.getClass() != ContainerControl.class) {
+            return false;
+        }
+        
+        templateHtml.append("<div>");
+        
+        for (Control childControl : this.getControls()) {
+            if (!childControl.appendTemplateHtml(templateHtml)) {
+                return false;
+            }
+        }
+        
+        templateHtml.append("</div>");
+        
+        return true;
+    }
+    
+    @Override
+    void renderTemplateInstance(RenderScriptWriter writer, List<String> clientIds, List<String> texts) {
+        super.renderTemplateInstance(writer, clientIds, texts);
+        
+        for (Control childControl : this.getControls()) {
+            childControl.renderTemplateInstance(writer, clientIds, texts);
         }
     }
     
@@ -97,37 +407,60 @@ public class ContainerControl<T extends Control> extends Control {
         // made. Doing that we avoid running the Longest Common Subsequence algorithm (a heavy operation)
         // for this simple case.
         if (this.listsWithSameStructure(this.getControls(), previousContainerState.getControls())) {
-            Iterator<T> currentChildControlsIterator = this.getControls().iterator();
-            Iterator<T> previousChildControlsIterator = previousContainerState.getControls().iterator();
+            List<T> childControls = this.getControls();
+            List<T> previousChildControls = previousContainerState.getControls();
             
-            while (currentChildControlsIterator.hasNext()) {
-                Control childControl = currentChildControlsIterator.next();
-                Control previousChildControl = previousChildControlsIterator.next();
+            if (this.rendersChildrenInParallel(writer)) {
+                RenderScriptWriter[] forkedWriters = new RenderScriptWriter[childControls.size()];
+                
+                ContainerControl.invokeInParallel(writer.getParallelRenderingPool(),
+                        childControls.size(), (fromIndex, toIndex) -> {
+                            RenderScriptWriter forkedWriter = writer.createForkedWriter();
+                            
+                            for (int i = fromIndex; i < toIndex; i++) {
+                                childControls.get(i).renderUpdate(forkedWriter,
+                                        previousChildControls.get(i));
+                            }
+                            
+                            forkedWriters[fromIndex] = forkedWriter;
+                        });
                 
-                childControl.renderUpdate(writer, previousChildControl);
+                ContainerControl.printForkedWriters(writer, forkedWriters);
+            } else {
+                for (int i = 0; i < childControls.size(); i++) {
+                    childControls.get(i).renderUpdate(writer, previousChildControls.get(i));
+                }
             }
         } else {
-            RenderScriptWriter writerRemove = new RenderScriptWriter();
-            RenderScriptWriter writerUpdate = new RenderScriptWriter();
-            RenderScriptWriter writerAddAndChangeOrder = new RenderScriptWriter();
+            RenderScriptWriter writerRemove = writer.createLocalWriter();
+            RenderScriptWriter writerUpdate = writer.createLocalWriter();
+            RenderScriptWriter writerAddAndChangeOrder = writer.createLocalWriter();
             
             List<T> lcs = Lists.longestCommonSubsequence(this.getControls(),
                     previousContainerState.getControls(), clientIdComparator);
             
             // These maps are used only to have constant-time performance for get operations.
-            // Doing that we avoid quadratic time complexity O(n^2).
-            Map<String, Control> lcsMap = Lists.toMap(lcs, funcControlToClientId, Function.identity());
-            Map<String, Control> currentChildControlsMap = Lists.toMap(this.getControls(),
-                    funcControlToClientId, Function.identity());
-            Map<String, Control> previousChildControlsMap = Lists.toMap(previousContainerState.getControls(),
-                    funcControlToClientId, Function.identity());
+            // Doing that we avoid quadratic time complexity O(n^2). They are keyed by the numeric
+            // control IDs and reused between calls, so no garbage is generated per child control.
+            DiffMaps diffMaps = DiffMaps.acquire();
+            IntObjectHashMap<Control> lcsMap = diffMaps.fill(diffMaps.lcsMap, lcs);
+            IntObjectHashMap<Control> currentChildControlsMap = diffMaps.fill(
+                    diffMaps.currentChildControlsMap, this.getControls());
+            IntObjectHashMap<Control> previousChildControlsMap = diffMaps.fill(
+                    diffMaps.previousChildControlsMap, previousContainerState.getControls());
+            
+            // The updates of large containers are rendered in parallel before the loop below,
+            // which prints them in the same order as if they were rendered inside it
+            RenderScriptWriter[] childUpdateWriters = this.rendersChildrenInParallel(writer) ?
+                    this.renderChildUpdatesInParallel(writer, previousChildControlsMap) : null;
             
             // 1. Remove
             
             for (Control previousChildControl : previousContainerState.getControls()) {
-                if (!currentChildControlsMap.containsKey(previousChildControl.getClientId().get())) {
-                    writerRemove.print(previousChildControl.selectionScript());
-                    writerRemove.format("%s.remove();\n", previousChildControl.identificationToken());
+                if (!currentChildControlsMap.containsKey(previousChildControl.getControlId())) {
+                    previousChildControl.renderSelection(writerRemove);
+                    writerRemove.format(writer.isCompact() ? "%s.remove();" : "%s.remove();\n",
+                            previousChildControl.identificationToken());
                 }
             }
             
@@ -137,6 +470,11 @@ public class ContainerControl<T extends Control> extends Control {
             Control previousLoopChildControl = null;
             // If a variable pointing to the previous control in the loop was already created
             boolean previousLoopChildControlIdentified = false;
+            // Contiguous controls that are not in the lcs, in reverse order, and the token of the
+            // control before which all of them must be inserted. They are inserted at once when
+            // the run ends, so the live DOM tree is changed only once per run.
+            List<Control> insertRun = new ArrayList<>();
+            String insertRunReferenceToken = null;
             
             // Here we are iterating in reverse order to make possible use the Node.insertBefore()
             // DOM method. At 12/2019, the ChildNode.after() method is marked experimental in the
@@ -144,6 +482,7 @@ public class ContainerControl<T extends Control> extends Control {
             //   [1]: https://developer.mozilla.org/en-US/docs/Web/API/ChildNode/after
             //   [2]: https://caniuse.com/#feat=mdn-api_childnode_after
             while (reverseListIterator.hasPrevious()) {
+                int childIndex = reverseListIterator.previousIndex();
                 Control childControl = reverseListIterator.previous();
                 // If a variable pointing to the control was already created
                 boolean childControlIdentified = false;
@@ -161,24 +500,33 @@ public class ContainerControl<T extends Control> extends Control {
                 //     2.2. Was added
                 //
                 
-                if (previousChildControlsMap.containsKey(childControl.getClientId().get())) {
-                    Control previousChildControlState = previousChildControlsMap.get(
-                            childControl.getClientId().get());
-                    
-                    RenderScriptWriter localWriterUpdate = new RenderScriptWriter();
-                    childControl.renderUpdate(localWriterUpdate, previousChildControlState);
-                    
-                    if (!localWriterUpdate.isEmpty()) {
-                        writerUpdate.print(localWriterUpdate);
-                        childControlIdentified = true;
+                if (previousChildControlsMap.containsKey(childControl.getControlId())) {
+                    if (childUpdateWriters != null) {
+                        RenderScriptWriter childUpdateWriter = childUpdateWriters[childIndex];
+                        
+                        if (!childUpdateWriter.isEmpty()) {
+                            writerUpdate.printForked(childUpdateWriter);
+                            childControlIdentified = true;
+                        }
+                    } else {
+                        Control previousChildControlState = previousChildControlsMap.get(
+                                childControl.getControlId());
+                        
+                        RenderScriptWriter localWriterUpdate = writer.createLocalWriter();
+                        childControl.renderUpdate(localWriterUpdate, previousChildControlState);
+                        
+                        if (!localWriterUpdate.isEmpty()) {
+                            writerUpdate.print(localWriterUpdate);
+                            childControlIdentified = true;
+                        }
                     }
                 }
                 
-                if (!lcsMap.containsKey(childControl.getClientId().get())) {
-                    if (previousChildControlsMap.containsKey(childControl.getClientId().get())) {
+                if (!lcsMap.containsKey(childControl.getControlId())) {
+                    if (previousChildControlsMap.containsKey(childControl.getControlId())) {
                         // The element changed its order
                         if (!childControlIdentified) {
-                            writerAddAndChangeOrder.print(childControl.selectionScript());
+                            childControl.renderSelection(writerAddAndChangeOrder);
                             childControlIdentified = true;
                         }
                     } else {
@@ -187,38 +535,108 @@ public class ContainerControl<T extends Control> extends Control {
                         childControlIdentified = true;
                     }
                     
-                    String previousLoopChildControlIdentificationToken;
-                    
-                    if (previousLoopChildControl != null) {
-                        if (!previousLoopChildControlIdentified) {
-                            writerAddAndChangeOrder.print(previousLoopChildControl.selectionScript());
+                    if (insertRun.isEmpty()) {
+                        if (previousLoopChildControl != null) {
+                            if (!previousLoopChildControlIdentified) {
+                                previousLoopChildControl.renderSelection(writerAddAndChangeOrder);
+                            }
+                            
+                            insertRunReferenceToken = previousLoopChildControl.identificationToken();
+                        } else {
+                            // If referenceNode is null, the newNode is inserted at the end of the list
+                            // of child nodes.
+                            insertRunReferenceToken = null;
                         }
-                        
-                        previousLoopChildControlIdentificationToken = previousLoopChildControl
-                                .identificationToken();
-                    } else {
-                        // If referenceNode is null, the newNode is inserted at the end of the list
-                        // of child nodes.
-                        previousLoopChildControlIdentificationToken = null;
                     }
                     
-                    writerAddAndChangeOrder.format("%s.insertBefore(%s, %s);\n", this.identificationToken(),
-                            childControl.identificationToken(), previousLoopChildControlIdentificationToken);
+                    insertRun.add(childControl);
+                } else if (!insertRun.isEmpty()) {
+                    this.renderInsertRun(writerAddAndChangeOrder, insertRun, insertRunReferenceToken);
+                    insertRun.clear();
                 }
                 
                 previousLoopChildControl = childControl;
                 previousLoopChildControlIdentified = childControlIdentified;
             }
             
+            if (!insertRun.isEmpty()) {
+                this.renderInsertRun(writerAddAndChangeOrder, insertRun, insertRunReferenceToken);
+            }
+            
             if (!writerAddAndChangeOrder.isEmpty()) {
                 writer.print(writerRemove);
                 writer.print(writerUpdate);
-                writer.print(this.selectionScript());
+                this.renderSelection(writer);
                 writer.print(writerAddAndChangeOrder);
             } else {
                 writer.print(writerRemove);
                 writer.print(writerUpdate);
             }
+            
+            // If some exception is thrown before this point, the maps are simply not returned to
+            // the pool and will be garbage collected.
+            diffMaps.release();
+        }
+    }
+    
+    /**
+     * Renders the updates of the child controls that are also in the previous state in parallel,
+     * each one to its own forked writer, at the same index of the child control.
+     */
+    private RenderScriptWriter[] renderChildUpdatesInParallel(RenderScriptWriter writer,
+            IntObjectHashMap<Control> previousChildControlsMap) {
+        List<T> childControls = this.getControls();
+        RenderScriptWriter[] childUpdateWriters = new RenderScriptWriter[childControls.size()];
+        
+        ContainerControl.invokeInParallel(writer.getParallelRenderingPool(), childControls.size(),
+                (fromIndex, toIndex) -> {
+                    for (int i = fromIndex; i < toIndex; i++) {
+                        Control childControl = childControls.get(i);
+                        Control previousChildControlState = previousChildControlsMap.get(
+                                childControl.getControlId());
+                        
+                        if (previousChildControlState != null) {
+                            childUpdateWriters[i] = writer.createForkedWriter();
+                            childControl.renderUpdate(childUpdateWriters[i], previousChildControlState);
+                        }
+                    }
+                });
+        
+        return childUpdateWriters;
+    }
+    
+    private void renderInsertRun(RenderScriptWriter writer, List<Control> reverseInsertRun,
+            String referenceToken) {
+        if (reverseInsertRun.size() == 1) {
+            writer.format(writer.isCompact() ? "%s.insertBefore(%s,%s);" : "%s.insertBefore(%s, %s);\n",
+                    this.identificationToken(), reverseInsertRun.get(0).identificationToken(),
+                    referenceToken);
+        } else {
+            List<String> tokens = new ArrayList<>(reverseInsertRun.size());
+            
+            for (int i = reverseInsertRun.size() - 1; i >= 0; i--) {
+                tokens.add(reverseInsertRun.get(i).identificationToken());
+            }
+            
+            this.renderInsertAllBefore(writer, tokens, referenceToken);
+        }
+    }
+    
+    /**
+     * Prints a script that inserts all the controls before the reference one at once, using a
+     * document fragment. If the reference token is null, the controls are inserted at the end.
+     */
+    private void renderInsertAllBefore(RenderScriptWriter writer, List<String> tokens,
+            String referenceToken) {
+        if (writer.isCompact()) {
+            writer.importFunction(INSERT_ALL_BEFORE_FUNCTION_ALIAS, "insertAllBefore",
+                    DOM_FUNCTIONS_MODULE_PATH);
+            writer.format("%s(%s,[%s],%s);", INSERT_ALL_BEFORE_FUNCTION_ALIAS, this.identificationToken(),
+                    String.join(",", tokens), referenceToken);
+        } else {
+            writer.importModule(DOM_FUNCTIONS_MODULE_NAME, DOM_FUNCTIONS_MODULE_PATH);
+            writer.format("%s.insertAllBefore(%s, [%s], %s);\n", DOM_FUNCTIONS_MODULE_NAME,
+                    this.identificationToken(), String.join(", ", tokens), referenceToken);
         }
     }
     
@@ -227,15 +645,69 @@ public class ContainerControl<T extends Control> extends Control {
             return false;
         }
         
-        Iterator<T> it1 = list1.iterator();
-        Iterator<T> it2 = list2.iterator();
-        
-        while (it1.hasNext()) {
-            if (clientIdComparator.compare(it1.next(), it2.next()) != 0) {
+        for (int i = 0; i < list1.size(); i++) {
+            if (list1.get(i).getControlId() != list2.get(i).getControlId()) {
                 return false;
             }
         }
         
         return true;
     }
+    
+    @FunctionalInterface
+    private interface ChildRangeAction {
+        
+        void run(int fromIndex, int toIndex);
+    }
+    
+    /**
+     * The maps used by the diff algorithm of a single container. Because the renderUpdate method is
+     * recursive, each nesting level needs its own maps, so they are kept in a per-thread pool that
+     * grows only up to the depth of the control tree. Maps grown by a very large container are not
+     * pooled, otherwise they would stay allocated on the thread, which may be a long-lived one of
+     * the rendering pool, for as long as it lives.
+     */
+    private static final class DiffMaps {
+        
+        // Enough for containers with about 2,000 children
+        private static final int MAX_POOLED_CAPACITY = 4096;
+        
+        private static final ThreadLocal<ArrayDeque<DiffMaps>> pool =
+                ThreadLocal.withInitial(ArrayDeque::new);
+        
+        private final IntObjectHashMap<Control> lcsMap = new IntObjectHashMap<>();
+        private final IntObjectHashMap<Control> currentChildControlsMap = new IntObjectHashMap<>();
+        private final IntObjectHashMap<Control> previousChildControlsMap = new IntObjectHashMap<>();
+        
+        static DiffMaps acquire() {
+            DiffMaps diffMaps = pool.get().poll();
+            
+            return diffMaps != null ? diffMaps : new DiffMaps();
+        }
+        
+        IntObjectHashMap<Control> fill(IntObjectHashMap<Control> map, List<? extends Control> controls) {
+            map.ensureCapacity(controls.size());
+            
+            for (int i = 0; i < controls.size(); i++) {
+                Control control = controls.get(i);
+                map.put(control.getControlId(), control);
+            }
+            
+            return map;
+        }
+        
+        void release() {
+            if (this.lcsMap.capacity() > MAX_POOLED_CAPACITY ||
+                    this.currentChildControlsMap.capacity() > MAX_POOLED_CAPACITY ||
+                    this.previousChildControlsMap.capacity() > MAX_POOLED_CAPACITY) {
+                return;
+            }
+            
+            this.lcsMap.clear();
+            this.currentChildControlsMap.clear();
+            this.previousChildControlsMap.clear();
+            
+            pool.get().push(this);
+        }
+    }
 }
\ No newline at end of file
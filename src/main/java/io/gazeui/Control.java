@@ -5,9 +5,46 @@
 
 package io.gazeui;
 
+import java.io.Serializable;
+import java.util.List;
 import java.util.Optional;
 
-public abstract class Control implements Cloneable {
+import io.gazeui.collections.IntObjectHashMap;
+import io.gazeui.text.Strings;
+
+/**
+ * The base class of all controls. Controls are serializable, so a whole window can be kept outside
+ * the server memory, as long as every object reachable from it, like the fields of pages and the
+ * event handlers, is also serializable.
+ * <p>
+ * Each control keeps an estimate of the heap retained by it and its descendants, updated as the
+ * control tree and the state of the controls change. The estimate follows a simple cost model of a
+ * 64-bit JVM with compressed references: a fixed cost per control, plus the strings and arrays the
+ * control holds. Objects owned by the application, like event handlers captures and data
+ * providers, are not accounted.
+ */
+@SuppressWarnings("serial")
+public abstract class Control implements Cloneable, Serializable {
+    
+    // Helper functions used by scripts rendered in compact mode. The aliases are single uppercase
+    // letters, so they never conflict with client IDs or module names.
+    static final String RENDER_FUNCTIONS_MODULE_PATH = "./render-functions.mjs";
+    static final String CREATE_ELEMENT_FUNCTION_ALIAS = "E";
+    static final String GET_ELEMENT_FUNCTION_ALIAS = "G";
+    static final String CREATE_TEMPLATE_FUNCTION_ALIAS = "T";
+    static final String INSTANTIATE_TEMPLATE_FUNCTION_ALIAS = "I";
+    static final String DOM_FUNCTIONS_MODULE_NAME = "DomFunctions";
+    static final String DOM_FUNCTIONS_MODULE_PATH = "./dom-functions.mjs";
+    static final String INSERT_ALL_BEFORE_FUNCTION_ALIAS = "F";
+    
+    // The estimated sizes, in bytes, of the objects in the cost model, including their headers and
+    // alignment. A control includes its slot in the list of its parent.
+    static final int CONTROL_RETAINED_SIZE = 40;
+    static final int REFERENCE_RETAINED_SIZE = 4;
+    private static final int STRING_RETAINED_SIZE = 40;
+    
+    private static final ClassValue<Boolean> selectionScriptOverridden =
+            new OverrideCheck("selectionScript", Control.class);
     
     private ContainerControl<?> parent;
     private WebPage page;
@@ -15,54 +52,141 @@ public abstract class Control implements Cloneable {
     // server object. This ID is autogenerated when the control is added to some WebPage. Another
     // strategy could be generate the ID in the render method, but this would be another step that
     // could overload the render process.
-    private String clientId;
+    // 
+    // The ID is kept as an int, being zero when it was not assigned yet, and only converted to a
+    // string when some script is rendered. This makes cheaper to store and compare IDs.
+    private int clientId;
+    private long retainedSizeEstimate = CONTROL_RETAINED_SIZE;
     
     public Optional<ContainerControl<?>> getParent() {
         return Optional.ofNullable(this.parent);
     }
     
+    // The methods ending in 'OrNull' are the non-allocating counterparts of the public accessors,
+    // used by the render, diff and lookup paths, which run for every control of a tree.
+    
+    ContainerControl<?> getParentOrNull() {
+        return this.parent;
+    }
+    
     public Optional<WebPage> getPage() {
+        return Optional.ofNullable(this.getPageOrNull());
+    }
+    
+    WebPage getPageOrNull() {
         if (this.page == null) {
-            Optional<? extends Control> control = Optional.of(this);
+            Control control = this;
             
-            while (control.filter(c -> !(c instanceof WebPage)).isPresent()) {
-                control = control.get().getParent();
+            // Stop at the first ancestor that already has its page cached. Doing that, controls
+            // added to a tree whose page was already resolved do not have to walk up to the root.
+            while (control != null && control.page == null && !(control instanceof WebPage)) {
+                control = control.parent;
             }
             
-            this.page = (WebPage)control.orElse(null);
+            if (control != null) {
+                this.page = control.page != null ? control.page : (WebPage)control;
+            }
         }
         
-        return Optional.ofNullable(this.page);
+        return this.page;
     }
     
     public Optional<Window> getWindow() {
-        return this.getPage()
-                .flatMap(page -> page.getParent())
-                .map(parent -> (Window)parent);
+        WebPage page = this.getPageOrNull();
+        
+        return Optional.ofNullable(page != null ? (Window)page.getParentOrNull() : null);
     }
     
     public Optional<String> getClientId() {
-        return Optional.ofNullable(this.clientId);
+        return Optional.ofNullable(this.getClientIdOrNull());
+    }
+    
+    String getClientIdOrNull() {
+        return this.clientId != 0 ? this.resolveClientIdStrategy().format(this.clientId) : null;
+    }
+    
+    /**
+     * The client ID strategy of the window holding this control, or the compact one if the control
+     * is not in a window yet.
+     */
+    ClientIdStrategy resolveClientIdStrategy() {
+        WebPage page = this.getPageOrNull();
+        ContainerControl<?> window = page != null ? page.getParentOrNull() : null;
+        
+        return window instanceof Window ? ((Window)window).getClientIdStrategy() :
+                ClientIdStrategy.COMPACT;
+    }
+    
+    /**
+     * An estimate, in bytes, of the heap retained by this control and its descendants. It is kept
+     * up to date incrementally, so reading it is cheap even for large control trees.
+     */
+    public long getRetainedSizeEstimate() {
+        return this.retainedSizeEstimate;
+    }
+    
+    /**
+     * Adds the given number of bytes, which may be negative, to the retained size estimate of this
+     * control and of all its ancestors.
+     */
+    void adjustRetainedSizeEstimate(long sizeDelta) {
+        for (Control control = this; control != null; control = control.parent) {
+            control.retainedSizeEstimate += sizeDelta;
+        }
+    }
+    
+    /**
+     * The estimated size of a string, or zero for null.
+     */
+    static long estimateStringSize(String s) {
+        // Strings are stored as UTF-16 up to Java 8
+        return s != null ? STRING_RETAINED_SIZE + 2L * s.length() : 0;
+    }
+    
+    /**
+     * The numeric ID of this control, or zero if it was not assigned yet.
+     */
+    int getControlId() {
+        return this.clientId;
     }
     
     void onAddToCollection(ContainerControl<?> parent) {
-        boolean isControlWithoutPage = !this.getPage().isPresent();
+        if (this.linkToParent(parent)) {
+            WebPage page = this.getPageOrNull();
+            
+            // When a control gain a WebPage, we must set the ID of the control and all its descendants
+            if (page != null) {
+                this.setControlTreeIds(page, this);
+            }
+        }
+    }
+    
+    /**
+     * Sets the parent of this control, removing it from its old parent (if any). The client IDs are
+     * not assigned here, so batch operations can assign them in a single pass later.
+     * 
+     * @return true if the control was without a page before being linked to the new parent
+     */
+    boolean linkToParent(ContainerControl<?> parent) {
+        boolean isControlWithoutPage = this.getPageOrNull() == null;
         
         // Remove the new control from its old parent (if any)
-        this.getParent().ifPresent(oldParent -> {
+        if (this.parent != null) {
             // The remove method will call onBeforeRemoveFromCollection
-            oldParent.getControls().remove(this);
-        });
+            this.parent.getControls().remove(this);
+        }
         
         this.parent = parent;
+        parent.adjustRetainedSizeEstimate(this.retainedSizeEstimate);
         
-        if (this.getPage().isPresent() && isControlWithoutPage) {
-            // When a control gain a WebPage, we must set the ID of the control and all its descendants
-            this.setControlTreeIds(this);
-        }
+        return isControlWithoutPage;
     }
     
-    private void setControlTreeIds(Control control) {
+    void setControlTreeIds(WebPage page) {
+        this.setControlTreeIds(page, this);
+    }
+    
+    private void setControlTreeIds(WebPage page, Control control) {
         // For controls that were removed from the window and added again:
         //
         // 1. While the control was without a window, another controls could be added to its tree,
@@ -70,18 +194,68 @@ public abstract class Control implements Cloneable {
         //    to reach these controls.
         //
         // 2. The control ID will be preserved.
-        if (!control.getClientId().isPresent()){
-            control.clientId = this.getPage().get().generateAutomaticControlId();
+        if (control.clientId == 0) {
+            control.clientId = page.generateAutomaticControlId();
         }
         
         if (control instanceof ContainerControl) {
             for (Control childControl : ((ContainerControl<?>)control).getControls()) {
-                this.setControlTreeIds(childControl);
+                this.setControlTreeIds(page, childControl);
+            }
+        }
+    }
+    
+    /**
+     * If this control has handlers for events sent from the client side to the server. Controls
+     * sending their own events, like a list loading items while scrolled, must override it, because
+     * a stateless page is served without keeping its window when no control has such handlers.
+     */
+    protected boolean hasServerEventHandlers() {
+        return false;
+    }
+    
+    /**
+     * If event handlers were added to this control. Unlike {@link #hasServerEventHandlers()}, this
+     * does not consider the events a control processes by itself.
+     */
+    boolean hasEventHandlers() {
+        return false;
+    }
+    
+    /**
+     * Removes all the event handlers added to this control.
+     */
+    void clearEventHandlers() {
+    }
+    
+    /**
+     * Links a tree returned by {@link #clone()} as a live control tree, as if its controls had been
+     * added to it, but keeping their client IDs. The linked controls are mapped by their IDs.
+     */
+    void linkClonedTree(ContainerControl<?> parent, IntObjectHashMap<Control> controlsById) {
+        this.parent = parent;
+        this.page = null;
+        
+        if (this.clientId != 0) {
+            controlsById.put(this.clientId, this);
+        }
+        
+        if (this instanceof ContainerControl) {
+            ContainerControl<?> containerControl = (ContainerControl<?>)this;
+            List<? extends Control> childControls = containerControl.wrapClonedControls();
+            
+            // The list set by clone allows fast access by index
+            for (int i = 0; i < childControls.size(); i++) {
+                childControls.get(i).linkClonedTree(containerControl, controlsById);
             }
         }
     }
     
     void onRemoveFromCollection() {
+        if (this.parent != null) {
+            this.parent.adjustRetainedSizeEstimate(-this.retainedSizeEstimate);
+        }
+        
         this.parent = null;
         this.detachControlTree(this);
     }
@@ -123,7 +297,59 @@ public abstract class Control implements Cloneable {
      * reach the control.
      */
     protected String selectionScript() {
-        return String.format("let %1$s = document.getElementById('%1$s');\n", this.getClientId().get());
+        return String.format("let %1$s = document.getElementById('%1$s');\n", this.getClientIdOrNull());
+    }
+    
+    /**
+     * Prints the {@link #selectionScript()} of this control. In compact mode, a shorter script
+     * using a shared helper function is printed instead, unless a subclass overrides
+     * {@link #selectionScript()}.
+     */
+    protected void renderSelection(RenderScriptWriter writer) {
+        if (writer.isCompact() && !Control.selectionScriptOverridden.get(this.getClass())) {
+            writer.importFunction(GET_ELEMENT_FUNCTION_ALIAS, "getElement", RENDER_FUNCTIONS_MODULE_PATH);
+            writer.format("let %1$s=%2$s('%1$s');", this.getClientIdOrNull(),
+                    GET_ELEMENT_FUNCTION_ALIAS);
+        } else {
+            writer.print(this.selectionScript());
+        }
+    }
+    
+    /**
+     * Prints, in compact mode, a script that creates the HTML element of this control with its ID
+     * and text content.
+     */
+    void renderCompactCreation(RenderScriptWriter writer, String tagName, String text) {
+        writer.importFunction(CREATE_ELEMENT_FUNCTION_ALIAS, "createElement", RENDER_FUNCTIONS_MODULE_PATH);
+        
+        if (text != null && !text.isEmpty()) {
+            writer.format("let %1$s=%2$s('%3$s','%1$s','%4$s');", this.getClientIdOrNull(),
+                    CREATE_ELEMENT_FUNCTION_ALIAS, tagName, Strings.escapeJavaScript(text));
+        } else {
+            writer.format("let %1$s=%2$s('%3$s','%1$s');", this.getClientIdOrNull(),
+                    CREATE_ELEMENT_FUNCTION_ALIAS, tagName);
+        }
+    }
+    
+    /**
+     * Appends to the builder the HTML of an element with the same structure of this control, but
+     * without IDs and texts. Controls with the same template HTML can be created on the client side
+     * by cloning a single template element.
+     * 
+     * @return false if this control can not be created from a template
+     */
+    boolean appendTemplateHtml(StringBuilder templateHtml) {
+        return false;
+    }
+    
+    /**
+     * Adds to the lists the client ID and the text (or null) of this control and of its descendants,
+     * in document order. Scripts that must run after the elements are cloned from the template, like
+     * adding event listeners, are printed to the writer.
+     */
+    void renderTemplateInstance(RenderScriptWriter writer, List<String> clientIds, List<String> texts) {
+        clientIds.add(this.getClientIdOrNull());
+        texts.add(null);
     }
     
     /**
@@ -132,9 +358,41 @@ public abstract class Control implements Cloneable {
      * {@link #selectionScript()} method.
      */
     protected String identificationToken() {
-        return this.getClientId().get();
+        return this.getClientIdOrNull();
     }
     
     protected abstract void renderCreation(RenderScriptWriter writer);
     protected abstract void renderUpdate(RenderScriptWriter writer, Control previousControlState);
+    
+    /**
+     * Checks if a control class, or one of its superclasses below the base class, overrides a
+     * method without parameters, like the hooks returning readable scripts. The compact mode
+     * replaces these hooks by shorter scripts only when they are not overridden, so the scripts of
+     * custom controls are never ignored.
+     */
+    static final class OverrideCheck extends ClassValue<Boolean> {
+        
+        private final String methodName;
+        private final Class<?> baseClass;
+        
+        OverrideCheck(String methodName, Class<?> baseClass) {
+            this.methodName = methodName;
+            this.baseClass = baseClass;
+        }
+        
+        @Override
+        protected Boolean computeValue(Class<?> controlClass) {
+            for (Class<?> c = controlClass; c != this.baseClass; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod(this.methodName);
+                    
+                    return true;
+                } catch (NoSuchMethodException ex) {
+                    // Not declared by this class, so the superclass is checked
+                }
+            }
+            
+            return false;
+        }
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@
 
 package io.gazeui;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -20,7 +21,8 @@ import java.util.Set;
  * 
  * @param <E> the type of elements in this collection
  */
-class ControlCollection<E extends Control> implements List<E> {
+@SuppressWarnings("serial")
+class ControlCollection<E extends Control> implements List<E>, Serializable {
     /*
      * 1. The collection must be in the same package of Control to be possible to call the
      *    onAddToCollection and onRemoveFromCollection methods. We think to be unnecessary to use
@@ -48,7 +50,10 @@ class ControlCollection<E extends Control> implements List<E> {
         this(owner, new ArrayList<>());
     }
     
-    private ControlCollection(ContainerControl<?> owner, List<E> innerList) {
+    /**
+     * Creates a collection over a list whose controls are already linked to the owner.
+     */
+    ControlCollection(ContainerControl<?> owner, List<E> innerList) {
         this.owner = Objects.requireNonNull(owner,
                 ErrorMessage.CONTROL_COLLECTION_MUST_HAVE_OWNER.getMessage());
         this.innerList = innerList;
@@ -56,8 +61,7 @@ class ControlCollection<E extends Control> implements List<E> {
     
     @Override
     public boolean add(E control) {
-        // The ifPresentOrElse method is only available for Java 9 and later
-        if (control.getParent().filter(p -> p == this.owner).isPresent()) {
+        if (control.getParentOrNull() == this.owner) {
             // Send the control to the end of the list
             this.innerList.remove(control);
         } else {
@@ -69,7 +73,7 @@ class ControlCollection<E extends Control> implements List<E> {
     
     @Override
     public void add(int index, E control) {
-        if (control.getParent().filter(p -> p == this.owner).isPresent()) {
+        if (control.getParentOrNull() == this.owner) {
             this.innerList.remove(control);
         } else {
             control.onAddToCollection(this.owner);
@@ -81,38 +85,74 @@ class ControlCollection<E extends Control> implements List<E> {
     @Override
     public boolean addAll(Collection<? extends E> c) {
         Set<E> uniqueCollection = new LinkedHashSet<>(c);
+        List<E> controlsWithoutPage = this.linkControls(uniqueCollection);
         
-        for (E control : uniqueCollection) {
-            if (control.getParent().filter(p -> p == this.owner).isPresent()) {
-                this.innerList.remove(control);
-            } else {
-                control.onAddToCollection(this.owner);
-            }
+        if (this.innerList instanceof ArrayList) {
+            ((ArrayList<E>)this.innerList).ensureCapacity(this.innerList.size() + uniqueCollection.size());
         }
         
-        return this.innerList.addAll(uniqueCollection);
+        boolean result = this.innerList.addAll(uniqueCollection);
+        this.setControlTreeIds(controlsWithoutPage);
+        
+        return result;
     }
     
     @Override
     public boolean addAll(int index, Collection<? extends E> c) {
         Set<E> uniqueCollection = new LinkedHashSet<>(c);
+        List<E> controlsWithoutPage = this.linkControls(uniqueCollection);
+        
+        boolean result = this.innerList.addAll(index, uniqueCollection);
+        this.setControlTreeIds(controlsWithoutPage);
+        
+        return result;
+    }
+    
+    /**
+     * Links the controls to the owner of this collection, without assigning their client IDs. Controls
+     * that are already in this collection are removed from their current position.
+     * 
+     * @return the controls that were without a page before being linked
+     */
+    private List<E> linkControls(Set<E> uniqueCollection) {
+        List<E> controlsWithoutPage = new ArrayList<>();
+        boolean hasExistingControls = false;
         
         for (E control : uniqueCollection) {
-            if (control.getParent().filter(p -> p == this.owner).isPresent()) {
-                this.innerList.remove(control);
-            } else {
-                control.onAddToCollection(this.owner);
+            if (control.getParentOrNull() == this.owner) {
+                hasExistingControls = true;
+            } else if (control.linkToParent(this.owner)) {
+                controlsWithoutPage.add(control);
             }
         }
         
-        return this.innerList.addAll(index, uniqueCollection);
+        if (hasExistingControls) {
+            // Removing all the existing controls in a single pass, instead of doing a linear search
+            // for each one of them.
+            this.innerList.removeIf(uniqueCollection::contains);
+        }
+        
+        return controlsWithoutPage;
+    }
+    
+    private void setControlTreeIds(List<E> controlsWithoutPage) {
+        if (!controlsWithoutPage.isEmpty()) {
+            // The page is resolved only once for all the controls
+            WebPage page = this.owner.getPageOrNull();
+            
+            if (page != null) {
+                for (E control : controlsWithoutPage) {
+                    control.setControlTreeIds(page);
+                }
+            }
+        }
     }
     
     @Override
     public E set(int index, E control) {
         E previousControl;
         
-        if (control.getParent().filter(p -> p == this.owner).isPresent()) {
+        if (control.getParentOrNull() == this.owner) {
             previousControl = this.innerList.get(index);
             
             // Once we are forcing unique items on the list, it is necessary only to remove the
@@ -258,7 +298,7 @@ class ControlCollection<E extends Control> implements List<E> {
         
         @Override
         public void add(E control) {
-            if (!control.getParent().filter(p -> p == ControlCollection.this.owner).isPresent()) {
+            if (control.getParentOrNull() != ControlCollection.this.owner) {
                 this.innerIterator.add(control);
                 control.onAddToCollection(ControlCollection.this.owner);
             } else {
@@ -273,7 +313,7 @@ class ControlCollection<E extends Control> implements List<E> {
         
         @Override
         public void set(E control) {
-            if (!control.getParent().filter(p -> p == ControlCollection.this.owner).isPresent()) {
+            if (control.getParentOrNull() != ControlCollection.this.owner) {
                 this.innerIterator.set(control);
                 
                 this.getLastReturnedElement().onRemoveFromCollection();
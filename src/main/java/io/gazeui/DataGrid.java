@@ -0,0 +1,315 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import io.gazeui.text.Strings;
+
+/**
+ * A table of text cells. Instead of having one control per cell, the grid stores its cells column
+ * by column in string arrays, so a large grid costs a few arrays instead of thousands of controls
+ * to keep, clone and diff.
+ * <p>
+ * Every change to a row stamps it with a new version, unique in the grid. Updates compare only the
+ * cells of the rows whose version changed, and patch only the cells whose value changed.
+ */
+@SuppressWarnings("serial")
+public class DataGrid extends Control {
+    
+    private static final String MODULE_NAME = "DataGrid";
+    private static final String MODULE_PATH = "./data-grid/data-grid.mjs";
+    private static final int DEFAULT_ROW_CAPACITY = 16;
+    private static final int ARRAY_HEADER_RETAINED_SIZE = 16;
+    
+    private final String[] columnHeaders;
+    // The cells of each column, indexed by row. Only the first rowCount positions are used.
+    private String[][] columns;
+    private int[] rowVersions;
+    private int rowCount;
+    private int lastRowVersion;
+    // Cloning shares the arrays between the clones, so they must be copied before the first change
+    private boolean arraysShared;
+    
+    public DataGrid(String... columnHeaders) {
+        if (columnHeaders.length == 0) {
+            throw new IllegalArgumentException(ErrorMessage.DATA_GRID_MUST_HAVE_COLUMNS.getMessage());
+        }
+        
+        this.columnHeaders = columnHeaders.clone();
+        this.columns = new String[columnHeaders.length][DEFAULT_ROW_CAPACITY];
+        this.rowVersions = new int[DEFAULT_ROW_CAPACITY];
+        
+        long headersSize =
+                ARRAY_HEADER_RETAINED_SIZE + (long)columnHeaders.length * REFERENCE_RETAINED_SIZE;
+        
+        for (String columnHeader : columnHeaders) {
+            headersSize += Control.estimateStringSize(columnHeader);
+        }
+        
+        this.adjustRetainedSizeEstimate(headersSize + this.estimateArraysSize(DEFAULT_ROW_CAPACITY));
+    }
+    
+    /**
+     * The estimated size of the arrays holding the given number of rows, without the cell values.
+     */
+    private long estimateArraysSize(int rowCapacity) {
+        int columnCount = this.columnHeaders.length;
+        
+        // The array of columns, each column array and the array of row versions, whose int
+        // elements have the same size of the references
+        return (columnCount + 2) * ARRAY_HEADER_RETAINED_SIZE +
+                (long)columnCount * REFERENCE_RETAINED_SIZE +
+                (long)rowCapacity * (columnCount + 1) * REFERENCE_RETAINED_SIZE;
+    }
+    
+    private long estimateRowSize(int rowIndex) {
+        long rowSize = 0;
+        
+        for (String[] column : this.columns) {
+            rowSize += Control.estimateStringSize(column[rowIndex]);
+        }
+        
+        return rowSize;
+    }
+    
+    public int getColumnCount() {
+        return this.columnHeaders.length;
+    }
+    
+    public String getColumnHeader(int columnIndex) {
+        return this.columnHeaders[columnIndex];
+    }
+    
+    public int getRowCount() {
+        return this.rowCount;
+    }
+    
+    public String getCellValue(int rowIndex, int columnIndex) {
+        this.checkRowIndex(rowIndex);
+        
+        return this.columns[columnIndex][rowIndex];
+    }
+    
+    public void setCellValue(int rowIndex, int columnIndex, String value) {
+        this.checkRowIndex(rowIndex);
+        
+        if (!Objects.equals(this.columns[columnIndex][rowIndex], value)) {
+            this.prepareForChange(this.rowCount);
+            this.adjustRetainedSizeEstimate(Control.estimateStringSize(value) -
+                    Control.estimateStringSize(this.columns[columnIndex][rowIndex]));
+            this.columns[columnIndex][rowIndex] = value;
+            this.rowVersions[rowIndex] = ++this.lastRowVersion;
+        }
+    }
+    
+    /**
+     * Adds a row to the end of the grid, with one value for each column.
+     */
+    public void addRow(String... values) {
+        if (values.length != this.columnHeaders.length) {
+            throw new IllegalArgumentException(String.format(
+                    ErrorMessage.DATA_GRID_ROW_VALUE_COUNT_MISMATCH.getMessage(), values.length,
+                    this.columnHeaders.length));
+        }
+        
+        this.prepareForChange(this.rowCount + 1);
+        
+        for (int columnIndex = 0; columnIndex < values.length; columnIndex++) {
+            this.columns[columnIndex][this.rowCount] = values[columnIndex];
+        }
+        
+        this.rowVersions[this.rowCount] = ++this.lastRowVersion;
+        this.adjustRetainedSizeEstimate(this.estimateRowSize(this.rowCount));
+        this.rowCount++;
+    }
+    
+    public void removeRow(int rowIndex) {
+        this.checkRowIndex(rowIndex);
+        
+        this.prepareForChange(this.rowCount);
+        this.adjustRetainedSizeEstimate(-this.estimateRowSize(rowIndex));
+        
+        // The following rows keep their versions, which differ from the versions of the rows
+        // previously at their new positions, so their cells will be compared on the next update
+        int movedRowCount = this.rowCount - rowIndex - 1;
+        
+        for (String[] column : this.columns) {
+            System.arraycopy(column, rowIndex + 1, column, rowIndex, movedRowCount);
+            column[this.rowCount - 1] = null;
+        }
+        
+        System.arraycopy(this.rowVersions, rowIndex + 1, this.rowVersions, rowIndex, movedRowCount);
+        this.rowCount--;
+    }
+    
+    public void clearRows() {
+        long sizeDelta = this.estimateArraysSize(DEFAULT_ROW_CAPACITY) -
+                this.estimateArraysSize(this.rowVersions.length);
+        
+        for (int rowIndex = 0; rowIndex < this.rowCount; rowIndex++) {
+            sizeDelta -= this.estimateRowSize(rowIndex);
+        }
+        
+        this.adjustRetainedSizeEstimate(sizeDelta);
+        this.columns = new String[this.columnHeaders.length][DEFAULT_ROW_CAPACITY];
+        this.rowVersions = new int[DEFAULT_ROW_CAPACITY];
+        this.rowCount = 0;
+        this.arraysShared = false;
+    }
+    
+    private void checkRowIndex(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException(String.format(
+                    ErrorMessage.DATA_GRID_ROW_INDEX_OUT_OF_BOUNDS.getMessage(), rowIndex, this.rowCount));
+        }
+    }
+    
+    /**
+     * Makes the arrays exclusive to this grid and large enough to hold the given number of rows.
+     */
+    private void prepareForChange(int requiredRowCapacity) {
+        int capacity = this.rowVersions.length;
+        
+        if (requiredRowCapacity > capacity) {
+            capacity = Math.max(requiredRowCapacity, capacity + (capacity >> 1));
+        } else if (!this.arraysShared) {
+            return;
+        }
+        
+        this.adjustRetainedSizeEstimate(
+                this.estimateArraysSize(capacity) - this.estimateArraysSize(this.rowVersions.length));
+        this.columns = this.columns.clone();
+        
+        for (int columnIndex = 0; columnIndex < this.columns.length; columnIndex++) {
+            this.columns[columnIndex] = Arrays.copyOf(this.columns[columnIndex], capacity);
+        }
+        
+        this.rowVersions = Arrays.copyOf(this.rowVersions, capacity);
+        this.arraysShared = false;
+    }
+    
+    @Override
+    protected DataGrid clone() {
+        DataGrid clonedDataGrid = (DataGrid)super.clone();
+        
+        // The arrays are copied only when one of the grids changes
+        this.arraysShared = true;
+        clonedDataGrid.arraysShared = true;
+        
+        return clonedDataGrid;
+    }
+    
+    @Override
+    protected void renderCreation(RenderScriptWriter writer) {
+        StringBuilder rowsArray = new StringBuilder();
+        this.appendRowsArray(rowsArray, 0, this.rowCount, writer.isCompact());
+        
+        writer.importModule(MODULE_NAME, MODULE_PATH);
+        writer.format(writer.isCompact() ? "let %1$s=%2$s.createDataGrid('%1$s',%3$s,%4$s);" :
+                "let %1$s = %2$s.createDataGrid('%1$s', %3$s, %4$s);\n",
+                this.getClientIdOrNull(), MODULE_NAME,
+                DataGrid.toArrayLiteral(this.columnHeaders, writer.isCompact()),
+                rowsArray);
+    }
+    
+    @Override
+    protected void renderUpdate(RenderScriptWriter writer, Control previousControlState) {
+        DataGrid previousDataGrid = (DataGrid)previousControlState;
+        
+        // While the arrays are shared, nothing has changed since the previous state was cloned
+        if (this.rowVersions == previousDataGrid.rowVersions) {
+            return;
+        }
+        
+        RenderScriptWriter localWriter = writer.createLocalWriter();
+        String clientId = this.getClientIdOrNull();
+        String separator = writer.isCompact() ? "," : ", ";
+        StringBuilder cellPatches = new StringBuilder();
+        int commonRowCount = Math.min(this.rowCount, previousDataGrid.rowCount);
+        
+        for (int rowIndex = 0; rowIndex < commonRowCount; rowIndex++) {
+            if (this.rowVersions[rowIndex] == previousDataGrid.rowVersions[rowIndex]) {
+                continue;
+            }
+            
+            for (int columnIndex = 0; columnIndex < this.columns.length; columnIndex++) {
+                String value = this.columns[columnIndex][rowIndex];
+                
+                if (!Objects.equals(value, previousDataGrid.columns[columnIndex][rowIndex])) {
+                    if (cellPatches.length() > 0) {
+                        cellPatches.append(separator);
+                    }
+                    
+                    cellPatches.append(rowIndex).append(separator).append(columnIndex).append(separator)
+                            .append('\'')
+                            .append(Strings.escapeJavaScript(Strings.nullToEmpty(value)))
+                            .append('\'');
+                }
+            }
+        }
+        
+        if (cellPatches.length() > 0) {
+            localWriter.format(writer.isCompact() ? "%s.setCells(%s,[%s]);" : "%s.setCells(%s, [%s]);\n",
+                    MODULE_NAME, clientId, cellPatches);
+        }
+        
+        if (this.rowCount < previousDataGrid.rowCount) {
+            localWriter.format(writer.isCompact() ? "%s.removeRows(%s,%d);" : "%s.removeRows(%s, %d);\n",
+                    MODULE_NAME, clientId, this.rowCount);
+        } else if (this.rowCount > previousDataGrid.rowCount) {
+            StringBuilder rowsArray = new StringBuilder();
+            this.appendRowsArray(rowsArray, previousDataGrid.rowCount, this.rowCount, writer.isCompact());
+            
+            localWriter.format(writer.isCompact() ? "%s.appendRows(%s,%s);" : "%s.appendRows(%s, %s);\n",
+                    MODULE_NAME, clientId, rowsArray);
+        }
+        
+        if (!localWriter.isEmpty()) {
+            writer.importModule(MODULE_NAME, MODULE_PATH);
+            this.renderSelection(writer);
+            writer.print(localWriter);
+        }
+    }
+    
+    private void appendRowsArray(StringBuilder rowsArray, int fromRowIndex, int toRowIndex,
+            boolean compact) {
+        String[] rowValues = new String[this.columns.length];
+        
+        rowsArray.append('[');
+        
+        for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+            if (rowIndex > fromRowIndex) {
+                rowsArray.append(compact ? "," : ", ");
+            }
+            
+            for (int columnIndex = 0; columnIndex < this.columns.length; columnIndex++) {
+                rowValues[columnIndex] = this.columns[columnIndex][rowIndex];
+            }
+            
+            rowsArray.append(DataGrid.toArrayLiteral(rowValues, compact));
+        }
+        
+        rowsArray.append(']');
+    }
+    
+    private static String toArrayLiteral(String[] values, boolean compact) {
+        StringBuilder arrayLiteral = new StringBuilder("[");
+        
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                arrayLiteral.append(compact ? "," : ", ");
+            }
+            
+            arrayLiteral.append('\'')
+                    .append(Strings.escapeJavaScript(Strings.nullToEmpty(values[i])))
+                    .append('\'');
+        }
+        
+        return arrayLiteral.append(']').toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+/**
+ * Defines when the child controls of a {@link DeferredContainer} are created on the client side.
+ */
+public enum DeferralTrigger {
+    
+    /**
+     * When the browser is idle, after the rest of the page has been created. Suited to content that
+     * is soon needed, but not to show the page.
+     */
+    IDLE("idle"),
+    
+    /**
+     * When the container is about to be scrolled into view. Suited to long pages, where most of the
+     * content is below the fold and may never be seen.
+     */
+    VISIBLE("visible");
+    
+    private final String clientName;
+    
+    private DeferralTrigger(String clientName) {
+        this.clientName = clientName;
+    }
+    
+    /**
+     * The name of the trigger in the client side module.
+     */
+    String getClientName() {
+        return this.clientName;
+    }
+}
\ No newline at end of file
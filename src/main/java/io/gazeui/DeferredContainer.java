@@ -0,0 +1,132 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.util.Objects;
+
+import io.gazeui.event.EventArgs;
+import io.gazeui.event.EventKey;
+
+/**
+ * A container whose child controls are created on the client side only after the rest of the page,
+ * when its {@link DeferralTrigger} fires. Until then the container is an empty placeholder with a
+ * minimum height, so the page does not jump when the children appear. The client side then asks
+ * the server for the children, which are rendered in the response of that event.
+ * <p>
+ * While the container is not materialized its children are kept only on the server side: they can
+ * be changed freely, but no update is rendered for them, because they are not in the live DOM tree.
+ * 
+ * @param <T> the type of controls in this container
+ */
+@SuppressWarnings("serial")
+public class DeferredContainer<T extends Control> extends ContainerControl<T> {
+    
+    private static final String MODULE_NAME = "DeferredContainer";
+    private static final String MODULE_PATH = "./deferred-container/deferred-container.mjs";
+    
+    static final EventKey<EventArgs> MATERIALIZE_EVENT = EventKey.of("Materialize");
+    
+    static {
+        UIEventRegistry.register(DeferredContainer.class, MATERIALIZE_EVENT,
+                (container, eventArgument) -> container.processOnMaterializeEvent());
+    }
+    
+    private final DeferralTrigger trigger;
+    private final int placeholderHeight;
+    private boolean materialized;
+    
+    /**
+     * Creates a deferred container.
+     * 
+     * @param trigger when the child controls are created on the client side
+     * @param placeholderHeight the minimum height of the container before its child controls are
+     *        created, in pixels, which should be close to their final height
+     */
+    public DeferredContainer(DeferralTrigger trigger, int placeholderHeight) {
+        this.trigger = Objects.requireNonNull(trigger);
+        
+        if (placeholderHeight < 0) {
+            throw new IllegalArgumentException(
+                    ErrorMessage.DEFERRED_CONTAINER_HEIGHT_MUST_NOT_BE_NEGATIVE.getMessage());
+        }
+        
+        this.placeholderHeight = placeholderHeight;
+    }
+    
+    public DeferralTrigger getTrigger() {
+        return this.trigger;
+    }
+    
+    public int getPlaceholderHeight() {
+        return this.placeholderHeight;
+    }
+    
+    /**
+     * If the child controls have already been created on the client side, or will be by the next
+     * rendered script.
+     */
+    public boolean isMaterialized() {
+        return this.materialized;
+    }
+    
+    /**
+     * Creates the child controls on the client side with the next rendered script, without waiting
+     * for the trigger.
+     */
+    public void materialize() {
+        this.materialized = true;
+    }
+    
+    @Override
+    protected boolean hasServerEventHandlers() {
+        // The trigger asks the server for the child controls
+        return !this.materialized || super.hasServerEventHandlers();
+    }
+    
+    void processOnMaterializeEvent() {
+        this.materialize();
+    }
+    
+    @Override
+    protected void renderCreation(RenderScriptWriter writer) {
+        if (this.materialized) {
+            super.renderCreation(writer);
+            return;
+        }
+        
+        this.renderContainerCreation(writer);
+        
+        String clientId = this.getClientIdOrNull();
+        
+        writer.format(writer.isCompact() ? "%s.style.minHeight='%dpx';" :
+                "%s.style.minHeight = '%dpx';\n", clientId, this.placeholderHeight);
+        writer.importModule(MODULE_NAME, MODULE_PATH);
+        writer.format(writer.isCompact() ? "%s.addMaterializeTrigger(%s,'%s');" :
+                "%s.addMaterializeTrigger(%s, '%s');\n",
+                MODULE_NAME, clientId, this.trigger.getClientName());
+    }
+    
+    @Override
+    protected void renderUpdate(RenderScriptWriter writer, Control previousControlState) {
+        DeferredContainer<?> previousContainer = (DeferredContainer<?>)previousControlState;
+        
+        if (!this.materialized) {
+            // The child controls are not in the live DOM tree yet, so there is nothing to update
+            return;
+        }
+        
+        if (!previousContainer.materialized) {
+            // The placeholder is already in the live DOM tree, so it receives all the child
+            // controls at once, in their current state
+            this.renderSelection(writer);
+            writer.format(writer.isCompact() ? "%s.style.minHeight='';" :
+                    "%s.style.minHeight = '';\n", this.identificationToken());
+            this.renderChildrenCreation(writer, true);
+        } else {
+            super.renderUpdate(writer, previousControlState);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that a newly created instance of the annotated {@link WebPage} always renders the same
+ * creation script, whatever the user or the session is. The creation script of such a page can be
+ * rendered only once and then shared by all the sessions.
+ * <p>
+ * A page must not be annotated if its constructor depends on the current user, the current time,
+ * random values or any other data that may change from one instance to another. The annotation is
+ * not inherited, so each subclass has to declare it on its own.
+ * <p>
+ * The script is only shared after two requests have rendered it identically. If they do not, the
+ * annotation is being misused and the request fails with a {@link GazeUIException}, so the output
+ * rendered for one session is never served to the others.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface DeterministicInitialRender {
+}
\ No newline at end of file
@@ -13,7 +13,25 @@ enum ErrorMessage {
     HTML_VALIDATION_TITLE_MUST_NOT_BE_EMPTY("According to the HTML specification, the title element " +
             "must contain at least one non-whitespace character"),
     
+    DATA_GRID_MUST_HAVE_COLUMNS("A data grid must have at least one column"),
+    DATA_GRID_ROW_INDEX_OUT_OF_BOUNDS("Row index %d out of bounds for a data grid with %d rows"),
+    DATA_GRID_ROW_VALUE_COUNT_MISMATCH("The row has %d values, but the data grid has %d columns"),
+    VIRTUAL_LIST_DIMENSION_MUST_BE_POSITIVE("The %s of a virtual list must be positive"),
+    VIRTUAL_LIST_SCROLL_INDEX_MUST_BE_AN_INTEGER("The index scrolled to must be an integer, " +
+            "but it was '%s'"),
+    DEFERRED_CONTAINER_HEIGHT_MUST_NOT_BE_NEGATIVE("The placeholder height of a deferred " +
+            "container must not be negative"),
+    
+    PAGE_PROTOTYPE_MUST_NOT_HAVE_EVENT_HANDLERS("A page prototype must not have event handlers, " +
+            "but the control '%s' has. Add them in the bindEventHandlers method"),
+    PAGE_PROTOTYPE_MUST_NOT_KEEP_CONTROLS_IN_COLLECTIONS("A page prototype must not keep controls " +
+            "in collections, maps or arrays, because they are not copied, but the field '%s' does"),
+    PAGE_PROTOTYPE_MUST_NOT_KEEP_CONTROLS_OUTSIDE_ITS_TREE("A page prototype must only keep " +
+            "controls of its tree in fields, because the other ones are shared by all the " +
+            "copies, but the field '%s' does not. Create them in the bindEventHandlers method"),
+    
     UNEXPECTED_ERROR_CREATING_INITIAL_PAGE("Unexpected error trying to create the initial page"),
+    UNEXPECTED_ERROR_COPYING_PAGE_PROTOTYPE("Unexpected error copying the field '%s' of a page prototype"),
     UNEXPECTED_ERROR_PROCESSING_EVENT("Unexpected error processing event '%s' on control '%s'"),
     COULD_NOT_PROCESS_EVENT_CONTROL_ID_NOT_FOUND("Could not process event '%s': Control Id '%s' not found");
     
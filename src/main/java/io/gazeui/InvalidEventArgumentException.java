@@ -0,0 +1,22 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+/**
+ * Thrown when the argument sent by the client side with an event can not be read by the control,
+ * as when a number is malformed. The event is rejected without changing the control.
+ */
+@SuppressWarnings("serial")
+public class InvalidEventArgumentException extends GazeUIException {
+    
+    public InvalidEventArgumentException(String message) {
+        super(message);
+    }
+    
+    public InvalidEventArgumentException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
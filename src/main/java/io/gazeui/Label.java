@@ -5,8 +5,11 @@
 
 package io.gazeui;
 
-import java.util.Optional;
+import java.util.List;
 
+import io.gazeui.text.Strings;
+
+@SuppressWarnings("serial")
 public class Label extends Control {
     
     private String text;
@@ -23,13 +26,22 @@ public class Label extends Control {
     }
 
     public void setText(String text) {
+        this.adjustRetainedSizeEstimate(
+                Control.estimateStringSize(text) - Control.estimateStringSize(this.text));
         this.text = text;
     }
     
     @Override
     protected void renderCreation(RenderScriptWriter writer) {
-        writer.format("let %s = document.createElement('span');\n", this.getClientId().get());
-        writer.format("%1$s.id = '%1$s';\n", this.getClientId().get());
+        if (writer.isCompact()) {
+            this.renderCompactCreation(writer, "span", this.getText());
+            return;
+        }
+        
+        String clientId = this.getClientIdOrNull();
+        
+        writer.format("let %s = document.createElement('span');\n", clientId);
+        writer.format("%1$s.id = '%1$s';\n", clientId);
         
         // According to the MDN website¹:
         //
@@ -41,22 +53,40 @@ public class Label extends Control {
         //   [1]: https://developer.mozilla.org/en-US/docs/Web/API/Element/innerHTML
         
         if (this.getText() != null && !this.getText().isEmpty()) {
-            // TODO: JavaScript escape
-            writer.format("%s.textContent = '%s';\n", this.getClientId().get(), this.getText());
+            writer.format("%s.textContent = '%s';\n", clientId,
+                    Strings.escapeJavaScript(this.getText()));
         }
     }
     
+    @Override
+    boolean appendTemplateHtml(StringBuilder templateHtml) {
+        // Subclasses may render a different structure
+        if (this.getClass() != Label.class) {
+            return false;
+        }
+        
+        templateHtml.append("<span></span>");
+        
+        return true;
+    }
+    
+    @Override
+    void renderTemplateInstance(RenderScriptWriter writer, List<String> clientIds, List<String> texts) {
+        clientIds.add(this.getClientIdOrNull());
+        texts.add(this.getText() != null && !this.getText().isEmpty() ? this.getText() : null);
+    }
+    
     @Override
     protected void renderUpdate(RenderScriptWriter writer, Control previousControlState) {
         Label previousLabel = (Label)previousControlState;
-        String currentText = Optional.ofNullable(this.getText()).orElse("");
-        String previousText = Optional.ofNullable(previousLabel.getText()).orElse("");
+        String currentText = Strings.nullToEmpty(this.getText());
+        String previousText = Strings.nullToEmpty(previousLabel.getText());
         
         if (!currentText.equals(previousText)) {
-            writer.print(this.selectionScript());
+            this.renderSelection(writer);
             
-            // TODO: JavaScript escape
-            writer.format("%s.textContent = '%s';\n", this.getClientId().get(), currentText);
+            writer.format(writer.isCompact() ? "%s.textContent='%s';" : "%s.textContent = '%s';\n",
+                    this.getClientIdOrNull(), Strings.escapeJavaScript(currentText));
         }
     }
 }
\ No newline at end of file
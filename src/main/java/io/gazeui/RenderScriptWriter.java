@@ -9,6 +9,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 public class RenderScriptWriter extends PrintWriter {
@@ -16,20 +17,121 @@ public class RenderScriptWriter extends PrintWriter {
     public static boolean USE_STATIC_IMPORTS = false;
     public static boolean USE_DYNAMIC_IMPORTS = true;
     
+    /**
+     * The path of the bundle with all the client-side modules, generated by the build.
+     */
+    public static final String RUNTIME_MODULE_PATH = "./gazeui-runtime.mjs";
+    /**
+     * The name through which scripts access the modules of the bundle. Dynamic scripts receive it
+     * as a parameter from the core module, which keeps the bundle once it is loaded.
+     */
+    public static final String RUNTIME_MODULE_NAME = "GazeUIRuntime";
+    
+    // Marks the placeholders returned for shared variables by forked writers. Control characters
+    // never appear in the rendered scripts, so the placeholders can not be confused with them.
+    private static final char VARIABLE_PLACEHOLDER_MARK = '\u0001';
+    
     // Using a LinkedHashMap to have insertion order. Thereby, the import statements will appear like
     // the components were used by the developer.
     private Map<String, String> modulesToImport = new LinkedHashMap<>();
+    // Functions imported with short aliases by the compact mode, grouped by module path
+    private Map<String, Map<String, String>> functionsToImport = new LinkedHashMap<>();
+    // Variables declared at the beginning of the script, keyed by their initialization expressions.
+    // This map is shared by all the local writers created from the same writer, so each variable is
+    // declared only once in the final script.
+    private final Map<String, String> sharedVariables;
+    private final boolean ownsSharedVariables;
+    // Forked writers return placeholders for the shared variables, which are replaced by the final
+    // names once they are printed, in order, to the writer they were forked from
+    private final boolean usesVariablePlaceholders;
+    private final ForkJoinPool parallelRenderingPool;
     private boolean useDynamicImports;
+    private boolean compact;
+    private boolean usePreloadedRuntime;
     
     public RenderScriptWriter() {
         this(USE_STATIC_IMPORTS);
     }
     
     public RenderScriptWriter(boolean useDynamicImports) {
+        this(useDynamicImports, false);
+    }
+    
+    /**
+     * @param compact if the scripts should be written in compact mode, in which controls use short
+     *        helper function aliases and no whitespace. The readable mode is better for debugging.
+     */
+    public RenderScriptWriter(boolean useDynamicImports, boolean compact) {
+        this(useDynamicImports, compact, null);
+    }
+    
+    /**
+     * Creates a writer that renders the creation of containers with many child controls in parallel,
+     * splitting their children in tasks run by the given pool. The rendered script is exactly the
+     * same as the one rendered by a sequential writer, so this only pays off for large pages.
+     * 
+     * @param parallelRenderingPool the pool running the rendering tasks, or null to render
+     *        sequentially
+     */
+    public RenderScriptWriter(boolean useDynamicImports, boolean compact,
+            ForkJoinPool parallelRenderingPool) {
+        this(useDynamicImports, compact, parallelRenderingPool, false);
+    }
+    
+    /**
+     * @param usePreloadedRuntime if the modules should be taken from the bundle at
+     *        {@link #RUNTIME_MODULE_PATH}, already loaded by the page, instead of being imported one
+     *        by one. Dynamic scripts then access them synchronously.
+     */
+    public RenderScriptWriter(boolean useDynamicImports, boolean compact,
+            ForkJoinPool parallelRenderingPool, boolean usePreloadedRuntime) {
+        this(useDynamicImports, compact, usePreloadedRuntime, new LinkedHashMap<>(), true, false,
+                parallelRenderingPool);
+    }
+    
+    private RenderScriptWriter(boolean useDynamicImports, boolean compact,
+            boolean usePreloadedRuntime, Map<String, String> sharedVariables,
+            boolean ownsSharedVariables, boolean usesVariablePlaceholders,
+            ForkJoinPool parallelRenderingPool) {
         // autoFlush does not matter when using StringWriter
         super(new StringWriter());
         
         this.useDynamicImports = useDynamicImports;
+        this.compact = compact;
+        this.usePreloadedRuntime = usePreloadedRuntime;
+        this.sharedVariables = sharedVariables;
+        this.ownsSharedVariables = ownsSharedVariables;
+        this.usesVariablePlaceholders = usesVariablePlaceholders;
+        this.parallelRenderingPool = parallelRenderingPool;
+    }
+    
+    /**
+     * Creates an empty writer with the same output mode of this one. It can be used to write parts
+     * of a script that will be later printed to this writer.
+     */
+    public RenderScriptWriter createLocalWriter() {
+        return new RenderScriptWriter(this.useDynamicImports, this.compact, this.usePreloadedRuntime,
+                this.sharedVariables, false, this.usesVariablePlaceholders, this.parallelRenderingPool);
+    }
+    
+    /**
+     * Creates an empty writer with the same output mode of this one, but sharing nothing with it, so
+     * it can be used by another thread. It must be printed back with {@link #printForked}.
+     */
+    RenderScriptWriter createForkedWriter() {
+        return new RenderScriptWriter(this.useDynamicImports, this.compact, this.usePreloadedRuntime,
+                new LinkedHashMap<>(), false, true, this.parallelRenderingPool);
+    }
+    
+    /**
+     * The pool running the parallel rendering tasks, or null if this writer renders sequentially.
+     */
+    ForkJoinPool getParallelRenderingPool() {
+        return this.parallelRenderingPool;
+    }
+    
+    public boolean isCompact() {
+        return this.compact;
     }
     
     public boolean isEmpty() {
@@ -42,6 +144,31 @@ public class RenderScriptWriter extends PrintWriter {
         }
     }
     
+    /**
+     * Imports a single function exported by a module, making it accessible by the given alias. The
+     * caller is responsible for choosing an alias that does not conflict with other identifiers.
+     */
+    public void importFunction(String alias, String functionName, String modulePath) {
+        this.functionsToImport.computeIfAbsent(modulePath, path -> new LinkedHashMap<>())
+                .putIfAbsent(alias, functionName);
+    }
+    
+    /**
+     * Declares a variable initialized with the given expression at the beginning of the script,
+     * after the import statements, and returns its name. Expressions already declared by this
+     * writer or by some of its local writers are not declared again, but the same name is returned.
+     */
+    public String declareSharedVariable(String initializationExpression) {
+        // The 'v' prefix avoids conflicts with client IDs, module names and function aliases
+        return this.sharedVariables.computeIfAbsent(initializationExpression, expression -> {
+            String variableIndex = Integer.toString(this.sharedVariables.size() + 1);
+            
+            return this.usesVariablePlaceholders ?
+                    VARIABLE_PLACEHOLDER_MARK + variableIndex + VARIABLE_PLACEHOLDER_MARK :
+                    "v" + variableIndex;
+        });
+    }
+    
     public void print(RenderScriptWriter writer) {
         this.print(writer, super::print);
     }
@@ -52,26 +179,181 @@ public class RenderScriptWriter extends PrintWriter {
     
     private void print(RenderScriptWriter writer, Consumer<Object> printOperation) {
         this.modulesToImport.putAll(writer.modulesToImport);
+        writer.functionsToImport.forEach((modulePath, functions) -> {
+            this.functionsToImport.computeIfAbsent(modulePath, path -> new LinkedHashMap<>())
+                    .putAll(functions);
+        });
         
         // Print the writer passed as argument without its modules to this writer
         writer.modulesToImport.clear();
+        writer.functionsToImport.clear();
         printOperation.accept(writer);
     }
     
+    /**
+     * Prints a writer created by {@link #createForkedWriter()}. The shared variables it declared are
+     * declared by this writer in the order they were first used, so the result is the same as if
+     * the forked writer were a local writer of this one.
+     */
+    void printForked(RenderScriptWriter forkedWriter) {
+        String script = forkedWriter.out.toString();
+        
+        if (!forkedWriter.sharedVariables.isEmpty()) {
+            String[] variableNames = new String[forkedWriter.sharedVariables.size() + 1];
+            
+            forkedWriter.sharedVariables.forEach((initializationExpression, placeholder) -> {
+                int variableIndex = Integer.parseInt(placeholder.substring(1, placeholder.length() - 1));
+                variableNames[variableIndex] = this.declareSharedVariable(initializationExpression);
+            });
+            
+            // The placeholders are replaced in a single pass, so the names just declared by this
+            // writer, which may be placeholders too, are never replaced
+            StringBuilder sbScript = new StringBuilder(script.length());
+            int position = 0;
+            int markIndex;
+            
+            while ((markIndex = script.indexOf(VARIABLE_PLACEHOLDER_MARK, position)) != -1) {
+                int endMarkIndex = script.indexOf(VARIABLE_PLACEHOLDER_MARK, markIndex + 1);
+                
+                int variableIndex = Integer.parseInt(script.substring(markIndex + 1, endMarkIndex));
+                
+                sbScript.append(script, position, markIndex).append(variableNames[variableIndex]);
+                position = endMarkIndex + 1;
+            }
+            
+            script = sbScript.append(script, position, script.length()).toString();
+        }
+        
+        this.modulesToImport.putAll(forkedWriter.modulesToImport);
+        forkedWriter.functionsToImport.forEach((modulePath, functions) -> {
+            this.functionsToImport.computeIfAbsent(modulePath, path -> new LinkedHashMap<>())
+                    .putAll(functions);
+        });
+        
+        super.print(script);
+    }
+    
     @Override
     public String toString() {
         StringBuilder sbScript = new StringBuilder();
+        String lineSeparator = this.compact ? "" : "\n";
         
+        if (this.usePreloadedRuntime) {
+            this.appendRuntimeBindings(sbScript, lineSeparator);
+        } else {
+            this.appendImports(sbScript, lineSeparator);
+        }
+        
+        if (this.ownsSharedVariables) {
+            this.sharedVariables.forEach((initializationExpression, variableName) -> {
+                sbScript.append(String.format(this.compact ? "let %s=%s;" : "let %s = %s;",
+                        variableName, initializationExpression));
+                sbScript.append(lineSeparator);
+            });
+        }
+        
+        sbScript.append(this.out.toString());
+        
+        return sbScript.toString();
+    }
+    
+    private void appendImports(StringBuilder sbScript, String lineSeparator) {
         this.modulesToImport.forEach((moduleName, modulePath) -> {
             if (!this.useDynamicImports) {
-                sbScript.append(String.format("import * as %s from '%s';\n", moduleName, modulePath));
+                sbScript.append(String.format("import * as %s from '%s';", moduleName, modulePath));
             } else {
-                sbScript.append(String.format("let %s = await import('%s');\n", moduleName, modulePath));
+                sbScript.append(String.format("let %s = await import('%s');", moduleName, modulePath));
             }
+            
+            sbScript.append(lineSeparator);
         });
         
-        sbScript.append(this.out.toString());
+        this.functionsToImport.forEach((modulePath, functions) -> {
+            StringBuilder sbFunctions = new StringBuilder();
+            
+            functions.forEach((alias, functionName) -> {
+                if (sbFunctions.length() > 0) {
+                    sbFunctions.append(",");
+                }
+                
+                sbFunctions.append(functionName)
+                    .append(!this.useDynamicImports ? " as " : ":")
+                    .append(alias);
+            });
+            
+            if (!this.useDynamicImports) {
+                sbScript.append(String.format("import{%s}from'%s';", sbFunctions, modulePath));
+            } else {
+                sbScript.append(String.format("let{%s}=await import('%s');", sbFunctions, modulePath));
+            }
+            
+            sbScript.append(lineSeparator);
+        });
+    }
+    
+    /**
+     * Binds the modules and functions used by the script to the ones of the preloaded bundle. The
+     * bundle exposes each module by the name of its file in Pascal case, like {@code DataGrid} for
+     * {@code data-grid.mjs}.
+     */
+    private void appendRuntimeBindings(StringBuilder sbScript, String lineSeparator) {
+        if (this.modulesToImport.isEmpty() && this.functionsToImport.isEmpty()) {
+            return;
+        }
         
-        return sbScript.toString();
+        // Static scripts are modules, which have to import the bundle. Dynamic scripts receive it.
+        if (!this.useDynamicImports) {
+            sbScript.append(String.format("import * as %s from '%s';",
+                    RenderScriptWriter.RUNTIME_MODULE_NAME, RenderScriptWriter.RUNTIME_MODULE_PATH));
+            sbScript.append(lineSeparator);
+        }
+        
+        this.modulesToImport.forEach((moduleName, modulePath) -> {
+            sbScript.append(String.format("let %s = %s.%s;", moduleName,
+                    RenderScriptWriter.RUNTIME_MODULE_NAME,
+                    RenderScriptWriter.getRuntimeNamespaceName(modulePath)));
+            sbScript.append(lineSeparator);
+        });
+        
+        this.functionsToImport.forEach((modulePath, functions) -> {
+            StringBuilder sbFunctions = new StringBuilder();
+            
+            functions.forEach((alias, functionName) -> {
+                if (sbFunctions.length() > 0) {
+                    sbFunctions.append(",");
+                }
+                
+                sbFunctions.append(functionName).append(":").append(alias);
+            });
+            
+            sbScript.append(String.format("let{%s}=%s.%s;", sbFunctions,
+                    RenderScriptWriter.RUNTIME_MODULE_NAME,
+                    RenderScriptWriter.getRuntimeNamespaceName(modulePath)));
+            sbScript.append(lineSeparator);
+        });
+    }
+    
+    /**
+     * The name of the module in the preloaded bundle, which is the name of its file in Pascal case.
+     * The build uses the same rule to generate the bundle.
+     */
+    static String getRuntimeNamespaceName(String modulePath) {
+        String fileName = modulePath.substring(modulePath.lastIndexOf('/') + 1,
+                modulePath.length() - ".mjs".length());
+        StringBuilder sbName = new StringBuilder(fileName.length());
+        boolean startsWord = true;
+        
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            
+            if (c == '-') {
+                startsWord = true;
+            } else {
+                sbName.append(startsWord ? Character.toUpperCase(c) : c);
+                startsWord = false;
+            }
+        }
+        
+        return sbName.toString();
     }
 }
\ No newline at end of file
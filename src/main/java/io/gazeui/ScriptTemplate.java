@@ -0,0 +1,259 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rendered script split into the code of a template and its arguments. The string and number
+ * literals of the script are replaced by elements of the {@code $} array, which holds the
+ * arguments, and the variables named after client IDs are renamed to {@code $0}, {@code $1} and so
+ * on, in order of appearance. Scripts that differ only in the controls they affect, in texts or in
+ * numbers share the same template, so the client side can compile each template once and run it
+ * again with other arguments.
+ * <p>
+ * The literals of dynamic imports are kept in the template, because they are part of its structure.
+ */
+public final class ScriptTemplate {
+    
+    /**
+     * The name of the parameter holding the arguments in the template code.
+     */
+    public static final String ARGUMENTS_PARAMETER_NAME = "$";
+    
+    private static final String DYNAMIC_IMPORT_PREFIX = "import(";
+    // The template ID is a prefix of the code hash, long enough to make collisions negligible
+    private static final int TEMPLATE_ID_HASH_BYTES = 16;
+    
+    private final String code;
+    private final List<Object> arguments;
+    private final String id;
+    
+    private ScriptTemplate(String code, List<Object> arguments) {
+        this.code = code;
+        this.arguments = Collections.unmodifiableList(arguments);
+        this.id = ScriptTemplate.hash(code);
+    }
+    
+    /**
+     * Splits a script rendered with the compact client IDs into a template and its arguments.
+     */
+    public static ScriptTemplate parse(String script) {
+        return ScriptTemplate.parse(script, ClientIdStrategy.COMPACT);
+    }
+    
+    /**
+     * Splits the script into a template and its arguments. String literals become strings and
+     * number literals become longs or doubles.
+     * 
+     * @param clientIdStrategy the strategy of the window that rendered the script, which tells the
+     *        client IDs apart from the other variables
+     */
+    public static ScriptTemplate parse(String script, ClientIdStrategy clientIdStrategy) {
+        StringBuilder code = new StringBuilder(script.length());
+        List<Object> arguments = new ArrayList<>();
+        Map<String, String> renamedClientIds = new HashMap<>();
+        int position = 0;
+        
+        while (position < script.length()) {
+            char c = script.charAt(position);
+            int tokenEnd;
+            
+            if (c == '\'' || c == '"') {
+                tokenEnd = ScriptTemplate.findStringLiteralEnd(script, position);
+                
+                if (ScriptTemplate.endsWith(code, DYNAMIC_IMPORT_PREFIX)) {
+                    code.append(script, position, tokenEnd);
+                } else {
+                    arguments.add(ScriptTemplate.unescape(script, position + 1, tokenEnd - 1));
+                    ScriptTemplate.appendArgumentReference(code, arguments.size() - 1);
+                }
+            } else if (ScriptTemplate.isIdentifierStart(c)) {
+                tokenEnd = position + 1;
+                
+                while (tokenEnd < script.length() &&
+                        ScriptTemplate.isIdentifierPart(script.charAt(tokenEnd))) {
+                    tokenEnd++;
+                }
+                
+                String identifier = script.substring(position, tokenEnd);
+                
+                if (clientIdStrategy.parseControlId(identifier) != 0) {
+                    code.append(renamedClientIds.computeIfAbsent(identifier,
+                            clientId -> ARGUMENTS_PARAMETER_NAME + renamedClientIds.size()));
+                } else {
+                    code.append(identifier);
+                }
+            } else if (c >= '0' && c <= '9') {
+                tokenEnd = ScriptTemplate.findNumberLiteralEnd(script, position);
+                String number = script.substring(position, tokenEnd);
+                
+                arguments.add(number.indexOf('.') == -1 ? (Object)Long.valueOf(number) :
+                        (Object)Double.valueOf(number));
+                ScriptTemplate.appendArgumentReference(code, arguments.size() - 1);
+            } else {
+                tokenEnd = position + 1;
+                code.append(c);
+            }
+            
+            position = tokenEnd;
+        }
+        
+        return new ScriptTemplate(code.toString(), arguments);
+    }
+    
+    /**
+     * The code of the template, a function body reading the arguments from the
+     * {@link #ARGUMENTS_PARAMETER_NAME} parameter.
+     */
+    public String getCode() {
+        return this.code;
+    }
+    
+    public List<Object> getArguments() {
+        return this.arguments;
+    }
+    
+    /**
+     * Identifies the code of the template, so the same code always has the same ID.
+     */
+    public String getId() {
+        return this.id;
+    }
+    
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$';
+    }
+    
+    private static boolean isIdentifierPart(char c) {
+        return ScriptTemplate.isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+    
+    private static boolean endsWith(StringBuilder code, String suffix) {
+        int offset = code.length() - suffix.length();
+        
+        if (offset < 0) {
+            return false;
+        }
+        
+        for (int i = 0; i < suffix.length(); i++) {
+            if (code.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private static int findStringLiteralEnd(String script, int quoteIndex) {
+        char quote = script.charAt(quoteIndex);
+        int position = quoteIndex + 1;
+        
+        while (position < script.length() && script.charAt(position) != quote) {
+            // Skip the escaped character
+            position += script.charAt(position) == '\\' ? 2 : 1;
+        }
+        
+        // An unterminated literal takes the rest of the script
+        return Math.min(position + 1, script.length());
+    }
+    
+    private static int findNumberLiteralEnd(String script, int position) {
+        boolean hasDecimalPoint = false;
+        
+        while (position < script.length()) {
+            char c = script.charAt(position);
+            
+            if (c == '.' && !hasDecimalPoint && position + 1 < script.length() &&
+                    script.charAt(position + 1) >= '0' && script.charAt(position + 1) <= '9') {
+                hasDecimalPoint = true;
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+            
+            position++;
+        }
+        
+        return position;
+    }
+    
+    private static String unescape(String script, int fromIndex, int toIndex) {
+        int backslashIndex = fromIndex;
+        
+        while (backslashIndex < toIndex && script.charAt(backslashIndex) != '\\') {
+            backslashIndex++;
+        }
+        
+        if (backslashIndex == toIndex) {
+            return script.substring(fromIndex, toIndex);
+        }
+        
+        StringBuilder sbValue = new StringBuilder(toIndex - fromIndex);
+        
+        for (int i = fromIndex; i < toIndex; i++) {
+            char c = script.charAt(i);
+            
+            if (c != '\\' || i + 1 >= toIndex) {
+                sbValue.append(c);
+                continue;
+            }
+            
+            char escapedChar = script.charAt(++i);
+            
+            // A malformed Unicode escape is left to the switch, which keeps the letter
+            if (escapedChar == 'u' && i + 4 < toIndex) {
+                sbValue.append((char)Integer.parseInt(script.substring(i + 1, i + 5), 16));
+                i += 4;
+                continue;
+            }
+            
+            switch (escapedChar) {
+                case 'n':
+                    sbValue.append('\n');
+                    break;
+                case 'r':
+                    sbValue.append('\r');
+                    break;
+                case 't':
+                    sbValue.append('\t');
+                    break;
+                case '0':
+                    sbValue.append('\0');
+                    break;
+                default:
+                    sbValue.append(escapedChar);
+            }
+        }
+        
+        return sbValue.toString();
+    }
+    
+    private static void appendArgumentReference(StringBuilder code, int argumentIndex) {
+        code.append(ARGUMENTS_PARAMETER_NAME).append('[').append(argumentIndex).append(']');
+    }
+    
+    private static String hash(String code) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(
+                    code.getBytes(StandardCharsets.UTF_8));
+            
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    Arrays.copyOf(hash, TEMPLATE_ID_HASH_BYTES));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform implementation is required to support SHA-256
+            throw new GazeUIException("Unexpected error hashing a script template", ex);
+        }
+    }
+}
\ No newline at end of file
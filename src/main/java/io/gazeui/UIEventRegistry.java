@@ -0,0 +1,61 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.gazeui.event.EventKey;
+
+/**
+ * The UI events processed by each control class, by the name the client side sends them with.
+ * Controls register their events in a static initializer, which always runs before an event can
+ * reach one of their instances, and the events of a class are also processed for its subclasses.
+ */
+final class UIEventRegistry {
+    
+    private static final Map<Class<?>, Map<String, UIEventProcessor<?>>> processorsByClass =
+            new ConcurrentHashMap<>();
+    
+    private UIEventRegistry() {
+        // No instances allowed
+    }
+    
+    /**
+     * Processes an event on a control, receiving the argument sent by the client side, or null if
+     * the event carries none.
+     */
+    @FunctionalInterface
+    interface UIEventProcessor<C extends Control> {
+        void process(C control, String eventArgument);
+    }
+    
+    static <C extends Control> void register(Class<C> controlClass, EventKey<?> eventKey,
+            UIEventProcessor<? super C> processor) {
+        UIEventRegistry.processorsByClass
+                .computeIfAbsent(controlClass, c -> new HashMap<>())
+                .put(eventKey.getName(), processor);
+    }
+    
+    /**
+     * Returns the processor of the event for the control class or its closest superclass, or null
+     * if none of them processes the event.
+     */
+    @SuppressWarnings("unchecked")
+    static UIEventProcessor<Control> find(Class<? extends Control> controlClass, String eventName) {
+        for (Class<?> c = controlClass; c != Control.class; c = c.getSuperclass()) {
+            Map<String, UIEventProcessor<?>> processors = UIEventRegistry.processorsByClass.get(c);
+            UIEventProcessor<?> processor = processors != null ? processors.get(eventName) : null;
+            
+            if (processor != null) {
+                return (UIEventProcessor<Control>)processor;
+            }
+        }
+        
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,267 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import io.gazeui.event.EventArgs;
+import io.gazeui.event.EventKey;
+
+/**
+ * A scrollable list that keeps controls only for the items inside a window around its visible
+ * area. The items are supplied by a {@link VirtualListDataProvider} and turned into controls by a
+ * {@link VirtualListRowFactory}. When the user stops scrolling, the client side reports the first
+ * visible item and the window is moved: only the controls of the items entering or leaving the
+ * window are created or removed, both on the server side and on the client side.
+ * <p>
+ * Every item is shown with the same fixed height. The controls of this list are managed by the
+ * list itself and should not be changed directly.
+ * 
+ * @param <T> the type of the items
+ */
+@SuppressWarnings("serial")
+public class VirtualList<T> extends ContainerControl<Control> {
+    
+    private static final String MODULE_NAME = "VirtualList";
+    private static final String MODULE_PATH = "./virtual-list/virtual-list.mjs";
+    private static final int DEFAULT_OVERSCAN_ITEM_COUNT = 10;
+    
+    static final EventKey<EventArgs> SCROLL_EVENT = EventKey.of("Scroll");
+    
+    static {
+        // A lambda, since a method reference would name the raw VirtualList type
+        UIEventRegistry.register(VirtualList.class, SCROLL_EVENT,
+                (virtualList, eventArgument) -> virtualList.processOnScrollEvent(eventArgument));
+    }
+    
+    private final VirtualListDataProvider<T> dataProvider;
+    private final VirtualListRowFactory<? super T> rowFactory;
+    private final int itemHeight;
+    private final int viewportHeight;
+    private int overscanItemCount = DEFAULT_OVERSCAN_ITEM_COUNT;
+    private int itemCount;
+    private int firstVisibleIndex;
+    // The window of items with controls, from the start index, inclusive, to the end index, exclusive
+    private int windowStartIndex;
+    private int windowEndIndex;
+    // Incremented on each scroll requested by the server side, so the update can detect it
+    private int scrollRequestCount;
+    
+    /**
+     * Creates a virtual list.
+     * 
+     * @param dataProvider the provider of the items
+     * @param rowFactory the factory creating the control that shows an item
+     * @param itemHeight the height of each item, in pixels
+     * @param viewportHeight the height of the visible area of the list, in pixels
+     */
+    public VirtualList(VirtualListDataProvider<T> dataProvider,
+            VirtualListRowFactory<? super T> rowFactory, int itemHeight, int viewportHeight) {
+        this.dataProvider = Objects.requireNonNull(dataProvider);
+        this.rowFactory = Objects.requireNonNull(rowFactory);
+        this.itemHeight = VirtualList.requirePositive(itemHeight, "item height");
+        this.viewportHeight = VirtualList.requirePositive(viewportHeight, "viewport height");
+        
+        this.refresh();
+    }
+    
+    private static int requirePositive(int dimension, String dimensionName) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    ErrorMessage.VIRTUAL_LIST_DIMENSION_MUST_BE_POSITIVE.getMessage(), dimensionName));
+        }
+        
+        return dimension;
+    }
+    
+    public int getItemHeight() {
+        return this.itemHeight;
+    }
+    
+    public int getViewportHeight() {
+        return this.viewportHeight;
+    }
+    
+    public int getItemCount() {
+        return this.itemCount;
+    }
+    
+    public int getFirstVisibleIndex() {
+        return this.firstVisibleIndex;
+    }
+    
+    /**
+     * The number of items that are kept with controls before and after the visible items, so short
+     * scrolls do not show empty space while the window is being moved.
+     */
+    public int getOverscanItemCount() {
+        return this.overscanItemCount;
+    }
+    
+    public void setOverscanItemCount(int overscanItemCount) {
+        this.overscanItemCount = Math.max(0, overscanItemCount);
+        this.moveWindow();
+    }
+    
+    /**
+     * Scrolls the list on the client side to show the item with the given index at the top.
+     */
+    public void scrollToIndex(int index) {
+        this.firstVisibleIndex = index;
+        this.moveWindow();
+        this.scrollRequestCount++;
+    }
+    
+    /**
+     * Reads the data provider again, recreating the controls of all items inside the window.
+     */
+    public void refresh() {
+        this.getControls().clear();
+        this.windowStartIndex = 0;
+        this.windowEndIndex = 0;
+        this.itemCount = Math.max(0, this.dataProvider.getItemCount());
+        
+        this.moveWindow();
+    }
+    
+    @Override
+    protected boolean hasServerEventHandlers() {
+        // The window of items is moved by the scroll events
+        return true;
+    }
+    
+    void processOnScrollEvent(String firstVisibleIndex) {
+        // The index comes from the client side, so it is only trusted to be an integer. Indexes
+        // out of the list are brought back to it by moveWindow.
+        try {
+            this.firstVisibleIndex = Integer.parseInt(firstVisibleIndex);
+        } catch (NumberFormatException ex) {
+            throw new InvalidEventArgumentException(String.format(
+                    ErrorMessage.VIRTUAL_LIST_SCROLL_INDEX_MUST_BE_AN_INTEGER.getMessage(),
+                    firstVisibleIndex), ex);
+        }
+        
+        this.moveWindow();
+    }
+    
+    private void moveWindow() {
+        this.firstVisibleIndex = Math.max(0, Math.min(this.firstVisibleIndex, this.itemCount - 1));
+        
+        int visibleItemCount = (this.viewportHeight + this.itemHeight - 1) / this.itemHeight;
+        int newStartIndex = Math.max(0, this.firstVisibleIndex - this.overscanItemCount);
+        int newEndIndex = (int)Math.min(this.itemCount,
+                (long)this.firstVisibleIndex + visibleItemCount + this.overscanItemCount);
+        List<Control> rows = this.getControls();
+        
+        if (newStartIndex >= this.windowEndIndex || newEndIndex <= this.windowStartIndex) {
+            // No item is kept, so all the controls are replaced
+            rows.clear();
+            rows.addAll(this.createRows(newStartIndex, newEndIndex));
+        } else {
+            // Only the controls of the items leaving the window are removed and only the controls
+            // of the items entering it are created
+            if (newEndIndex < this.windowEndIndex) {
+                rows.subList(newEndIndex - this.windowStartIndex, rows.size()).clear();
+            }
+            
+            if (newStartIndex > this.windowStartIndex) {
+                rows.subList(0, newStartIndex - this.windowStartIndex).clear();
+            } else if (newStartIndex < this.windowStartIndex) {
+                rows.addAll(0, this.createRows(newStartIndex, this.windowStartIndex));
+            }
+            
+            if (newEndIndex > this.windowEndIndex) {
+                rows.addAll(this.createRows(this.windowEndIndex, newEndIndex));
+            }
+        }
+        
+        this.windowStartIndex = newStartIndex;
+        this.windowEndIndex = newEndIndex;
+    }
+    
+    private List<Control> createRows(int fromIndex, int toIndex) {
+        List<Control> rows = new ArrayList<>(Math.max(0, toIndex - fromIndex));
+        
+        if (fromIndex < toIndex) {
+            for (T item : this.dataProvider.getItems(fromIndex, toIndex)) {
+                rows.add(this.rowFactory.createRow(item));
+            }
+        }
+        
+        return rows;
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Override
+    protected VirtualList<T> clone() {
+        // The data provider and the row factory are shared with the clone
+        return (VirtualList<T>)super.clone();
+    }
+    
+    @Override
+    protected void renderContainerCreation(RenderScriptWriter writer) {
+        super.renderContainerCreation(writer);
+        
+        String clientId = this.getClientIdOrNull();
+        
+        // A grid with fixed height rows stacks the item controls whatever their display type is,
+        // and the paddings take the place of the items outside the window
+        writer.format(writer.isCompact() ?
+                "%s.style.cssText='display:grid;grid-auto-rows:%dpx;align-content:start;" +
+                        "overflow-y:auto;box-sizing:border-box;height:%dpx;padding:%s';" :
+                "%s.style.cssText = 'display: grid; grid-auto-rows: %dpx; align-content: start; " +
+                        "overflow-y: auto; box-sizing: border-box; height: %dpx; padding: %s';\n",
+                clientId, this.itemHeight, this.viewportHeight, this.paddingValue());
+        
+        writer.importModule(MODULE_NAME, MODULE_PATH);
+        writer.format(writer.isCompact() ? "%s.addScrollListener(%s,%d,%d);" :
+                "%s.addScrollListener(%s, %d, %d);\n",
+                MODULE_NAME, clientId, this.itemHeight, this.firstVisibleIndex);
+    }
+    
+    @Override
+    protected void renderUpdate(RenderScriptWriter writer, Control previousControlState) {
+        VirtualList<?> previousList = (VirtualList<?>)previousControlState;
+        
+        // Only the controls of the items entering or leaving the window differ from the previous
+        // state, so the container diff only creates or removes them
+        super.renderUpdate(writer, previousControlState);
+        
+        String paddingValue = this.paddingValue();
+        
+        // The element is reached without declaring a variable, because the container diff may
+        // have already declared one
+        if (!paddingValue.equals(previousList.paddingValue())) {
+            writer.format(writer.isCompact() ? "%s.style.padding='%s';" : "%s.style.padding = '%s';\n",
+                    this.elementExpression(writer), paddingValue);
+        }
+        
+        if (this.scrollRequestCount != previousList.scrollRequestCount) {
+            writer.importModule(MODULE_NAME, MODULE_PATH);
+            writer.format(writer.isCompact() ? "%s.scrollToIndex(%s,%d,%d);" :
+                    "%s.scrollToIndex(%s, %d, %d);\n",
+                    MODULE_NAME, this.elementExpression(writer), this.itemHeight, this.firstVisibleIndex);
+        }
+    }
+    
+    private String paddingValue() {
+        long paddingTop = (long)this.windowStartIndex * this.itemHeight;
+        long paddingBottom = (long)(this.itemCount - this.windowEndIndex) * this.itemHeight;
+        
+        return String.format("%dpx 0 %dpx", paddingTop, paddingBottom);
+    }
+    
+    private String elementExpression(RenderScriptWriter writer) {
+        if (writer.isCompact()) {
+            writer.importFunction(GET_ELEMENT_FUNCTION_ALIAS, "getElement", RENDER_FUNCTIONS_MODULE_PATH);
+            return String.format("%s('%s')", GET_ELEMENT_FUNCTION_ALIAS, this.getClientIdOrNull());
+        } else {
+            return String.format("document.getElementById('%s')", this.getClientIdOrNull());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Supplies the items shown by a {@link VirtualList}. Only the items inside the window around the
+ * visible area of the list are requested, so the data set may be arbitrarily large.
+ * <p>
+ * Providers are kept by the list, so they are serialized along with the view state. A provider
+ * should keep only what it needs to reach the data, like a query, and not the data itself.
+ * 
+ * @param <T> the type of the items
+ */
+public interface VirtualListDataProvider<T> extends Serializable {
+    
+    /**
+     * Returns the total number of items of the data set.
+     */
+    int getItemCount();
+    
+    /**
+     * Returns the items from the index {@code fromIndex}, inclusive, to the index {@code toIndex},
+     * exclusive, in this order.
+     */
+    List<T> getItems(int fromIndex, int toIndex);
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.io.Serializable;
+
+/**
+ * Creates the control that shows an item of a {@link VirtualList}. Row factories are kept by the
+ * list, so they are serializable like the event handlers: lambda expressions used as factories are
+ * serializable as long as the values they capture are.
+ * 
+ * @param <T> the type of the items
+ */
+@FunctionalInterface
+public interface VirtualListRowFactory<T> extends Serializable {
+    
+    Control createRow(T item);
+}
\ No newline at end of file
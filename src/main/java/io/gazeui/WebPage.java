@@ -5,10 +5,14 @@
 
 package io.gazeui;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import io.gazeui.text.Strings;
 
+@SuppressWarnings("serial")
 public abstract class WebPage extends ContainerControl<Control> {
     
     private String title;
@@ -28,6 +32,8 @@ public abstract class WebPage extends ContainerControl<Control> {
     
     public void setTitle(String title) {
         if (!Strings.isNullOrBlank(title)) {
+            this.adjustRetainedSizeEstimate(
+                    Control.estimateStringSize(title) - Control.estimateStringSize(this.title));
             this.title = title;
         } else {
             throw new IllegalArgumentException(
@@ -35,10 +41,19 @@ public abstract class WebPage extends ContainerControl<Control> {
         }
     }
     
-    String generateAutomaticControlId() {
-        return String.format("ctl%02d", ++this.controlsCounter);
+    /**
+     * Adds the event handlers of the controls of this page. It is called once the page is created,
+     * after its constructor. When the page is copied from a {@link WebPagePrototype}, the constructor
+     * runs only for the prototype while this method runs for every copy, so the handlers must be
+     * added here, referring to the controls through fields, instead of in the constructor.
+     */
+    protected void bindEventHandlers() {
     }
-
+    
+    int generateAutomaticControlId() {
+        return ++this.controlsCounter;
+    }
+    
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(super.toString());
@@ -59,6 +74,22 @@ public abstract class WebPage extends ContainerControl<Control> {
         return "";
     }
     
+    @Override
+    protected void renderContainerCreation(RenderScriptWriter writer) {
+        // As for the creation script, nothing has to be rendered in compact mode
+    }
+    
+    @Override
+    protected void renderSelection(RenderScriptWriter writer) {
+        // As for the selection script, nothing has to be rendered in compact mode
+    }
+    
+    @Override
+    boolean isAttachedOnCreation() {
+        // The document body is always in the live DOM tree
+        return true;
+    }
+    
     @Override
     protected String identificationToken() {
         return "document.body";
@@ -66,6 +97,38 @@ public abstract class WebPage extends ContainerControl<Control> {
     
     @Override
     protected void renderCreation(RenderScriptWriter writer) {
+        this.renderTitleCreation(writer);
+        
+        // Add the default ContainerControl script
+        super.renderCreation(writer);
+    }
+    
+    /**
+     * Renders the creation of this page in chunks, each one printed by a new writer of the factory,
+     * so they do not share variables or imports and can be run as soon as each one arrives at the
+     * client. The first chunk sets the title and each of the others creates one of the child
+     * controls and appends it to the document body.
+     */
+    void renderCreationInChunks(Supplier<RenderScriptWriter> writerFactory,
+            Consumer<RenderScriptWriter> chunkConsumer) {
+        RenderScriptWriter titleWriter = writerFactory.get();
+        this.renderTitleCreation(titleWriter);
+        chunkConsumer.accept(titleWriter);
+        
+        List<Control> childControls = this.getControls();
+        
+        for (int i = 0; i < childControls.size(); i++) {
+            Control childControl = childControls.get(i);
+            RenderScriptWriter writer = writerFactory.get();
+            
+            childControl.renderCreation(writer);
+            writer.format(writer.isCompact() ? "%s.appendChild(%s);" : "%s.appendChild(%s);\n",
+                    this.identificationToken(), childControl.identificationToken());
+            chunkConsumer.accept(writer);
+        }
+    }
+    
+    private void renderTitleCreation(RenderScriptWriter writer) {
         if (Strings.isNullOrBlank(this.getTitle())) {
             // According to the HTML 5.2 specification, the title element must contain at least one
             // non-whitespace character. See https://www.w3.org/TR/html52/document-metadata.html#the-title-element
@@ -73,11 +136,8 @@ public abstract class WebPage extends ContainerControl<Control> {
             this.setTitle(this.getClass().getSimpleName());
         }
         
-        // TODO: JavaScript escape
-        writer.format("document.title = '%s';\n", this.getTitle());
-        
-        // Add the default ContainerControl script
-        super.renderCreation(writer);
+        writer.format(writer.isCompact() ? "document.title='%s';" : "document.title = '%s';\n",
+                Strings.escapeJavaScript(this.getTitle()));
     }
     
     @Override
@@ -85,8 +145,8 @@ public abstract class WebPage extends ContainerControl<Control> {
         WebPage previousPage = (WebPage)previousControlState;
         
         if (!this.getTitle().equals(previousPage.getTitle())) {
-            // TODO: JavaScript escape
-            writer.format("document.title = '%s';\n", this.getTitle());
+            writer.format(writer.isCompact() ? "document.title='%s';" : "document.title = '%s';\n",
+                    Strings.escapeJavaScript(this.getTitle()));
         }
         
         // Add the default ContainerControl script
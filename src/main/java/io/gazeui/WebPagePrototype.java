@@ -0,0 +1,238 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import io.gazeui.collections.IntObjectHashMap;
+
+/**
+ * A page built only once, whose copies are used as the initial pages of new sessions. Copying the
+ * control tree of a page is much cheaper than running a page constructor that builds large trees
+ * or loads resources.
+ * <p>
+ * A copy has the same controls, with the same client IDs, as the prototype. Fields of control types
+ * that refer to controls of the prototype tree are pointed to the corresponding copies. Controls
+ * kept in collections, maps or arrays could not be pointed to their copies, so a page keeping them
+ * is rejected. So is a page with fields of control types referring to controls outside its tree,
+ * like a control attached only later, because they would be shared by all the copies. Such controls
+ * can be created in {@link WebPage#bindEventHandlers()}. Any other field is shared with the
+ * prototype, so the page should not keep mutable state outside its controls.
+ * <p>
+ * Event handlers are never copied, because they would act on the controls of the prototype, which
+ * are shared by all the copies. A page adding handlers in its constructor is rejected, and
+ * {@link WebPage#bindEventHandlers()} is called for each copy instead.
+ * 
+ * @param <T> the type of the page
+ */
+public final class WebPagePrototype<T extends WebPage> {
+    
+    // The instance fields of control types declared by each control class and its superclasses
+    // below Control. The framework classes declare no such fields, so most controls have none.
+    private static final ClassValue<Field[]> controlFields = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> controlClass) {
+            List<Field> fields = new ArrayList<>();
+            
+            for (Class<?> c = controlClass; c != Control.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) &&
+                            Control.class.isAssignableFrom(field.getType())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+    
+    // The instance fields of collection, map or array types declared by each control class and its
+    // superclasses below Control, except the child controls of the containers
+    private static final ClassValue<Field[]> collectionFields = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> controlClass) {
+            List<Field> fields = new ArrayList<>();
+            
+            for (Class<?> c = controlClass; c != Control.class; c = c.getSuperclass()) {
+                if (c == ContainerControl.class) {
+                    continue;
+                }
+                
+                for (Field field : c.getDeclaredFields()) {
+                    Class<?> fieldType = field.getType();
+                    
+                    if (!Modifier.isStatic(field.getModifiers()) &&
+                            (Collection.class.isAssignableFrom(fieldType) ||
+                            Map.class.isAssignableFrom(fieldType) ||
+                            Object[].class.isAssignableFrom(fieldType))) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+    
+    private final T prototypePage;
+    private final int controlCount;
+    
+    /**
+     * Creates the prototype page.
+     * 
+     * @throws GazeUIException if the page adds event handlers in its constructor, keeps controls
+     *         in collections, maps or arrays, or keeps in its fields controls outside its tree
+     */
+    public WebPagePrototype(Class<T> pageClass) {
+        this.prototypePage = Window.createPage(pageClass);
+        this.controlCount = WebPagePrototype.countControls(this.prototypePage, this.prototypePage);
+    }
+    
+    private static int countControls(Control control, WebPage prototypePage) {
+        int controlCount = 1;
+        
+        if (control.hasEventHandlers()) {
+            String errorMessage = String.format(
+                    ErrorMessage.PAGE_PROTOTYPE_MUST_NOT_HAVE_EVENT_HANDLERS.getMessage(), control);
+            
+            throw new GazeUIException(errorMessage);
+        }
+        
+        WebPagePrototype.checkControlFields(control, prototypePage);
+        WebPagePrototype.checkCollectionFields(control);
+        
+        // Accessing the controls also creates the collections that were not accessed yet, so the
+        // later copies, possibly concurrent, only read the prototype
+        if (control instanceof ContainerControl) {
+            for (Control childControl : ((ContainerControl<?>)control).getControls()) {
+                controlCount += WebPagePrototype.countControls(childControl, prototypePage);
+            }
+        }
+        
+        return controlCount;
+    }
+    
+    private static void checkControlFields(Control control, WebPage prototypePage) {
+        for (Field field : WebPagePrototype.controlFields.get(control.getClass())) {
+            Control fieldValue = (Control)WebPagePrototype.getFieldValue(field, control);
+            
+            // A control outside the tree has no copy, so all the copies would share it
+            if (fieldValue != null && fieldValue.getPageOrNull() != prototypePage) {
+                String errorMessage = String.format(
+                        ErrorMessage.PAGE_PROTOTYPE_MUST_NOT_KEEP_CONTROLS_OUTSIDE_ITS_TREE
+                                .getMessage(), field);
+                
+                throw new GazeUIException(errorMessage);
+            }
+        }
+    }
+    
+    private static Object getFieldValue(Field field, Control control) {
+        try {
+            return field.get(control);
+        } catch (IllegalAccessException ex) {
+            String errorMessage = String.format(
+                    ErrorMessage.UNEXPECTED_ERROR_COPYING_PAGE_PROTOTYPE.getMessage(), field);
+            
+            throw new GazeUIException(errorMessage, ex);
+        }
+    }
+    
+    private static void checkCollectionFields(Control control) {
+        for (Field field : WebPagePrototype.collectionFields.get(control.getClass())) {
+            Object fieldValue = WebPagePrototype.getFieldValue(field, control);
+            Iterable<?> elements;
+            
+            if (fieldValue instanceof Collection) {
+                elements = (Collection<?>)fieldValue;
+            } else if (fieldValue instanceof Map) {
+                List<Object> entries = new ArrayList<>();
+                
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>)fieldValue).entrySet()) {
+                    entries.add(entry.getKey());
+                    entries.add(entry.getValue());
+                }
+                
+                elements = entries;
+            } else if (fieldValue instanceof Object[]) {
+                elements = Arrays.asList((Object[])fieldValue);
+            } else {
+                continue;
+            }
+            
+            for (Object element : elements) {
+                if (element instanceof Control) {
+                    String errorMessage = String.format(
+                            ErrorMessage.PAGE_PROTOTYPE_MUST_NOT_KEEP_CONTROLS_IN_COLLECTIONS
+                                    .getMessage(), field);
+                    
+                    throw new GazeUIException(errorMessage);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns a new copy of the prototype page, with its event handlers bound. Copies can be
+     * created concurrently, because creating them only reads the prototype.
+     */
+    @SuppressWarnings("unchecked")
+    public T createCopy() {
+        T copiedPage = (T)this.prototypePage.clone();
+        IntObjectHashMap<Control> copiesById = new IntObjectHashMap<>(this.controlCount);
+        
+        copiedPage.linkClonedTree(null, copiesById);
+        
+        // Controls of the prototype and their copies have the same client IDs
+        this.pointFieldsToCopies(copiedPage, copiedPage, copiesById);
+        copiedPage.bindEventHandlers();
+        
+        return copiedPage;
+    }
+    
+    private void pointFieldsToCopies(Control copiedControl, T copiedPage,
+            IntObjectHashMap<Control> copiesById) {
+        // The prototype has no handlers, but the copies must never share them, even if some
+        // control added them after the prototype was checked
+        copiedControl.clearEventHandlers();
+        
+        for (Field field : WebPagePrototype.controlFields.get(copiedControl.getClass())) {
+            try {
+                Control fieldValue = (Control)field.get(copiedControl);
+                
+                if (fieldValue == this.prototypePage) {
+                    field.set(copiedControl, copiedPage);
+                } else if (fieldValue != null && fieldValue.getControlId() != 0) {
+                    Control copiedFieldValue = copiesById.get(fieldValue.getControlId());
+                    
+                    if (copiedFieldValue != null) {
+                        field.set(copiedControl, copiedFieldValue);
+                    }
+                }
+            } catch (IllegalAccessException ex) {
+                String errorMessage = String.format(
+                        ErrorMessage.UNEXPECTED_ERROR_COPYING_PAGE_PROTOTYPE.getMessage(), field);
+                
+                throw new GazeUIException(errorMessage, ex);
+            }
+        }
+        
+        if (copiedControl instanceof ContainerControl) {
+            for (Control childControl : ((ContainerControl<?>)copiedControl).getControls()) {
+                this.pointFieldsToCopies(childControl, copiedPage, copiesById);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -6,25 +6,43 @@
 package io.gazeui;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import io.gazeui.util.OptionalExtensions;
-
+@SuppressWarnings("serial")
 public class Window extends ContainerControl<WebPage> {
-
+    
     // Ideally this class would be declared final and with a private constructor, but none of these
     // options work because this class is used as a Spring component.
     
     private static final String WINDOW_ID = "window";
     private static final String PAGE_ID = "page";
     
+    private boolean initialState = true;
+    private ClientIdStrategy clientIdStrategy = ClientIdStrategy.COMPACT;
+    
     public static Window createInstance(Class<? extends WebPage> initialPageClass) {
-        WebPage initialPage;
+        WebPage initialPage = Window.createPage(initialPageClass);
+        initialPage.bindEventHandlers();
         
+        return new Window(initialPage);
+    }
+    
+    /**
+     * Creates a window whose initial page is a copy of the given prototype, instead of a newly
+     * constructed page.
+     */
+    public static Window createInstance(WebPagePrototype<?> initialPagePrototype) {
+        return new Window(initialPagePrototype.createCopy());
+    }
+    
+    static <T extends WebPage> T createPage(Class<T> pageClass) {
         try {
-            initialPage = initialPageClass.getDeclaredConstructor().newInstance();
+            return pageClass.getDeclaredConstructor().newInstance();
         } catch (InvocationTargetException ex) {
             // Rethrow any possible exception thrown by the WebPage subclass constructor
             throw new RuntimeException(ex.getCause());
@@ -32,20 +50,49 @@ public class Window extends ContainerControl<WebPage> {
                 | NoSuchMethodException | SecurityException ex) {
             throw new GazeUIException(ErrorMessage.UNEXPECTED_ERROR_CREATING_INITIAL_PAGE.getMessage(), ex);
         }
-        
-        return new Window(initialPage);
     }
     
     public Window(WebPage initialPage) {
         this.getControls().add(initialPage);
     }
     
+    /**
+     * If no UI event was processed by this window yet, so its page is still as it was created.
+     */
+    public boolean isInInitialState() {
+        return this.initialState;
+    }
+    
+    /**
+     * How the IDs of the controls of this window are rendered on the client side. Each window has
+     * its own strategy, so applications with different strategies can share the same process.
+     */
+    public ClientIdStrategy getClientIdStrategy() {
+        return this.clientIdStrategy;
+    }
+    
+    /**
+     * Sets how the control IDs are rendered on the client side. This should be set right after the
+     * window is created, before anything is rendered.
+     */
+    public void setClientIdStrategy(ClientIdStrategy clientIdStrategy) {
+        this.clientIdStrategy = Objects.requireNonNull(clientIdStrategy);
+    }
+    
+    /**
+     * If the page of this window sends UI events to the server, so this window has to be kept
+     * between requests to process them.
+     */
+    public boolean requiresServerState() {
+        return this.hasServerEventHandlers();
+    }
+    
     public Optional<WebPage> getChildPage() {
-        if (!this.getControls().isEmpty()) {
-            return Optional.of(this.getControls().get(0));
-        } else {
-            return Optional.empty();
-        }
+        return Optional.ofNullable(this.getChildPageOrNull());
+    }
+    
+    WebPage getChildPageOrNull() {
+        return !this.getControls().isEmpty() ? this.getControls().get(0) : null;
     }
     
     @Override
@@ -56,90 +103,131 @@ public class Window extends ContainerControl<WebPage> {
     
     @Override
     public void renderCreation(RenderScriptWriter writer) {
-        this.getChildPage().ifPresent((WebPage page) -> {
+        WebPage page = this.getChildPageOrNull();
+        
+        if (page != null) {
             page.renderCreation(writer);
-        });
+        }
+    }
+    
+    /**
+     * Renders the creation of the page in independent chunks, so the client can show the first
+     * controls of a large page while the server is still rendering the others. The first chunk
+     * sets the title and each of the others creates one of the top-level controls of the page.
+     * 
+     * @param writerFactory creates the writer of each chunk
+     * @param chunkConsumer receives each chunk as soon as it is rendered
+     */
+    public void renderCreationInChunks(Supplier<RenderScriptWriter> writerFactory,
+            Consumer<RenderScriptWriter> chunkConsumer) {
+        WebPage page = this.getChildPageOrNull();
+        
+        if (page != null) {
+            page.renderCreationInChunks(writerFactory, chunkConsumer);
+        }
     }
     
     @Override
     public void renderUpdate(RenderScriptWriter writer, Control previousControlState) {
-        Window previousWindow = (Window)previousControlState;
+        WebPage page = this.getChildPageOrNull();
+        WebPage previousPage = ((Window)previousControlState).getChildPageOrNull();
         
-        if (this.getChildPage().isPresent() && previousWindow.getChildPage().isPresent() &&
-                this.getChildPage().get().getClass() == previousWindow.getChildPage().get().getClass()) {
+        if (page != null && previousPage != null && page.getClass() == previousPage.getClass()) {
             // Update
-            this.getChildPage().get().renderUpdate(writer, previousWindow.getChildPage().get());
+            page.renderUpdate(writer, previousPage);
         } else {
-            previousWindow.getChildPage().ifPresent((WebPage previousPage) -> {
-                writer.importModule("DomFunctions", "./dom-functions.mjs");
-                writer.println("DomFunctions.clearCurrentWebPage();");
-            });
+            if (previousPage != null) {
+                writer.importModule(DOM_FUNCTIONS_MODULE_NAME, DOM_FUNCTIONS_MODULE_PATH);
+                writer.format("%s.clearCurrentWebPage();\n", DOM_FUNCTIONS_MODULE_NAME);
+            }
             
-            this.getChildPage().ifPresent((WebPage page) -> {
+            if (page != null) {
                 page.renderCreation(writer);
-            });
+            }
         }
     }
     
     public void processUIEvent(String controlId, String eventName) {
-        Optional<? extends Control> optionalControl = this.getDescendantControlById(controlId);
+        this.processUIEvent(controlId, eventName, null);
+    }
+    
+    /**
+     * Processes an event that carries an argument from the client side, like the position reached
+     * by a scroll. The argument is null for events that carry none.
+     * <p>
+     * Exceptions thrown by the event handlers are propagated as they are, without being wrapped, so
+     * the application sees its own exceptions.
+     */
+    public void processUIEvent(String controlId, String eventName, String eventArgument) {
+        Control control = this.getDescendantControlById(controlId);
         
-        OptionalExtensions.ifPresentOrElseThrow(optionalControl, control -> {
-            String processEventMethodName = String.format("processOn%sEvent", eventName);
-            
-            try {
-                Method method = control.getClass().getDeclaredMethod(processEventMethodName);
-                method.invoke(control);
-            } catch (InvocationTargetException ex) {
-                // Rethrow any possible exception thrown by the WebPage subclass constructor
-                throw new RuntimeException(ex.getCause());
-            } catch (NoSuchMethodException | SecurityException | IllegalAccessException |
-                    IllegalArgumentException ex) {
-                String errorMessage = String.format(
-                        ErrorMessage.UNEXPECTED_ERROR_PROCESSING_EVENT.getMessage(), eventName,
-                        control.toString());
-                
-                throw new GazeUIException(errorMessage, ex);
-            }
-        }, () -> {
+        if (control == null) {
             String errorMessage = String.format(
                     ErrorMessage.COULD_NOT_PROCESS_EVENT_CONTROL_ID_NOT_FOUND.getMessage(),
                     eventName, controlId);
             
-            return new NoSuchElementException(errorMessage);
-        });
+            throw new NoSuchElementException(errorMessage);
+        }
+        
+        UIEventRegistry.UIEventProcessor<Control> processor =
+                UIEventRegistry.find(control.getClass(), eventName);
+        
+        if (processor == null) {
+            String errorMessage = String.format(
+                    ErrorMessage.UNEXPECTED_ERROR_PROCESSING_EVENT.getMessage(), eventName,
+                    control.toString());
+            
+            throw new GazeUIException(errorMessage);
+        }
+        
+        // Cleared even if the processing fails, because the handlers may have changed the page
+        // before failing
+        this.initialState = false;
+        processor.process(control, eventArgument);
     }
     
-    private Optional<? extends Control> getDescendantControlById(String controlId) {
+    /**
+     * Returns the control with the given client ID, or null if there is none.
+     */
+    private Control getDescendantControlById(String controlId) {
         switch (controlId) {
             case WINDOW_ID:
-                return Optional.of(this);
-                
+                return this;
+            
             case PAGE_ID:
-                return this.getChildPage();
-                
+                return this.getChildPageOrNull();
+            
             default:
                 // If it is neither the window nor the page, look at their descendant controls
-                return this.getChildPage().flatMap(page -> this.getDescendantControlById(page, controlId));
+                int numericControlId = this.clientIdStrategy.parseControlId(controlId);
+                WebPage page = this.getChildPageOrNull();
+                
+                if (numericControlId != 0 && page != null) {
+                    return this.getDescendantControlById(page, numericControlId);
+                } else {
+                    return null;
+                }
         }
     }
     
-    private Optional<Control> getDescendantControlById(ContainerControl<?> ancestor, String controlId) {
-        Optional<Control> foundControl = Optional.empty();
+    private Control getDescendantControlById(ContainerControl<?> ancestor, int controlId) {
+        List<? extends Control> childControls = ancestor.getControls();
         
-        for (Control childControl : ancestor.getControls()) {
-            if (childControl.getClientId().get().equals(controlId)) {
-                foundControl = Optional.of(childControl);
-                break;
+        for (int i = 0; i < childControls.size(); i++) {
+            Control childControl = childControls.get(i);
+            
+            if (childControl.getControlId() == controlId) {
+                return childControl;
             } else if (childControl instanceof ContainerControl) {
-                foundControl = this.getDescendantControlById((ContainerControl<?>)childControl, controlId);
+                Control foundControl =
+                        this.getDescendantControlById((ContainerControl<?>)childControl, controlId);
                 
-                if (foundControl.isPresent()) {
-                    break;
+                if (foundControl != null) {
+                    return foundControl;
                 }
             }
         }
         
-        return foundControl;
+        return null;
     }
 }
\ No newline at end of file
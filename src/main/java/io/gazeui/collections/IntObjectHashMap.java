@@ -0,0 +1,180 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.collections;
+
+import java.util.Arrays;
+
+/**
+ * A hash map with primitive int keys that uses open addressing with linear probing. Unlike a
+ * {@link java.util.HashMap}, no boxing or entry objects are allocated when adding or looking up
+ * elements, and the map can be cleared and reused without releasing its internal arrays.
+ * 
+ * The zero key is reserved to mark empty slots, so it can not be used as a key.
+ * 
+ * @param <V> the type of mapped values
+ */
+public final class IntObjectHashMap<V> {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    // The capacity is always a power of two, so the slot can be calculated with a mask
+    private int mask;
+    
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY / 2);
+    }
+    
+    public IntObjectHashMap(int expectedSize) {
+        this.allocate(capacityFor(expectedSize));
+    }
+    
+    public int size() {
+        return this.size;
+    }
+    
+    /**
+     * The number of slots of the internal arrays, which only grow, even when the map is cleared.
+     */
+    public int capacity() {
+        return this.keys.length;
+    }
+    
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+    
+    public boolean containsKey(int key) {
+        return this.indexOf(key) >= 0;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = this.indexOf(key);
+        
+        return index >= 0 ? (V)this.values[index] : null;
+    }
+    
+    /**
+     * Associates the value with the key, returning the previous value associated with the key or
+     * null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("The zero key is reserved");
+        }
+        
+        int index = slot(key, this.mask);
+        
+        while (this.keys[index] != 0) {
+            if (this.keys[index] == key) {
+                V previousValue = (V)this.values[index];
+                this.values[index] = value;
+                
+                return previousValue;
+            }
+            
+            index = (index + 1) & this.mask;
+        }
+        
+        this.keys[index] = key;
+        this.values[index] = value;
+        
+        // Keeping the load factor at most 0.5 to have short probe sequences
+        if (++this.size > (this.mask + 1) / 2) {
+            this.rehash(this.keys.length * 2);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Makes the map able to hold the given number of elements without rehashing.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        
+        if (capacity > this.keys.length) {
+            this.rehash(capacity);
+        }
+    }
+    
+    /**
+     * Removes all the elements, keeping the internal arrays to be reused.
+     */
+    public void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.keys, 0);
+            Arrays.fill(this.values, null);
+            this.size = 0;
+        }
+    }
+    
+    private int indexOf(int key) {
+        if (key == 0) {
+            return -1;
+        }
+        
+        int index = slot(key, this.mask);
+        
+        while (this.keys[index] != 0) {
+            if (this.keys[index] == key) {
+                return index;
+            }
+            
+            index = (index + 1) & this.mask;
+        }
+        
+        return -1;
+    }
+    
+    private void rehash(int newCapacity) {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        
+        this.allocate(newCapacity);
+        
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = slot(oldKeys[i], this.mask);
+                
+                while (this.keys[index] != 0) {
+                    index = (index + 1) & this.mask;
+                }
+                
+                this.keys[index] = oldKeys[i];
+                this.values[index] = oldValues[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        
+        while (capacity / 2 < expectedSize) {
+            capacity *= 2;
+        }
+        
+        return capacity;
+    }
+    
+    private static int slot(int key, int mask) {
+        // Sequential keys are very common here, so the bits are mixed using the golden ratio to
+        // spread them over the table (Fibonacci hashing)
+        int hash = key * 0x9E3779B9;
+        
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
\ No newline at end of file
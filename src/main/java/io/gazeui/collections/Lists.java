@@ -18,8 +18,46 @@ public final class Lists {
         // No instances allowed
     }
     
+    /**
+     * Returns a longest common subsequence of the lists, with the elements of the first one. The
+     * common prefix and suffix are matched first, so the quadratic table only covers the elements
+     * between them, which are few when a list is only slightly changed.
+     */
     public static <T> List<T> longestCommonSubsequence(List<T> list1, List<T> list2,
             Comparator<? super T> comparator) {
+        int prefixLength = 0;
+        int maxAffixLength = Math.min(list1.size(), list2.size());
+        
+        while (prefixLength < maxAffixLength &&
+                comparator.compare(list1.get(prefixLength), list2.get(prefixLength)) == 0) {
+            prefixLength++;
+        }
+        
+        int suffixLength = 0;
+        
+        while (suffixLength < maxAffixLength - prefixLength &&
+                comparator.compare(list1.get(list1.size() - 1 - suffixLength),
+                        list2.get(list2.size() - 1 - suffixLength)) == 0) {
+            suffixLength++;
+        }
+        
+        List<T> middle1 = list1.subList(prefixLength, list1.size() - suffixLength);
+        List<T> middle2 = list2.subList(prefixLength, list2.size() - suffixLength);
+        List<T> result = new ArrayList<>(maxAffixLength);
+        
+        result.addAll(list1.subList(0, prefixLength));
+        
+        if (!middle1.isEmpty() && !middle2.isEmpty()) {
+            Lists.addLongestCommonSubsequence(middle1, middle2, comparator, result);
+        }
+        
+        result.addAll(list1.subList(list1.size() - suffixLength, list1.size()));
+        
+        return result;
+    }
+    
+    private static <T> void addLongestCommonSubsequence(List<T> list1, List<T> list2,
+            Comparator<? super T> comparator, List<T> result) {
         int[][] tabulationData = new int[list1.size() + 1][list2.size() + 1];
         
         for (int row = tabulationData.length - 2; row >= 0; row--) {
@@ -35,7 +73,6 @@ public final class Lists {
         
         int row = 0;
         int col = 0;
-        List<T> result = new ArrayList<>(tabulationData[0][0]);
         
         while (row <= tabulationData.length - 2 && col <= tabulationData[0].length - 2) {
             if (comparator.compare(list1.get(row), list2.get(col)) == 0) {
@@ -51,8 +88,6 @@ public final class Lists {
                 }
             }
         }
-        
-        return result;
     }
     
     public static <T, K, V> Map<K, V> toMap(List<T> list, Function<? super T, ? extends K> keyMapper,
@@ -5,10 +5,15 @@
 
 package io.gazeui.event;
 
+import java.io.Serializable;
 import java.util.EventListener;
 
+/**
+ * Handles an event of a control. Handlers are serializable, like the controls keeping them, so
+ * lambda expressions used as handlers are serializable as long as the values they capture are.
+ */
 @FunctionalInterface
-public interface EventHandler<T extends EventArgs> extends EventListener {
+public interface EventHandler<T extends EventArgs> extends EventListener, Serializable {
     
     public void handle(T eventArgs);
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.event;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+import io.gazeui.Control;
+
+/**
+ * An immutable list of event handlers, backed by an array holding exactly its handlers. Adding or
+ * removing a handler returns a new list and leaves this one unchanged, so a list can be shared by
+ * the clones of a control without being copied, and the handlers can be called while others are
+ * added or removed.
+ * <p>
+ * Most controls have no handlers or a single one, so the empty list is shared by all of them and
+ * adding the first handler allocates only the list and an array with one element.
+ */
+@SuppressWarnings("serial")
+public final class EventHandlerList<T extends EventArgs> implements Serializable {
+    
+    // The object and array headers, plus the reference to the array
+    private static final int LIST_RETAINED_SIZE = 32;
+    private static final int HANDLER_RETAINED_SIZE = 8;
+    
+    private static final EventHandlerList<EventArgs> EMPTY =
+            new EventHandlerList<>(EventHandlerList.newHandlerArray(0));
+    
+    private final EventHandler<? super T>[] handlers;
+    
+    private EventHandlerList(EventHandler<? super T>[] handlers) {
+        this.handlers = handlers;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static <T extends EventArgs> EventHandlerList<T> empty() {
+        return (EventHandlerList<T>)EventHandlerList.EMPTY;
+    }
+    
+    public boolean isEmpty() {
+        return this.handlers.length == 0;
+    }
+    
+    public int size() {
+        return this.handlers.length;
+    }
+    
+    public boolean contains(EventHandler<? super T> handler) {
+        return this.indexOf(handler) != -1;
+    }
+    
+    /**
+     * Returns a list with the handler at the end, or this list if it already has the handler.
+     */
+    public EventHandlerList<T> add(EventHandler<? super T> handler) {
+        Objects.requireNonNull(handler);
+        
+        if (this.contains(handler)) {
+            return this;
+        }
+        
+        EventHandler<? super T>[] newHandlers =
+                Arrays.copyOf(this.handlers, this.handlers.length + 1);
+        newHandlers[this.handlers.length] = handler;
+        
+        return new EventHandlerList<>(newHandlers);
+    }
+    
+    /**
+     * Returns a list without the handler, or this list if it does not have the handler.
+     */
+    public EventHandlerList<T> remove(EventHandler<? super T> handler) {
+        int index = this.indexOf(handler);
+        
+        if (index == -1) {
+            return this;
+        } else if (this.handlers.length == 1) {
+            return EventHandlerList.empty();
+        }
+        
+        EventHandler<? super T>[] newHandlers =
+                EventHandlerList.newHandlerArray(this.handlers.length - 1);
+        System.arraycopy(this.handlers, 0, newHandlers, 0, index);
+        System.arraycopy(this.handlers, index + 1, newHandlers, index, newHandlers.length - index);
+        
+        return new EventHandlerList<>(newHandlers);
+    }
+    
+    /**
+     * Calls the handlers, in the order they were added, with the same event arguments.
+     */
+    public void fire(T eventArgs) {
+        for (EventHandler<? super T> handler : this.handlers) {
+            handler.handle(eventArgs);
+        }
+    }
+    
+    /**
+     * Calls the handlers with event arguments created by the key, which are only created if there
+     * is a handler to receive them.
+     */
+    public void fire(EventKey<T> eventKey, Control source) {
+        if (this.handlers.length > 0) {
+            this.fire(eventKey.createEventArgs(source));
+        }
+    }
+    
+    /**
+     * An estimate, in bytes, of the heap retained by this list, without the objects captured by the
+     * handlers. The empty list is shared, so it retains nothing.
+     */
+    public int getRetainedSizeEstimate() {
+        return this.handlers.length == 0 ? 0 :
+                LIST_RETAINED_SIZE + this.handlers.length * HANDLER_RETAINED_SIZE;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T extends EventArgs> EventHandler<? super T>[] newHandlerArray(int length) {
+        // Generic arrays can not be created, but an array of any handler holds handlers of T
+        return (EventHandler<? super T>[])new EventHandler<?>[length];
+    }
+    
+    private int indexOf(EventHandler<? super T> handler) {
+        for (int i = 0; i < this.handlers.length; i++) {
+            if (this.handlers[i].equals(handler)) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    private Object readResolve() {
+        // Keeps the empty list shared after deserialization
+        return this.handlers.length == 0 ? EventHandlerList.EMPTY : this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.event;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import io.gazeui.Control;
+
+/**
+ * Identifies an event of a control, by the name the client side sends it with, and creates the
+ * arguments received by its handlers. Keys are compared by identity, so each event is declared once
+ * as a constant of the control raising it.
+ */
+public final class EventKey<T extends EventArgs> {
+    
+    private final String name;
+    private final Function<? super Control, ? extends T> eventArgsFactory;
+    
+    private EventKey(String name, Function<? super Control, ? extends T> eventArgsFactory) {
+        this.name = Objects.requireNonNull(name);
+        this.eventArgsFactory = Objects.requireNonNull(eventArgsFactory);
+    }
+    
+    /**
+     * Creates the key of an event whose handlers receive plain {@link EventArgs}.
+     */
+    public static EventKey<EventArgs> of(String name) {
+        return new EventKey<>(name, EventArgs::new);
+    }
+    
+    public static <T extends EventArgs> EventKey<T> of(String name,
+            Function<? super Control, ? extends T> eventArgsFactory) {
+        return new EventKey<>(name, eventArgsFactory);
+    }
+    
+    public String getName() {
+        return this.name;
+    }
+    
+    public T createEventArgs(Control source) {
+        return this.eventArgsFactory.apply(source);
+    }
+    
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
\ No newline at end of file
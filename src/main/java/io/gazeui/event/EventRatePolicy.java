@@ -0,0 +1,100 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.event;
+
+import java.io.Serializable;
+
+/**
+ * A policy enforced on the client side to limit how often an event is sent to the server. Events
+ * discarded by the policy never cause a server round trip.
+ */
+@SuppressWarnings("serial")
+public final class EventRatePolicy implements Serializable {
+    
+    public enum Kind {
+        /**
+         * Sends only the last event of a burst, after no event has happened for the delay.
+         */
+        DEBOUNCE,
+        
+        /**
+         * Sends at most one event per delay. The first event of a burst is sent immediately and
+         * the last one is sent at the end of the delay.
+         */
+        THROTTLE,
+        
+        /**
+         * Discards the events happening while the server is still processing the previous one.
+         */
+        DROP_WHILE_IN_FLIGHT
+    }
+    
+    private static final EventRatePolicy DROP_WHILE_IN_FLIGHT_POLICY =
+            new EventRatePolicy(Kind.DROP_WHILE_IN_FLIGHT, 0);
+    
+    private final Kind kind;
+    private final long delayMillis;
+    
+    private EventRatePolicy(Kind kind, long delayMillis) {
+        this.kind = kind;
+        this.delayMillis = delayMillis;
+    }
+    
+    public static EventRatePolicy debounce(long delayMillis) {
+        return new EventRatePolicy(Kind.DEBOUNCE, EventRatePolicy.requirePositive(delayMillis));
+    }
+    
+    public static EventRatePolicy throttle(long delayMillis) {
+        return new EventRatePolicy(Kind.THROTTLE, EventRatePolicy.requirePositive(delayMillis));
+    }
+    
+    public static EventRatePolicy dropWhileInFlight() {
+        return DROP_WHILE_IN_FLIGHT_POLICY;
+    }
+    
+    private static long requirePositive(long delayMillis) {
+        if (delayMillis <= 0) {
+            throw new IllegalArgumentException("The delay must be positive");
+        }
+        
+        return delayMillis;
+    }
+    
+    public Kind getKind() {
+        return this.kind;
+    }
+    
+    /**
+     * The delay, in milliseconds, of the debounce and throttle policies, or zero otherwise.
+     */
+    public long getDelayMillis() {
+        return this.delayMillis;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (!(obj instanceof EventRatePolicy)) {
+            return false;
+        }
+        
+        EventRatePolicy other = (EventRatePolicy)obj;
+        
+        return this.kind == other.kind && this.delayMillis == other.delayMillis;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * this.kind.hashCode() + Long.hashCode(this.delayMillis);
+    }
+    
+    @Override
+    public String toString() {
+        return this.kind == Kind.DROP_WHILE_IN_FLIGHT ? this.kind.toString() :
+                String.format("%s(%d ms)", this.kind, this.delayMillis);
+    }
+}
\ No newline at end of file
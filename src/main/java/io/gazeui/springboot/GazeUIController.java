@@ -5,37 +5,74 @@
 
 package io.gazeui.springboot;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import io.gazeui.DeterministicInitialRender;
+import io.gazeui.InvalidEventArgumentException;
 import io.gazeui.RenderScriptWriter;
+import io.gazeui.ScriptTemplate;
 import io.gazeui.Window;
+import io.gazeui.springboot.annotation.EnableGazeUI;
 import io.gazeui.springboot.configuration.PropertiesConfiguration;
 import io.gazeui.springboot.configuration.WebConfiguration;
 import io.gazeui.springboot.http.MediaTypeExtensions;
+import io.gazeui.springboot.viewstate.InvalidViewStateException;
+import io.gazeui.springboot.viewstate.SignedViewStateCodec;
+import io.gazeui.springboot.viewstate.ViewStateRepository;
 
 @RestController
 @RequestMapping(path = "${" + PropertiesConfiguration.PROPERTY_KEY_GAZEUI_BASE_PATH + "}")
 public class GazeUIController {
     
     private static final String CREATE_INITIAL_UI_URL_PATH = "create-initial-ui.mjs";
-    private static final String PROCESS_SERVER_UI_EVENT_URL_PATH = "process-server-ui-event.js";
+    private static final String CREATE_INITIAL_UI_CHUNKS_URL_PATH = "create-initial-ui-chunks.js";
+    private static final String PROCESS_SERVER_UI_EVENT_URL_PATH = "process-server-ui-event.json";
+    // The session attribute with the ID of the window in the view state repository
+    private static final String VIEW_STATE_ID_SESSION_ATTRIBUTE_NAME =
+            GazeUIController.class.getName() + ".viewStateId";
+    // The session attribute with the update templates already sent to each page
+    private static final String SENT_UPDATE_TEMPLATES_SESSION_ATTRIBUTE_NAME =
+            GazeUIController.class.getName() + ".sentUpdateTemplates";
+    private static final String CORE_MODULE_NAME = "GazeUICore";
+    private static final String CORE_MODULE_PATH = "./gazeui-core.mjs";
     
-    private final Window viewStateWindow;
     private final WebConfiguration gazeUIWebConfig;
     private String initialHtml;
+    // Shared by all the sessions. It lives as long as the application context, so a redeploy
+    // always starts with an empty cache.
+    private final InitialUIScriptCache initialUICreationScriptCache;
+    private final InitialUIScriptCache initialUICreationChunksCache;
     
     @Autowired
-    public GazeUIController(Window viewStateWindow, WebConfiguration gazeUIWebConfig) {
-        this.viewStateWindow = viewStateWindow;
+    public GazeUIController(WebConfiguration gazeUIWebConfig) {
+        Class<?> initialPageClass = gazeUIWebConfig.getEnableGazeUIAnnotation().initialPage();
+        
         this.gazeUIWebConfig = gazeUIWebConfig;
+        this.initialUICreationScriptCache = new InitialUIScriptCache(initialPageClass);
+        this.initialUICreationChunksCache = new InitialUIScriptCache(initialPageClass);
     }
     
     @GetMapping(produces = MediaType.TEXT_HTML_VALUE)
@@ -85,8 +122,24 @@ public class GazeUIController {
             // Modules are deferred and use strict mode automatically. A deferred script is executed
             // after the document has been parsed. This behavior is necessary because the page
             // contents must be available in order to the script be correctly executed.
-            sbInitialHtml.append(String.format("  <script type='module' src='%s'></script>\n",
-                    GazeUIController.CREATE_INITIAL_UI_URL_PATH));
+            if (this.gazeUIWebConfig.getEnableGazeUIAnnotation().preloadedRuntime()) {
+                // Deferred scripts run in order, so the bundle is registered in the core module
+                // before any rendered script runs
+                sbInitialHtml.append(String.format("  <script type='module' src='%s'></script>\n",
+                        RenderScriptWriter.RUNTIME_MODULE_PATH));
+            }
+            
+            if (this.gazeUIWebConfig.getEnableGazeUIAnnotation().chunkedInitialUI()) {
+                // Inline modules are deferred as well
+                sbInitialHtml.append(String.format(
+                        "  <script type='module'>import{createInitialUIInChunks}from'%s';" +
+                        "createInitialUIInChunks('%s');</script>\n",
+                        GazeUIController.CORE_MODULE_PATH,
+                        GazeUIController.CREATE_INITIAL_UI_CHUNKS_URL_PATH));
+            } else {
+                sbInitialHtml.append(String.format("  <script type='module' src='%s'></script>\n",
+                        GazeUIController.CREATE_INITIAL_UI_URL_PATH));
+            }
             
             sbInitialHtml.append(
                     "</head>\n" + 
@@ -129,22 +182,232 @@ public class GazeUIController {
     @GetMapping(
             path = "/" + GazeUIController.CREATE_INITIAL_UI_URL_PATH,
             produces = MediaTypeExtensions.TEXT_JAVASCRIPT_VALUE)
-    public String getInitialUICreationScript() {
-        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_STATIC_IMPORTS);
-        this.viewStateWindow.renderCreation(writer);
+    public byte[] getInitialUICreationScript(WebRequest webRequest) {
+        InitialUIRequest initialUIRequest = this.resolveInitialUIRequest(webRequest);
+        
+        byte[] cachedScript = this.initialUICreationScriptCache.getOrNull();
+        
+        if (initialUIRequest.cacheable && cachedScript != null) {
+            // The session window will only be created if the page sends some UI event
+            return cachedScript;
+        }
+        
+        Window window = this.prepareInitialUIWindow(initialUIRequest, webRequest);
+        
+        RenderScriptWriter writer = this.createWriter(RenderScriptWriter.USE_STATIC_IMPORTS);
+        window.renderCreation(writer);
+        this.completeInitialUI(initialUIRequest, window, writer);
+        
+        // Module scripts are always decoded as UTF-8 by the browsers
+        byte[] script = writer.toString().getBytes(StandardCharsets.UTF_8);
+        
+        if (initialUIRequest.cacheable) {
+            this.initialUICreationScriptCache.offer(script);
+        }
         
-        return writer.toString();
+        return script;
+    }
+    
+    /**
+     * Streams the creation of the initial UI in chunks, flushed one by one, so the client can show
+     * the first top-level controls while the others are still being rendered. Each chunk is sent as
+     * its length, in UTF-16 code units, a colon and the chunk itself, which is run by the
+     * {@code createInitialUIInChunks} function of the core module.
+     */
+    @GetMapping(
+            path = "/" + GazeUIController.CREATE_INITIAL_UI_CHUNKS_URL_PATH,
+            produces = MediaTypeExtensions.TEXT_JAVASCRIPT_VALUE)
+    public ResponseEntity<StreamingResponseBody> getInitialUICreationChunks(WebRequest webRequest) {
+        InitialUIRequest initialUIRequest = this.resolveInitialUIRequest(webRequest);
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok()
+                .contentType(MediaType.valueOf(MediaTypeExtensions.TEXT_JAVASCRIPT_VALUE));
+        byte[] cachedChunks = this.initialUICreationChunksCache.getOrNull();
+        
+        if (initialUIRequest.cacheable && cachedChunks != null) {
+            return responseBuilder.body(outputStream -> outputStream.write(cachedChunks));
+        }
+        
+        // The session, if any, is created here, because its cookie can not be sent once the first
+        // chunk has been flushed
+        Window window = this.prepareInitialUIWindow(initialUIRequest, webRequest);
+        
+        return responseBuilder.body(outputStream -> {
+            ByteArrayOutputStream cacheOutputStream = initialUIRequest.cacheable ?
+                    new ByteArrayOutputStream() : null;
+            Consumer<RenderScriptWriter> chunkConsumer = writer -> {
+                try {
+                    GazeUIController.writeChunk(writer, outputStream, cacheOutputStream);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            };
+            
+            try {
+                window.renderCreationInChunks(
+                        () -> this.createWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS),
+                        chunkConsumer);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            
+            // The window is saved before the end of the response, which the client waits for
+            // before sending any UI event
+            RenderScriptWriter viewStateWriter =
+                    this.createWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS);
+            this.completeInitialUI(initialUIRequest, window, viewStateWriter);
+            
+            if (!viewStateWriter.isEmpty()) {
+                GazeUIController.writeChunk(viewStateWriter, outputStream, cacheOutputStream);
+            }
+            
+            if (cacheOutputStream != null) {
+                this.initialUICreationChunksCache.offer(cacheOutputStream.toByteArray());
+            }
+        });
+    }
+    
+    private static void writeChunk(RenderScriptWriter writer, OutputStream outputStream,
+            ByteArrayOutputStream cacheOutputStream) throws IOException {
+        // Here is not necessary to use a closure because each chunk is executed in a limited scope
+        String chunk = "'use strict';" + writer.toString();
+        byte[] framedChunk = (chunk.length() + ":" + chunk).getBytes(StandardCharsets.UTF_8);
+        
+        outputStream.write(framedChunk);
+        outputStream.flush();
+        
+        if (cacheOutputStream != null) {
+            cacheOutputStream.write(framedChunk);
+        }
+    }
+    
+    private InitialUIRequest resolveInitialUIRequest(WebRequest webRequest) {
+        EnableGazeUI enableGazeUIAnnotation = this.gazeUIWebConfig.getEnableGazeUIAnnotation();
+        boolean deterministic =
+                enableGazeUIAnnotation.initialPage().isAnnotationPresent(DeterministicInitialRender.class);
+        InitialUIRequest initialUIRequest = new InitialUIRequest();
+        
+        // Looking for the view state ID in the session attributes does not create the session
+        initialUIRequest.viewStateId = this.gazeUIWebConfig.getViewStateCodec().isPresent() ? null :
+                GazeUIController.getViewStateId(webRequest);
+        initialUIRequest.sessionWindow = initialUIRequest.viewStateId != null ?
+                this.gazeUIWebConfig.getViewStateRepository().load(initialUIRequest.viewStateId)
+                        .orElse(null) :
+                null;
+        
+        // When the page is reloaded after some UI event, the window is no longer in its initial
+        // state, so its current state must be rendered
+        initialUIRequest.cacheable = deterministic &&
+                (initialUIRequest.sessionWindow == null ||
+                        initialUIRequest.sessionWindow.isInInitialState());
+        
+        return initialUIRequest;
+    }
+    
+    /**
+     * Returns the window to be rendered, creating the session that will keep it if needed.
+     */
+    private Window prepareInitialUIWindow(InitialUIRequest initialUIRequest, WebRequest webRequest) {
+        EnableGazeUI enableGazeUIAnnotation = this.gazeUIWebConfig.getEnableGazeUIAnnotation();
+        
+        // A new window is rendered for a new session, and always when the view state is kept by
+        // the client
+        Window window = initialUIRequest.sessionWindow != null ? initialUIRequest.sessionWindow :
+                this.gazeUIWebConfig.createWindow();
+        
+        // A stateless page, which never sends UI events, is rendered without saving its window, so
+        // no session is created for it
+        initialUIRequest.savesWindow = !this.gazeUIWebConfig.getViewStateCodec().isPresent() &&
+                initialUIRequest.sessionWindow == null &&
+                (!enableGazeUIAnnotation.statelessPages() || window.requiresServerState());
+        
+        if (initialUIRequest.savesWindow && initialUIRequest.viewStateId == null) {
+            initialUIRequest.viewStateId = GazeUIController.createViewStateId(webRequest,
+                    this.gazeUIWebConfig.getViewStateRepository());
+        }
+        
+        return window;
+    }
+    
+    private RenderScriptWriter createWriter(boolean useDynamicImports) {
+        EnableGazeUI enableGazeUIAnnotation = this.gazeUIWebConfig.getEnableGazeUIAnnotation();
+        
+        return new RenderScriptWriter(useDynamicImports, enableGazeUIAnnotation.compactScripts(),
+                enableGazeUIAnnotation.parallelRendering() ? ForkJoinPool.commonPool() : null,
+                enableGazeUIAnnotation.preloadedRuntime());
+    }
+    
+    /**
+     * Keeps the rendered window, either by printing its view state to the writer or by saving it
+     * in the repository.
+     */
+    private void completeInitialUI(InitialUIRequest initialUIRequest, Window window,
+            RenderScriptWriter writer) {
+        Optional<SignedViewStateCodec> viewStateCodec = this.gazeUIWebConfig.getViewStateCodec();
+        
+        if (!window.isInInitialState()) {
+            // A page reloaded after some UI event shows the current state of the session window,
+            // so a new window can not take its place if it is lost
+            writer.importModule(GazeUIController.CORE_MODULE_NAME,
+                    GazeUIController.CORE_MODULE_PATH);
+            writer.format(writer.isCompact() ? "%s.setInitialState(false);" :
+                    "%s.setInitialState(false);\n", GazeUIController.CORE_MODULE_NAME);
+        }
+        
+        if (viewStateCodec.isPresent()) {
+            GazeUIController.renderViewState(writer, viewStateCodec.get(), window);
+        } else if (initialUIRequest.savesWindow) {
+            this.gazeUIWebConfig.getViewStateRepository().save(initialUIRequest.viewStateId, window);
+        }
     }
     
     @PostMapping(
             path = "/" + GazeUIController.PROCESS_SERVER_UI_EVENT_URL_PATH,
             consumes = MediaType.APPLICATION_JSON_VALUE,
-            produces = MediaTypeExtensions.TEXT_JAVASCRIPT_VALUE)
-    public String processServerUIEvent(@RequestBody ServerUIEventInfo serverUIEventInfo) {
-        Window previousViewStateWindow = this.viewStateWindow.clone();
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ServerUIEventResult processServerUIEvent(@RequestBody ServerUIEventInfo serverUIEventInfo,
+            WebRequest webRequest) {
+        Optional<SignedViewStateCodec> viewStateCodec = this.gazeUIWebConfig.getViewStateCodec();
+        ViewStateRepository viewStateRepository = this.gazeUIWebConfig.getViewStateRepository();
+        String viewStateId = null;
+        Window window;
         
-        this.viewStateWindow.processUIEvent(serverUIEventInfo.getControlId(),
-                serverUIEventInfo.getEventName());
+        if (viewStateCodec.isPresent()) {
+            if (serverUIEventInfo.getViewState() == null) {
+                throw new InvalidViewStateException("The view state is missing");
+            }
+            
+            window = viewStateCodec.get().decode(serverUIEventInfo.getViewState());
+        } else {
+            viewStateId = GazeUIController.getViewStateId(webRequest);
+            
+            if (viewStateId == null) {
+                viewStateId = GazeUIController.createViewStateId(webRequest, viewStateRepository);
+            }
+            
+            // The window is not found if the initial page was served from the cache or without
+            // any session, or if the session has expired or the repository has evicted it. A new
+            // window can only take its place while the page is still in its initial state,
+            // otherwise the page has to be reloaded.
+            Optional<Window> savedWindow = viewStateRepository.load(viewStateId);
+            
+            if (savedWindow.isPresent()) {
+                window = savedWindow.get();
+            } else if (serverUIEventInfo.isInitialState()) {
+                window = this.gazeUIWebConfig.createWindow();
+            } else {
+                throw new InvalidViewStateException("The view state has expired");
+            }
+        }
+        
+        Window previousViewStateWindow = window.clone();
+        
+        if (serverUIEventInfo.getEventArgument() != null) {
+            window.processUIEvent(serverUIEventInfo.getControlId(),
+                    serverUIEventInfo.getEventName(), serverUIEventInfo.getEventArgument());
+        } else {
+            window.processUIEvent(serverUIEventInfo.getControlId(),
+                    serverUIEventInfo.getEventName());
+        }
         
         // It was not possible to use this generated script as a JavaScript ES6 module:
         // 
@@ -163,21 +426,117 @@ public class GazeUIController {
         //     [5]: https://stackoverflow.com/questions/59941483/importing-nested-javascript-es6-modules-to-a-module-created-from-a-string-of-cod
         //     [6]: https://github.com/ModuleLoader/es-module-loader
         //     [7]: https://github.com/tc39/proposal-dynamic-import
-        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS);
-        this.viewStateWindow.renderUpdate(writer, previousViewStateWindow);
+        RenderScriptWriter writer = this.createWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS);
+        window.renderUpdate(writer, previousViewStateWindow);
         
-        if (!writer.isEmpty()) {
-            StringBuilder sbScript = new StringBuilder();
-            
-            // Here is not necessary to use a closure because this code will be already executed in
-            // a limited scope.
-            sbScript.append("'use strict';\n");
-            sbScript.append("\n");
-            sbScript.append(writer.toString());
-            
-            return sbScript.toString();
+        // The new view state is sent even if nothing has to be updated, because the state of the
+        // controls may have changed without affecting the client side
+        if (viewStateCodec.isPresent()) {
+            GazeUIController.renderViewState(writer, viewStateCodec.get(), window);
         } else {
-            return "";
+            viewStateRepository.save(viewStateId, window);
+        }
+        
+        if (writer.isEmpty()) {
+            return ServerUIEventResult.empty();
+        }
+        
+        // Consecutive events usually produce scripts with the same structure, differing only in
+        // the affected controls and in texts. Sending them as templates lets the client side
+        // compile each structure once and run it again with the new arguments.
+        ScriptTemplate template = ScriptTemplate.parse(writer.toString(),
+                window.getClientIdStrategy());
+        // Here is not necessary to use a closure because this code will be already executed in a
+        // limited scope.
+        String templateCode = "'use strict';\n\n" + template.getCode();
+        
+        // Without a session, there is no way to know which templates the page already has
+        if (viewStateCodec.isPresent() || serverUIEventInfo.getTemplateCacheId() == null) {
+            return ServerUIEventResult.of(template, templateCode, null);
         }
+        
+        long templateGeneration = GazeUIController.markUpdateTemplateSent(webRequest,
+                serverUIEventInfo.getTemplateCacheId(), template.getId());
+        
+        if (templateGeneration == SentUpdateTemplates.ALREADY_SENT) {
+            return ServerUIEventResult.of(template, null, null);
+        }
+        
+        return ServerUIEventResult.of(template, templateCode, templateGeneration);
+    }
+    
+    /**
+     * Rejects the events whose argument can not be read. The status is not one of the statuses
+     * that make the client side reload the page, since the view state is still valid.
+     */
+    @ExceptionHandler(InvalidEventArgumentException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public void handleInvalidEventArgument() {
+        // The status is the whole response
+    }
+    
+    /**
+     * Records in the session that the template was sent to the page.
+     * 
+     * @return the generation of the template cache of the page, or
+     *         {@link SentUpdateTemplates#ALREADY_SENT} if the page already has the template.
+     */
+    private static long markUpdateTemplateSent(WebRequest webRequest, String templateCacheId,
+            String templateId) {
+        SentUpdateTemplates sentUpdateTemplates = (SentUpdateTemplates)webRequest.getAttribute(
+                GazeUIController.SENT_UPDATE_TEMPLATES_SESSION_ATTRIBUTE_NAME,
+                RequestAttributes.SCOPE_SESSION);
+        
+        if (sentUpdateTemplates == null) {
+            sentUpdateTemplates = new SentUpdateTemplates();
+        }
+        
+        long templateGeneration = sentUpdateTemplates.add(templateCacheId, templateId);
+        
+        if (templateGeneration != SentUpdateTemplates.ALREADY_SENT) {
+            // Setting the attribute again tells distributed session stores that it has changed
+            webRequest.setAttribute(GazeUIController.SENT_UPDATE_TEMPLATES_SESSION_ATTRIBUTE_NAME,
+                    sentUpdateTemplates, RequestAttributes.SCOPE_SESSION);
+        }
+        
+        return templateGeneration;
+    }
+    
+    private static String getViewStateId(WebRequest webRequest) {
+        return (String)webRequest.getAttribute(GazeUIController.VIEW_STATE_ID_SESSION_ATTRIBUTE_NAME,
+                RequestAttributes.SCOPE_SESSION);
+    }
+    
+    private static String createViewStateId(WebRequest webRequest,
+            ViewStateRepository viewStateRepository) {
+        // Setting a session attribute creates the session if it does not exist yet
+        String viewStateId = UUID.randomUUID().toString();
+        webRequest.setAttribute(GazeUIController.VIEW_STATE_ID_SESSION_ATTRIBUTE_NAME, viewStateId,
+                RequestAttributes.SCOPE_SESSION);
+        
+        // The window is evicted when the session ends, whether invalidated or timed out
+        webRequest.registerDestructionCallback(GazeUIController.VIEW_STATE_ID_SESSION_ATTRIBUTE_NAME,
+                () -> viewStateRepository.evict(viewStateId), RequestAttributes.SCOPE_SESSION);
+        
+        return viewStateId;
+    }
+    
+    private static void renderViewState(RenderScriptWriter writer, SignedViewStateCodec viewStateCodec,
+            Window window) {
+        // The token only has Base64 URL safe characters and a dot, so it needs no escaping
+        writer.importModule(GazeUIController.CORE_MODULE_NAME, GazeUIController.CORE_MODULE_PATH);
+        writer.format(writer.isCompact() ? "%s.setViewState('%s');" : "%s.setViewState('%s');\n",
+                GazeUIController.CORE_MODULE_NAME, viewStateCodec.encode(window));
+    }
+    
+    /**
+     * What is known about a request for the initial UI before the window is rendered.
+     */
+    private static final class InitialUIRequest {
+        
+        private String viewStateId;
+        private Window sessionWindow;
+        private boolean cacheable;
+        private boolean savesWindow;
     }
 }
\ No newline at end of file
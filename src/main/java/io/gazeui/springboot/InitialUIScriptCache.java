@@ -0,0 +1,61 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot;
+
+import java.util.Arrays;
+
+import io.gazeui.DeterministicInitialRender;
+import io.gazeui.GazeUIException;
+
+/**
+ * The initial UI script of a page annotated with {@link DeterministicInitialRender}, shared by all
+ * the sessions.
+ * <p>
+ * A script is only shared after a second render, for another request, has produced the same bytes.
+ * This way a page wrongly annotated, whose output depends on the session, the user or the time, is
+ * detected before the output rendered for a session is served to the others.
+ */
+class InitialUIScriptCache {
+    
+    private final Class<?> pageClass;
+    // The first render, kept until a second one confirms it
+    private byte[] candidateScript;
+    private volatile byte[] script;
+    
+    InitialUIScriptCache(Class<?> pageClass) {
+        this.pageClass = pageClass;
+    }
+    
+    /**
+     * Returns the shared script, or null if it has not been confirmed yet.
+     */
+    byte[] getOrNull() {
+        return this.script;
+    }
+    
+    /**
+     * Offers a freshly rendered script to the cache.
+     *
+     * @throws GazeUIException if the script differs from the one rendered before, which means the
+     *         page is not deterministic
+     */
+    synchronized void offer(byte[] renderedScript) {
+        if (this.script != null) {
+            // Concurrent first requests may render the script more than once
+            return;
+        } else if (this.candidateScript == null) {
+            this.candidateScript = renderedScript;
+        } else if (Arrays.equals(this.candidateScript, renderedScript)) {
+            this.script = this.candidateScript;
+            this.candidateScript = null;
+        } else {
+            throw new GazeUIException(String.format("The page '%s' is annotated with " +
+                    "@DeterministicInitialRender, but its initial UI was rendered differently " +
+                    "for two requests. Remove the annotation or make the page constructor " +
+                    "depend only on data shared by all the sessions", this.pageClass.getName()));
+        }
+    }
+}
\ No newline at end of file
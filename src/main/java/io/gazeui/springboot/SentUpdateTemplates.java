@@ -0,0 +1,87 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The IDs of the update templates already sent to each page loaded in a session. Every page load
+ * has its own template cache on the client side, identified by a random ID, so a template sent to a
+ * tab is still sent in full to another one.
+ * <p>
+ * To keep the session small, only the most recently used caches are tracked and a cache starts over
+ * after holding too many templates. The server is the only one deciding when a cache starts over:
+ * each start gets a new generation, sent along with the template codes, and the client side drops
+ * its templates older than the previous generation once it receives a newer one. The previous
+ * generation is kept because the responses of concurrent events may still refer to it.
+ */
+class SentUpdateTemplates implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    static final int MAX_TRACKED_CACHES = 8;
+    static final int MAX_TEMPLATES_PER_CACHE = 1024;
+    
+    /**
+     * Returned by {@link #add(String, String)} when the cache already has the template. Every
+     * generation is greater than it.
+     */
+    static final long ALREADY_SENT = 0;
+    
+    private final Map<String, TemplateCache> cachesById =
+            new LinkedHashMap<String, TemplateCache>(16, 0.75f, true) {
+        
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TemplateCache> eldest) {
+            return this.size() > SentUpdateTemplates.MAX_TRACKED_CACHES;
+        }
+    };
+    // Shared by all the caches, so a forgotten cache that is tracked again gets a newer generation
+    private long lastGeneration;
+    
+    /**
+     * Records that the template was sent to the cache.
+     *
+     * @return the generation of the cache holding the template, or {@link #ALREADY_SENT} if the
+     *         cache already has the template, in which case only its ID and arguments have to be
+     *         sent.
+     */
+    public synchronized long add(String cacheId, String templateId) {
+        TemplateCache cache = this.cachesById.get(cacheId);
+        
+        if (cache != null && cache.templateIds.contains(templateId)) {
+            return SentUpdateTemplates.ALREADY_SENT;
+        }
+        
+        if (cache == null ||
+                cache.templateIds.size() >= SentUpdateTemplates.MAX_TEMPLATES_PER_CACHE) {
+            cache = new TemplateCache(++this.lastGeneration);
+            this.cachesById.put(cacheId, cache);
+        }
+        
+        cache.templateIds.add(templateId);
+        
+        return cache.generation;
+    }
+    
+    private static class TemplateCache implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final long generation;
+        private final Set<String> templateIds = new HashSet<>();
+        
+        TemplateCache(long generation) {
+            this.generation = generation;
+        }
+    }
+}
\ No newline at end of file
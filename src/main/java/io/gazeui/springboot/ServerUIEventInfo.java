@@ -9,6 +9,10 @@ class ServerUIEventInfo {
     
     private String controlId;
     private String eventName;
+    private String eventArgument;
+    private String viewState;
+    private String templateCacheId;
+    private boolean initialState;
     
     public String getControlId() {
         return this.controlId;
@@ -17,4 +21,33 @@ class ServerUIEventInfo {
     public String getEventName() {
         return this.eventName;
     }
+    
+    /**
+     * An optional argument sent along with the event, or null if the event has no argument.
+     */
+    public String getEventArgument() {
+        return this.eventArgument;
+    }
+    
+    /**
+     * The signed view state kept by the client, or null if the view state is kept by the server.
+     */
+    public String getViewState() {
+        return this.viewState;
+    }
+    
+    /**
+     * Identifies the update templates compiled by the page sending the event.
+     */
+    public String getTemplateCacheId() {
+        return this.templateCacheId;
+    }
+    
+    /**
+     * If the page sending the event still shows a window in its initial state, so a new window can
+     * take the place of a window the server no longer has.
+     */
+    public boolean isInitialState() {
+        return this.initialState;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.gazeui.ScriptTemplate;
+
+class ServerUIEventResult {
+    
+    private static final ServerUIEventResult EMPTY = new ServerUIEventResult(null, null, null,
+            Collections.emptyList());
+    
+    private final String templateId;
+    private final String templateCode;
+    private final Long templateGeneration;
+    private final List<Object> arguments;
+    
+    private ServerUIEventResult(String templateId, String templateCode, Long templateGeneration,
+            List<Object> arguments) {
+        this.templateId = templateId;
+        this.templateCode = templateCode;
+        this.templateGeneration = templateGeneration;
+        this.arguments = arguments;
+    }
+    
+    /**
+     * The result of an event that does not update the client side.
+     */
+    public static ServerUIEventResult empty() {
+        return ServerUIEventResult.EMPTY;
+    }
+    
+    /**
+     * The result of an event that updates the client side by running the template with its
+     * arguments. The code is only sent if the client side does not have the template yet.
+     */
+    public static ServerUIEventResult of(ScriptTemplate template, String templateCode,
+            Long templateGeneration) {
+        return new ServerUIEventResult(template.getId(), templateCode, templateGeneration,
+                template.getArguments());
+    }
+    
+    /**
+     * The ID of the update template, or null if nothing has to be updated.
+     */
+    public String getTemplateId() {
+        return this.templateId;
+    }
+    
+    /**
+     * The body of the async function implementing the template, or null if the client side has
+     * already compiled it.
+     */
+    public String getTemplateCode() {
+        return this.templateCode;
+    }
+    
+    /**
+     * The generation of the template cache of the page holding the template, or null if the code
+     * is not sent or the server does not track the templates of the page. Untracked templates are
+     * always sent with their code.
+     */
+    public Long getTemplateGeneration() {
+        return this.templateGeneration;
+    }
+    
+    public List<Object> getArguments() {
+        return this.arguments;
+    }
+}
\ No newline at end of file
@@ -13,6 +13,7 @@ import java.lang.annotation.Target;
 
 import org.springframework.context.annotation.Import;
 
+import io.gazeui.ClientIdStrategy;
 import io.gazeui.WebPage;
 import io.gazeui.springboot.configuration.WebConfiguration;
 
@@ -25,4 +26,61 @@ public @interface EnableGazeUI {
     Class<? extends WebPage> initialPage();
     
     String basePath() default "";
+    
+    ClientIdStrategy clientIdStrategy() default ClientIdStrategy.COMPACT;
+    
+    /**
+     * If the rendered scripts should be minified, importing aliased helper functions and creating
+     * repeated subtrees from templates. The readable scripts, easier to debug, are rendered by
+     * default.
+     */
+    boolean compactScripts() default false;
+    
+    /**
+     * If the initial page should be built only once, at startup, and copied for each new session
+     * instead of being constructed. See {@link io.gazeui.WebPagePrototype} for the requirements
+     * of the page.
+     */
+    boolean initialPagePrototype() default false;
+    
+    /**
+     * If an initial page that never sends UI events to the server, because none of its controls
+     * has event handlers, should be rendered without creating a session for the user. Each
+     * request for the initial UI of a new session then creates a page only to check whether it
+     * sends events, so this is worth enabling when most of the visitors see such pages.
+     */
+    boolean statelessPages() default false;
+    
+    /**
+     * If the view state should be kept by the clients instead of in the server sessions. The
+     * window is serialized, compressed and signed after each event and sent back by the client
+     * with the next one, so any server node can process it and no sticky sessions are needed.
+     * Every object reachable from the window must be serializable.
+     * <p>
+     * The signing key must be set in the {@code gazeui.view-state.secret-key} property, Base64
+     * encoded, and the maximum serialized size can be set in the {@code gazeui.view-state.max-size}
+     * property.
+     */
+    boolean clientViewState() default false;
+    
+    /**
+     * If the creation and the updates of large containers should be rendered in parallel, in the
+     * common fork/join pool. The rendered scripts are the same, so this only pays off for pages
+     * with thousands of controls, served with spare cores.
+     */
+    boolean parallelRendering() default false;
+    
+    /**
+     * If the initial UI should be streamed in chunks, one per top-level control of the initial
+     * page, which the client runs as they arrive instead of waiting for the whole script. The
+     * first controls of a large page are then shown while the server still renders the others.
+     */
+    boolean chunkedInitialUI() default false;
+    
+    /**
+     * If the pages should load, once, a bundle with the modules of all the controls, generated by
+     * the build. The scripts rendered for the UI events then take the modules from the bundle
+     * instead of importing each one of them asynchronously.
+     */
+    boolean preloadedRuntime() default false;
 }
\ No newline at end of file
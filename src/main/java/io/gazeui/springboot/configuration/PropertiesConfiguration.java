@@ -18,6 +18,17 @@ import org.springframework.core.env.MutablePropertySources;
 public class PropertiesConfiguration {
     
     public static final String PROPERTY_KEY_GAZEUI_BASE_PATH = "gazeui.base-path";
+    // The Base64 encoded key signing the view states kept by the clients, shared by all the nodes
+    public static final String PROPERTY_KEY_GAZEUI_VIEW_STATE_SECRET_KEY = "gazeui.view-state.secret-key";
+    // The maximum size, in bytes, of a serialized view state kept by the clients
+    public static final String PROPERTY_KEY_GAZEUI_VIEW_STATE_MAX_SIZE = "gazeui.view-state.max-size";
+    // The maximum retained size estimate, in bytes, of a window kept by the server. Unlimited if unset.
+    public static final String PROPERTY_KEY_GAZEUI_VIEW_STATE_MAX_RETAINED_SIZE =
+            "gazeui.view-state.max-retained-size";
+    // What is done with a window over the maximum retained size: REJECT (default), EVICT or
+    // PASSIVATE, which requires a PassivationViewStateRepository bean
+    public static final String PROPERTY_KEY_GAZEUI_VIEW_STATE_OVERFLOW_POLICY =
+            "gazeui.view-state.overflow-policy";
     private static final String PROPERTY_SOURCE_NAME = "localProperties";
     
     @Autowired
@@ -5,25 +5,40 @@
 
 package io.gazeui.springboot.configuration;
 
+import java.util.Base64;
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.context.annotation.SessionScope;
+import org.springframework.core.env.Environment;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import io.gazeui.WebPage;
+import io.gazeui.WebPagePrototype;
 import io.gazeui.Window;
 import io.gazeui.springboot.annotation.EnableGazeUI;
+import io.gazeui.springboot.viewstate.InMemoryViewStateRepository;
+import io.gazeui.springboot.viewstate.PassivationViewStateRepository;
+import io.gazeui.springboot.viewstate.SignedViewStateCodec;
+import io.gazeui.springboot.viewstate.SizeLimitedViewStateRepository;
+import io.gazeui.springboot.viewstate.ViewStateOverflowPolicy;
+import io.gazeui.springboot.viewstate.ViewStateRepository;
 
 @Configuration
 @ComponentScan("io.gazeui.springboot")
 public class WebConfiguration {
     
     private static final String CLASSPATH_STATIC_RESOURCE_LOCATION = "classpath:/static/";
+    private static final int DEFAULT_VIEW_STATE_MAX_SIZE = 256 * 1024;
     
     private final EnableGazeUI enableGazeUIAnnotation;
+    private final WebPagePrototype<? extends WebPage> initialPagePrototype;
+    private final SignedViewStateCodec viewStateCodec;
+    private final ViewStateRepository viewStateRepository;
     
     @Autowired
     public WebConfiguration(ApplicationContext applicationContext) {
@@ -31,12 +46,91 @@ public class WebConfiguration {
         String beanNameWithEnableGazeUI = applicationContext.getBeanNamesForAnnotation(EnableGazeUI.class)[0];
         this.enableGazeUIAnnotation = applicationContext.findAnnotationOnBean(
                 beanNameWithEnableGazeUI, EnableGazeUI.class);
+        
+        this.initialPagePrototype = this.enableGazeUIAnnotation.initialPagePrototype() ?
+                new WebPagePrototype<>(this.enableGazeUIAnnotation.initialPage()) : null;
+        
+        this.viewStateCodec = this.enableGazeUIAnnotation.clientViewState() ?
+                WebConfiguration.createViewStateCodec(applicationContext.getEnvironment()) : null;
+        
+        // The passivation repository only keeps the windows over the limit
+        this.viewStateRepository = WebConfiguration.createViewStateRepository(
+                applicationContext.getBeanProvider(ViewStateRepository.class).stream()
+                        .filter(bean -> !(bean instanceof PassivationViewStateRepository))
+                        .findFirst()
+                        .orElseGet(InMemoryViewStateRepository::new),
+                applicationContext);
+    }
+    
+    private static ViewStateRepository createViewStateRepository(ViewStateRepository repository,
+            ApplicationContext applicationContext) {
+        Environment environment = applicationContext.getEnvironment();
+        Long maxRetainedSize = environment.getProperty(
+                PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_MAX_RETAINED_SIZE, Long.class);
+        
+        if (maxRetainedSize == null) {
+            return repository;
+        }
+        
+        ViewStateOverflowPolicy overflowPolicy = environment.getProperty(
+                PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_OVERFLOW_POLICY,
+                ViewStateOverflowPolicy.class, ViewStateOverflowPolicy.REJECT);
+        
+        if (overflowPolicy != ViewStateOverflowPolicy.PASSIVATE) {
+            return new SizeLimitedViewStateRepository(repository, maxRetainedSize, overflowPolicy);
+        }
+        
+        // The windows over the limit must not be kept in the heap, so no default is provided
+        PassivationViewStateRepository passivationRepository = applicationContext
+                .getBeanProvider(PassivationViewStateRepository.class).getIfAvailable();
+        
+        if (passivationRepository == null) {
+            throw new IllegalStateException(String.format(
+                    "A %s bean must be declared when the '%s' property is %s",
+                    PassivationViewStateRepository.class.getSimpleName(),
+                    PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_OVERFLOW_POLICY,
+                    ViewStateOverflowPolicy.PASSIVATE));
+        }
+        
+        return new SizeLimitedViewStateRepository(repository, maxRetainedSize, overflowPolicy,
+                passivationRepository);
+    }
+    
+    private static SignedViewStateCodec createViewStateCodec(Environment environment) {
+        String secretKey = environment.getProperty(
+                PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_SECRET_KEY);
+        
+        if (secretKey == null) {
+            throw new IllegalStateException(String.format(
+                    "The '%s' property must be set when the view state is kept by the clients",
+                    PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_SECRET_KEY));
+        }
+        
+        int maxSize = environment.getProperty(PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_MAX_SIZE,
+                Integer.class, WebConfiguration.DEFAULT_VIEW_STATE_MAX_SIZE);
+        
+        return new SignedViewStateCodec(Base64.getDecoder().decode(secretKey), maxSize);
     }
     
     public EnableGazeUI getEnableGazeUIAnnotation() {
         return this.enableGazeUIAnnotation;
     }
     
+    /**
+     * The codec of the view states kept by the clients, present only if this mode is enabled.
+     */
+    public Optional<SignedViewStateCodec> getViewStateCodec() {
+        return Optional.ofNullable(this.viewStateCodec);
+    }
+    
+    /**
+     * The repository of the windows kept by the server, which is not used when the view state is
+     * kept by the clients.
+     */
+    public ViewStateRepository getViewStateRepository() {
+        return this.viewStateRepository;
+    }
+    
     @Bean
     public WebMvcConfigurer webMvcConfigurer() {
         return new WebMvcConfigurer() {
@@ -50,9 +144,16 @@ public class WebConfiguration {
         };
     }
     
-    @Bean
-    @SessionScope
-    public Window window() {
-        return Window.createInstance(this.enableGazeUIAnnotation.initialPage());
+    /**
+     * Creates a new window with the initial page, as the one created for each session.
+     */
+    public Window createWindow() {
+        Window window = this.initialPagePrototype != null ?
+                Window.createInstance(this.initialPagePrototype) :
+                Window.createInstance(this.enableGazeUIAnnotation.initialPage());
+        
+        window.setClientIdStrategy(this.enableGazeUIAnnotation.clientIdStrategy());
+        
+        return window;
     }
 }
\ No newline at end of file
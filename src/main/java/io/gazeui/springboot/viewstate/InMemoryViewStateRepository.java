@@ -0,0 +1,43 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.gazeui.Window;
+
+/**
+ * Keeps the windows themselves in the memory of the application, as the server sessions do. A
+ * loaded window is the saved instance, so its changes are kept even before it is saved again.
+ */
+public class InMemoryViewStateRepository implements ViewStateRepository {
+    
+    private final Map<String, Window> windowsById = new ConcurrentHashMap<>();
+    
+    @Override
+    public Optional<Window> load(String viewStateId) {
+        return Optional.ofNullable(this.windowsById.get(viewStateId));
+    }
+    
+    @Override
+    public void save(String viewStateId, Window window) {
+        this.windowsById.put(viewStateId, window);
+    }
+    
+    @Override
+    public void evict(String viewStateId) {
+        this.windowsById.remove(viewStateId);
+    }
+    
+    /**
+     * The number of windows currently kept.
+     */
+    public int size() {
+        return this.windowsById.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import io.gazeui.GazeUIException;
+
+/**
+ * Thrown when a view state sent by the client is missing, too large, tampered with or can not be
+ * read by the current version of the application. The client has to reload the page.
+ */
+@SuppressWarnings("serial")
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidViewStateException extends GazeUIException {
+    
+    public InvalidViewStateException(String message) {
+        super(message);
+    }
+    
+    public InvalidViewStateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
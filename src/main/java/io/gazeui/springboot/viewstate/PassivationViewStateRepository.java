@@ -0,0 +1,18 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+/**
+ * Keeps the windows passivated by a {@link SizeLimitedViewStateRepository} with the
+ * {@link ViewStateOverflowPolicy#PASSIVATE} policy. Such a repository should keep the windows
+ * outside the heap, like an external key-value store does, because they are the ones too large to
+ * be kept in it.
+ * <p>
+ * A bean of this type is required when the policy is set by the properties. It is never used as
+ * the repository of the windows within the limit.
+ */
+public interface PassivationViewStateRepository extends ViewStateRepository {
+}
\ No newline at end of file
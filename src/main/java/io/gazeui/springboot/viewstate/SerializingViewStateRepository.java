@@ -0,0 +1,71 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.gazeui.GazeUIException;
+import io.gazeui.Window;
+
+/**
+ * Keeps the windows serialized, as an embedded or external key-value store would. It stands in for
+ * such stores when developing and benchmarking: each load deserializes a new copy of the window, so
+ * its changes are only kept when it is saved again, and every object reachable from the window
+ * must be serializable.
+ */
+public class SerializingViewStateRepository implements ViewStateRepository {
+    
+    private final Map<String, byte[]> serializedWindowsById = new ConcurrentHashMap<>();
+    
+    @Override
+    public Optional<Window> load(String viewStateId) {
+        byte[] serializedWindow = this.serializedWindowsById.get(viewStateId);
+        
+        if (serializedWindow == null) {
+            return Optional.empty();
+        }
+        
+        try (ObjectInputStream objectInput = new ObjectInputStream(
+                new ByteArrayInputStream(serializedWindow))) {
+            return Optional.of((Window)objectInput.readObject());
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new GazeUIException("Could not deserialize the view state", ex);
+        }
+    }
+    
+    @Override
+    public void save(String viewStateId, Window window) {
+        ByteArrayOutputStream serializedWindow = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(serializedWindow)) {
+            objectOutput.writeObject(window);
+        } catch (IOException ex) {
+            // Thrown when the window has some object that is not serializable
+            throw new GazeUIException("Could not serialize the view state", ex);
+        }
+        
+        this.serializedWindowsById.put(viewStateId, serializedWindow.toByteArray());
+    }
+    
+    @Override
+    public void evict(String viewStateId) {
+        this.serializedWindowsById.remove(viewStateId);
+    }
+    
+    /**
+     * The number of windows currently kept.
+     */
+    public int size() {
+        return this.serializedWindowsById.size();
+    }
+}
\ No newline at end of file
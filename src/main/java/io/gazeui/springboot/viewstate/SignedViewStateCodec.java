@@ -0,0 +1,227 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import io.gazeui.GazeUIException;
+import io.gazeui.Window;
+
+/**
+ * Turns a window into a compact token that can be kept by the client and sent back with the next
+ * event, so any server node can process it. The window is serialized, compressed and signed with
+ * an HMAC, so a token can only be read back if it was created with the same secret key and was
+ * not changed.
+ * <p>
+ * The serialized size of a window is limited. Encoding a larger window fails with a
+ * {@link GazeUIException}, and tokens that could only come from a larger window are rejected
+ * before being verified, so clients can not make the server inflate arbitrarily large data.
+ */
+public final class SignedViewStateCodec {
+    
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_KEY_LENGTH = 32;
+    private static final char SIGNATURE_SEPARATOR = '.';
+    
+    private static final Base64.Encoder base64Encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder base64Decoder = Base64.getUrlDecoder();
+    
+    private final SecretKeySpec secretKey;
+    private final int maxSerializedSize;
+    private final int maxTokenLength;
+    // Mac instances are not thread safe and are costly to create, so each thread keeps its own
+    private final ThreadLocal<Mac> macs;
+    
+    /**
+     * @param secretKey the key used to sign the tokens, with at least 32 bytes. All the server
+     *        nodes must use the same key.
+     * @param maxSerializedSize the maximum size, in bytes, of a serialized window
+     */
+    public SignedViewStateCodec(byte[] secretKey, int maxSerializedSize) {
+        if (secretKey.length < MIN_SECRET_KEY_LENGTH) {
+            throw new IllegalArgumentException(String.format(
+                    "The view state secret key must have at least %d bytes", MIN_SECRET_KEY_LENGTH));
+        }
+        
+        this.secretKey = new SecretKeySpec(secretKey, HMAC_ALGORITHM);
+        this.maxSerializedSize = maxSerializedSize;
+        
+        // Deflate may grow incompressible data a little, by 5 bytes for each block of 16 KB
+        int maxPayloadSize = maxSerializedSize + (maxSerializedSize >> 12) + 64;
+        int signatureLength = SignedViewStateCodec.base64Length(this.createMac().getMacLength());
+        this.maxTokenLength = SignedViewStateCodec.base64Length(maxPayloadSize) + 1 + signatureLength;
+        
+        this.macs = ThreadLocal.withInitial(this::createMac);
+    }
+    
+    private static int base64Length(int byteCount) {
+        return (byteCount * 4 + 2) / 3;
+    }
+    
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(this.secretKey);
+            
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            // Every Java platform supports HmacSHA256
+            throw new GazeUIException("Unexpected error creating the view state signer", ex);
+        }
+    }
+    
+    public int getMaxSerializedSize() {
+        return this.maxSerializedSize;
+    }
+    
+    public String encode(Window window) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        // The fastest compression level, because a token is created for every event
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(new SizeLimitedOutputStream(
+                new DeflaterOutputStream(payload, deflater), this.maxSerializedSize))) {
+            objectOutput.writeObject(window);
+        } catch (IOException ex) {
+            // Thrown when the window has some object that is not serializable or is too large
+            throw new GazeUIException("Could not serialize the view state", ex);
+        } finally {
+            deflater.end();
+        }
+        
+        byte[] payloadBytes = payload.toByteArray();
+        byte[] signature = this.macs.get().doFinal(payloadBytes);
+        
+        return base64Encoder.encodeToString(payloadBytes) + SIGNATURE_SEPARATOR +
+                base64Encoder.encodeToString(signature);
+    }
+    
+    public Window decode(String token) {
+        if (token.length() > this.maxTokenLength) {
+            throw new InvalidViewStateException("The view state is too large");
+        }
+        
+        int separatorIndex = token.lastIndexOf(SIGNATURE_SEPARATOR);
+        byte[] payloadBytes;
+        byte[] signature;
+        
+        try {
+            payloadBytes = base64Decoder.decode(token.substring(0, Math.max(separatorIndex, 0)));
+            signature = base64Decoder.decode(token.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidViewStateException("The view state is malformed", ex);
+        }
+        
+        // A constant time comparison, so the time taken does not tell how much of a forged
+        // signature is right
+        if (separatorIndex < 0 ||
+                !MessageDigest.isEqual(signature, this.macs.get().doFinal(payloadBytes))) {
+            throw new InvalidViewStateException("The view state signature is invalid");
+        }
+        
+        Inflater inflater = new Inflater();
+        
+        try (ObjectInputStream objectInput = new ObjectInputStream(new SizeLimitedInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(payloadBytes), inflater),
+                this.maxSerializedSize))) {
+            return (Window)objectInput.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            // A signed view state may still be unreadable if it was created by another version of
+            // the application
+            throw new InvalidViewStateException("Could not deserialize the view state", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private static class SizeLimitedOutputStream extends FilterOutputStream {
+        
+        private long remainingSize;
+        
+        public SizeLimitedOutputStream(OutputStream out, long maxSize) {
+            super(out);
+            this.remainingSize = maxSize;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            this.consume(1);
+            this.out.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.consume(len);
+            this.out.write(b, off, len);
+        }
+        
+        private void consume(int size) throws IOException {
+            this.remainingSize -= size;
+            
+            if (this.remainingSize < 0) {
+                throw new IOException("The view state exceeds the maximum size");
+            }
+        }
+    }
+    
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        
+        private long remainingSize;
+        
+        public SizeLimitedInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.remainingSize = maxSize;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = this.in.read();
+            
+            if (b != -1) {
+                this.consume(1);
+            }
+            
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int readCount = this.in.read(b, off, len);
+            
+            if (readCount > 0) {
+                this.consume(readCount);
+            }
+            
+            return readCount;
+        }
+        
+        private void consume(int size) throws IOException {
+            this.remainingSize -= size;
+            
+            if (this.remainingSize < 0) {
+                throw new IOException("The view state exceeds the maximum size");
+            }
+        }
+    }
+}
\ No newline at end of file
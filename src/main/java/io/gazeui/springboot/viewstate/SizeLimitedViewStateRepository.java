@@ -0,0 +1,144 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.gazeui.Window;
+
+/**
+ * Limits the retained size of each window kept by another repository, using the estimate kept by
+ * the controls, and sums up the sizes of all the windows it keeps. A window saved over the limit is
+ * handled by the {@link ViewStateOverflowPolicy}, so a single runaway page can not exhaust the heap.
+ */
+public class SizeLimitedViewStateRepository implements ViewStateRepository {
+    
+    private final ViewStateRepository repository;
+    private final long maxRetainedSize;
+    private final ViewStateOverflowPolicy overflowPolicy;
+    private final ViewStateRepository passivationRepository;
+    private final Map<String, Long> retainedSizesById = new ConcurrentHashMap<>();
+    private final AtomicLong totalRetainedSize = new AtomicLong();
+    
+    /**
+     * Creates a repository whose policy does not passivate the windows.
+     * 
+     * @throws IllegalArgumentException if the policy is {@link ViewStateOverflowPolicy#PASSIVATE}
+     */
+    public SizeLimitedViewStateRepository(ViewStateRepository repository, long maxRetainedSize,
+            ViewStateOverflowPolicy overflowPolicy) {
+        this(repository, maxRetainedSize, overflowPolicy, null);
+    }
+    
+    /**
+     * @param repository the repository that keeps the windows within the limit
+     * @param maxRetainedSize the maximum retained size estimate, in bytes, of a window
+     * @param overflowPolicy what is done with a window saved over the limit
+     * @param passivationRepository the repository that keeps the windows over the limit when the
+     *        policy is {@link ViewStateOverflowPolicy#PASSIVATE}, ideally outside the heap, or null
+     *        for the other policies
+     * @throws IllegalArgumentException if the policy is {@link ViewStateOverflowPolicy#PASSIVATE}
+     *         and there is no passivation repository
+     */
+    public SizeLimitedViewStateRepository(ViewStateRepository repository, long maxRetainedSize,
+            ViewStateOverflowPolicy overflowPolicy, ViewStateRepository passivationRepository) {
+        if (maxRetainedSize <= 0) {
+            throw new IllegalArgumentException("The maximum retained size must be positive");
+        } else if (overflowPolicy == ViewStateOverflowPolicy.PASSIVATE &&
+                passivationRepository == null) {
+            throw new IllegalArgumentException(
+                    "The PASSIVATE policy requires a repository for the passivated windows");
+        }
+        
+        this.repository = Objects.requireNonNull(repository);
+        this.maxRetainedSize = maxRetainedSize;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.passivationRepository = passivationRepository;
+    }
+    
+    public long getMaxRetainedSize() {
+        return this.maxRetainedSize;
+    }
+    
+    public ViewStateOverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+    
+    /**
+     * The sum of the retained size estimates, in bytes, of the windows kept within the limit, as of
+     * their last save. Passivated windows are not included, because the passivation repository
+     * should keep them outside the heap.
+     */
+    public long getTotalRetainedSize() {
+        return this.totalRetainedSize.get();
+    }
+    
+    @Override
+    public Optional<Window> load(String viewStateId) {
+        Optional<Window> window = this.repository.load(viewStateId);
+        
+        if (!window.isPresent() && this.overflowPolicy == ViewStateOverflowPolicy.PASSIVATE) {
+            window = this.passivationRepository.load(viewStateId);
+        }
+        
+        return window;
+    }
+    
+    @Override
+    public void save(String viewStateId, Window window) {
+        long retainedSize = window.getRetainedSizeEstimate();
+        
+        if (retainedSize <= this.maxRetainedSize) {
+            this.repository.save(viewStateId, window);
+            this.setRetainedSize(viewStateId, retainedSize);
+            
+            if (this.overflowPolicy == ViewStateOverflowPolicy.PASSIVATE) {
+                this.passivationRepository.evict(viewStateId);
+            }
+            
+            return;
+        }
+        
+        this.repository.evict(viewStateId);
+        this.setRetainedSize(viewStateId, 0);
+        
+        switch (this.overflowPolicy) {
+            case REJECT:
+                throw new ViewStateSizeExceededException(String.format(
+                        "The view state has an estimated size of %d bytes, over the limit of %d bytes",
+                        retainedSize, this.maxRetainedSize));
+            case PASSIVATE:
+                this.passivationRepository.save(viewStateId, window);
+                break;
+            default:
+                // The window was already evicted
+                break;
+        }
+    }
+    
+    @Override
+    public void evict(String viewStateId) {
+        this.repository.evict(viewStateId);
+        this.setRetainedSize(viewStateId, 0);
+        
+        if (this.overflowPolicy == ViewStateOverflowPolicy.PASSIVATE) {
+            this.passivationRepository.evict(viewStateId);
+        }
+    }
+    
+    private void setRetainedSize(String viewStateId, long retainedSize) {
+        Long previousRetainedSize = retainedSize != 0 ?
+                this.retainedSizesById.put(viewStateId, retainedSize) :
+                this.retainedSizesById.remove(viewStateId);
+        
+        this.totalRetainedSize.addAndGet(
+                retainedSize - (previousRetainedSize != null ? previousRetainedSize : 0));
+    }
+}
\ No newline at end of file
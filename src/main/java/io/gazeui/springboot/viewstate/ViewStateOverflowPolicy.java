@@ -0,0 +1,33 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+/**
+ * What a {@link SizeLimitedViewStateRepository} does with a window whose retained size estimate
+ * exceeds the limit when it is saved.
+ */
+public enum ViewStateOverflowPolicy {
+    
+    /**
+     * The window is evicted and the request fails with a {@link ViewStateSizeExceededException}, so
+     * the changes made by the event are never shown and the page is reloaded with a new window.
+     */
+    REJECT,
+    
+    /**
+     * The window is evicted, but the request succeeds. As when the session expires, the next event
+     * of the page asks it to reload, which starts over with a new window.
+     */
+    EVICT,
+    
+    /**
+     * The window is moved to the passivation repository, which keeps it serialized outside the
+     * heap, and is loaded from there by the next requests. It is moved back when a later save fits
+     * in the limit again. When the policy is set by the properties, a
+     * {@link PassivationViewStateRepository} bean is required.
+     */
+    PASSIVATE
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import java.util.Optional;
+
+import io.gazeui.Window;
+
+/**
+ * Keeps the windows of the users between their requests when the view state is kept by the
+ * server. Each window is identified by a view state ID, which is kept in the session of its user,
+ * so the repository can store the windows wherever it suits the application: on the heap, off the
+ * heap, in a bounded cache or replicated among the nodes.
+ * <p>
+ * The windows are kept in an {@link InMemoryViewStateRepository} by default. Declare a bean of this
+ * type to use another repository. Implementations must be thread safe.
+ */
+public interface ViewStateRepository {
+    
+    /**
+     * Returns the window saved with the given ID, or an empty optional if there is none, because
+     * it was never saved or it was evicted.
+     */
+    Optional<Window> load(String viewStateId);
+    
+    /**
+     * Saves the window with the given ID, replacing the one previously saved with it. This is
+     * called after each event processed by the window, so a repository that keeps copies of the
+     * windows also keeps their changes.
+     */
+    void save(String viewStateId, Window window);
+    
+    /**
+     * Removes the window saved with the given ID, if any. This is called when the session of its
+     * user ends.
+     */
+    void evict(String viewStateId);
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import io.gazeui.GazeUIException;
+
+/**
+ * Thrown when a window exceeds the size limit of the view state repository and the overflow policy
+ * is {@link ViewStateOverflowPolicy#REJECT}. The window was evicted, so the client has to reload
+ * the page.
+ */
+@SuppressWarnings("serial")
+@ResponseStatus(HttpStatus.INSUFFICIENT_STORAGE)
+public class ViewStateSizeExceededException extends GazeUIException {
+    
+    public ViewStateSizeExceededException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
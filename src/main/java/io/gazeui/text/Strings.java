@@ -22,4 +22,66 @@ public final class Strings {
             return true;
         }
     }
+    
+    /**
+     * Returns the string itself, or an empty string if it is null.
+     */
+    public static String nullToEmpty(String str) {
+        return str != null ? str : "";
+    }
+    
+    /**
+     * Escapes the string to be the content of a JavaScript string literal, delimited by single or
+     * double quotes. Line terminators and other control characters are escaped as well, since they
+     * are not allowed unescaped inside a literal.
+     */
+    public static String escapeJavaScript(String str) {
+        int firstEscapeIndex = 0;
+        
+        while (firstEscapeIndex < str.length() &&
+                !Strings.requiresJavaScriptEscape(str.charAt(firstEscapeIndex))) {
+            firstEscapeIndex++;
+        }
+        
+        if (firstEscapeIndex == str.length()) {
+            return str;
+        }
+        
+        StringBuilder sbEscaped = new StringBuilder(str.length() + 16);
+        sbEscaped.append(str, 0, firstEscapeIndex);
+        
+        for (int i = firstEscapeIndex; i < str.length(); i++) {
+            char c = str.charAt(i);
+            
+            switch (c) {
+                case '\\':
+                case '\'':
+                case '"':
+                    sbEscaped.append('\\').append(c);
+                    break;
+                case '\n':
+                    sbEscaped.append("\\n");
+                    break;
+                case '\r':
+                    sbEscaped.append("\\r");
+                    break;
+                case '\t':
+                    sbEscaped.append("\\t");
+                    break;
+                default:
+                    if (Strings.requiresJavaScriptEscape(c)) {
+                        sbEscaped.append(String.format("\\u%04X", (int)c));
+                    } else {
+                        sbEscaped.append(c);
+                    }
+            }
+        }
+        
+        return sbEscaped.toString();
+    }
+    
+    private static boolean requiresJavaScriptEscape(char c) {
+        // The line and paragraph separators end a string literal before ES2019
+        return c < ' ' || c == '\\' || c == '\'' || c == '"' || c == '\u2028' || c == '\u2029';
+    }
 }
\ No newline at end of file
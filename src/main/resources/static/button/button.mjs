@@ -5,6 +5,12 @@
 
 import * as GazeUICore from '../gazeui-core.mjs';
 
+// Options shared by all the click listeners added through the compact mode helper functions
+const clickListenerOptions = {
+    capture: false,
+    passive: true
+};
+
 // We have to observe two special cases when dealing with event handlers and nested controls:
 // 
 //   1. If there is one ancestor control with an event handler and one descendant without it,
@@ -22,4 +28,38 @@ export async function onClickHandler(mouseEvent) {
         mouseEvent.stopImmediatePropagation();
         await GazeUICore.processServerUIEvent(mouseEvent.target.id, 'Click');
     }
+}
+
+// The rate limited listeners added to each element, kept to be removed later
+const rateLimitedClickListeners = new WeakMap();
+
+// If a rate policy is given, the clicks are sent to the server limited by it. See the
+// 'applyRatePolicy' function of the GazeUI core module.
+export function addClickListener(element, ratePolicy, delay) {
+    if (ratePolicy === undefined) {
+        element.addEventListener('click', onClickHandler, clickListenerOptions);
+        return;
+    }
+    
+    let processClickEvent = GazeUICore.applyRatePolicy(function(controlId) {
+        return GazeUICore.processServerUIEvent(controlId, 'Click');
+    }, ratePolicy, delay);
+    
+    // The event is checked at once, because it can not be used after being dispatched
+    let rateLimitedClickListener = function(mouseEvent) {
+        if (mouseEvent.target == mouseEvent.currentTarget) {
+            mouseEvent.stopImmediatePropagation();
+            return processClickEvent(mouseEvent.target.id);
+        }
+    };
+    
+    rateLimitedClickListeners.set(element, rateLimitedClickListener);
+    element.addEventListener('click', rateLimitedClickListener, clickListenerOptions);
+}
+
+export function removeClickListener(element) {
+    let clickListener = rateLimitedClickListeners.get(element) || onClickHandler;
+    
+    rateLimitedClickListeners.delete(element);
+    element.removeEventListener('click', clickListener, clickListenerOptions);
 }
\ No newline at end of file
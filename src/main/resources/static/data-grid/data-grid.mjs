@@ -0,0 +1,59 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+// The cells of a data grid have no IDs. They are reached by their row and column indexes through
+// the 'rows' and 'cells' collections of the table.
+
+export function createDataGrid(id, columnHeaders, rows) {
+    let table = document.createElement('table');
+    table.id = id;
+    
+    let headerRow = table.createTHead().insertRow();
+    
+    for (let i = 0; i < columnHeaders.length; i++) {
+        let headerCell = document.createElement('th');
+        headerCell.textContent = columnHeaders[i];
+        headerRow.appendChild(headerCell);
+    }
+    
+    table.createTBody();
+    appendRows(table, rows);
+    
+    return table;
+}
+
+export function appendRows(table, rows) {
+    let fragment = document.createDocumentFragment();
+    
+    for (let i = 0; i < rows.length; i++) {
+        let row = document.createElement('tr');
+        
+        for (let j = 0; j < rows[i].length; j++) {
+            row.insertCell().textContent = rows[i][j];
+        }
+        
+        fragment.appendChild(row);
+    }
+    
+    table.tBodies[0].appendChild(fragment);
+}
+
+// Removes all the rows from the given index to the end
+export function removeRows(table, fromRowIndex) {
+    let bodyRows = table.tBodies[0].rows;
+    
+    while (bodyRows.length > fromRowIndex) {
+        bodyRows[bodyRows.length - 1].remove();
+    }
+}
+
+// The patches are given as a flat array of triples: row index, column index and text
+export function setCells(table, cellPatches) {
+    let bodyRows = table.tBodies[0].rows;
+    
+    for (let i = 0; i < cellPatches.length; i += 3) {
+        bodyRows[cellPatches[i]].cells[cellPatches[i + 1]].textContent = cellPatches[i + 2];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+import * as GazeUICore from '../gazeui-core.mjs';
+
+// Distance from the viewport at which a container triggered by visibility is materialized, so its
+// children are usually in place before they are scrolled into view
+const visibleTriggerRootMargin = '200px';
+
+// Maximum time, in milliseconds, that a container triggered by idleness waits for the browser to
+// be idle
+const idleTriggerTimeout = 2000;
+
+// Asks the server for the children of the container when the trigger fires. Browsers without the
+// IntersectionObserver or the requestIdleCallback APIs materialize the container right after the
+// page is created.
+export function addMaterializeTrigger(element, trigger) {
+    let materialize = function() {
+        return GazeUICore.processServerUIEvent(element.id, 'Materialize');
+    };
+    
+    if (trigger === 'visible' && 'IntersectionObserver' in window) {
+        // The element is still detached when it is created, but it is observed once attached
+        let observer = new IntersectionObserver(function(entries) {
+            if (entries.some(entry => entry.isIntersecting)) {
+                observer.disconnect();
+                materialize();
+            }
+        }, { rootMargin: visibleTriggerRootMargin });
+        
+        observer.observe(element);
+    } else if ('requestIdleCallback' in window) {
+        requestIdleCallback(materialize, { timeout: idleTriggerTimeout });
+    } else {
+        setTimeout(materialize, 0);
+    }
+}
\ No newline at end of file
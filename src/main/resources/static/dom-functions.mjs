@@ -7,6 +7,19 @@ export function clearCurrentWebPage() {
     clearNodeContents(document.body);
 }
 
+// Inserts all the nodes before the reference node at once, using a document fragment. Doing that,
+// the live DOM tree is changed only once, instead of once per node, avoiding unnecessary style and
+// layout work. If the reference node is null, the nodes are inserted at the end of the parent node.
+export function insertAllBefore(parentNode, newNodes, referenceNode) {
+    let fragment = document.createDocumentFragment();
+    
+    for (let i = 0; i < newNodes.length; i++) {
+        fragment.appendChild(newNodes[i]);
+    }
+    
+    parentNode.insertBefore(fragment, referenceNode);
+}
+
 function clearNodeContents(node) {
     // The 'remove', 'remove first child' and 'remove last child' methods have similar performance.
     // See the links below for details:
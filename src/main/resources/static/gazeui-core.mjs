@@ -3,10 +3,105 @@
 // Licensed under the MIT license. See LICENSE file in the project root for full license information.
 //
 
-export async function processServerUIEvent(controlId, eventName) {
+// The signed view state sent by the server when it does not keep the view state in the session
+let viewState;
+// If the page still shows a window in its initial state. While it does, the server can replace a
+// window it no longer has by a new one, instead of asking the page to reload.
+let initialState = true;
+// The bundle with all the modules, when the page preloads it. Scripts run by this module receive it
+// as the 'GazeUIRuntime' parameter, so they take the modules from it without importing them.
+let runtime;
+// Settled once all the chunks of the initial UI have been run. Events wait for it, because the
+// server only saves the window after sending the last chunk.
+let initialUICreation = Promise.resolve();
+// The update templates compiled by this page, by ID, with the generation of the server cache that
+// sent them. The server keeps track of the templates sent to this page through the cache ID and,
+// after sending a template, only sends its ID and arguments. It is the only one deciding when the
+// cache starts over, by sending a newer generation, so the templates older than the previous
+// generation are dropped, keeping the ones that responses of concurrent events may still use.
+let compiledUpdateTemplates = new Map();
+let updateTemplateCacheId = Math.random().toString(36).substring(2) + Date.now().toString(36);
+let updateTemplateGeneration = 0;
+// The templates of a server that does not track them, as when the view state is kept here. They
+// always come with their code, so they are dropped at any time.
+let untrackedUpdateTemplates = new Map();
+const MAX_UNTRACKED_UPDATE_TEMPLATES = 1024;
+// A response may only have the ID of a template whose code is in the response of a concurrent
+// event, so it waits for that response while there are events in flight
+let templateWaiters = new Map();
+let eventsInFlight = 0;
+// The statuses of the event responses telling that the view state of the page is invalid or was
+// lost by the server, as when the session expires, so the page has to be reloaded
+const RELOAD_STATUSES = [400, 507];
+const RELOAD_REQUIRED_EVENT_NAME = 'gazeui:reloadrequired';
+
+export function setViewState(newViewState) {
+    viewState = newViewState;
+}
+
+export function setInitialState(newInitialState) {
+    initialState = newInitialState;
+}
+
+// Called by the bundle once it is loaded
+export function setRuntime(newRuntime) {
+    runtime = newRuntime;
+}
+
+// Creates the initial UI from a script streamed in chunks, running each chunk as soon as it has
+// completely arrived, so the first controls are shown while the server still renders the others.
+// Each chunk is preceded by its length, in UTF-16 code units, and a colon.
+export function createInitialUIInChunks(url) {
+    initialUICreation = runChunksFromStream(url);
+    
+    return initialUICreation;
+}
+
+async function runChunksFromStream(url) {
+    let response = await fetch(url);
+    
+    // The body of a failed response is not a chunked script. The page is not reloaded, because that
+    // would request the same initial UI again.
+    if (!response.ok) {
+        throw new Error(`The initial UI failed with status ${response.status}`);
+    }
+    
+    let reader = response.body.getReader();
+    let utf8Decoder = new TextDecoder();
+    let nextChunk;
+    
+    let pendingText = '';
+    
+    while (!(nextChunk = await reader.read()).done) {
+        // The stream option keeps the bytes of a character split between two network chunks
+        pendingText += utf8Decoder.decode(nextChunk.value, { stream: true });
+        
+        let separatorIndex;
+        
+        while ((separatorIndex = pendingText.indexOf(':')) !== -1) {
+            let chunkEnd = separatorIndex + 1 + parseInt(pendingText.substring(0, separatorIndex));
+            
+            if (pendingText.length < chunkEnd) {
+                break;
+            }
+            
+            await executeJavaScriptCodeAsync(pendingText.substring(separatorIndex + 1, chunkEnd));
+            pendingText = pendingText.substring(chunkEnd);
+        }
+    }
+}
+
+export async function processServerUIEvent(controlId, eventName, eventArgument) {
+    await initialUICreation;
+    
+    // An undefined event argument or view state is left out by 'JSON.stringify()'
     let eventInfo = {
         controlId: controlId,
-        eventName: eventName
+        eventName: eventName,
+        eventArgument: eventArgument,
+        viewState: viewState,
+        templateCacheId: updateTemplateCacheId,
+        initialState: initialState
     };
     
     let fetchOptions = {
@@ -18,14 +113,47 @@ export async function processServerUIEvent(controlId, eventName) {
         body: JSON.stringify(eventInfo)
     };
     
-    let response = await fetch('process-server-ui-event.js', fetchOptions);
+    let result;
     
-    // We are using the 'response.body' property because, at Dec/2019, it has 73.94% of global
-    // usage¹, while the 'response.text()' method has only 36.71%².
-    // 
-    //   [1]: https://caniuse.com/#feat=mdn-api_body_body
-    //   [2]: https://caniuse.com/#feat=mdn-api_body_text
-    let responseText = await getTextFromStream(response.body);
+    eventsInFlight++;
+    
+    try {
+        let response = await fetch('process-server-ui-event.json', fetchOptions);
+        
+        if (!response.ok) {
+            requestReloadIfNeeded(response.status);
+            
+            throw new Error(`The event '${eventName}' failed with status ${response.status}`);
+        }
+        
+        // The server has processed the event, so its window is no longer in the initial state
+        initialState = false;
+        
+        // We are using the 'response.body' property because, at Dec/2019, it has 73.94% of global
+        // usage¹, while the 'response.text()' method has only 36.71%².
+        // 
+        //   [1]: https://caniuse.com/#feat=mdn-api_body_body
+        //   [2]: https://caniuse.com/#feat=mdn-api_body_text
+        result = JSON.parse(await getTextFromStream(response.body));
+        
+        if (result.templateId === null) {
+            return;
+        }
+        
+        if (result.templateCode !== null) {
+            compileUpdateTemplate(result.templateId, result.templateCode,
+                    result.templateGeneration);
+        }
+    } finally {
+        eventsInFlight--;
+        
+        if (eventsInFlight === 0) {
+            rejectTemplateWaiters();
+        }
+    }
+    
+    let updateTemplate = getUpdateTemplate(result.templateId) ||
+            await waitForUpdateTemplate(result.templateId);
     
     // Once it was not possible to execute this code as a module, we have two consequences:
     // 
@@ -33,7 +161,159 @@ export async function processServerUIEvent(controlId, eventName) {
     //   2. It is not possible to use top-level awaits¹.
     //   
     //     [1]: https://v8.dev/features/top-level-await
-    return executeJavaScriptCodeAsync(responseText);
+    return updateTemplate(result.arguments, runtime);
+}
+
+// Dispatches the cancelable 'gazeui:reloadrequired' event on the window when the status asks for a
+// reload, with the status in the event detail. The page is reloaded unless a listener prevents the
+// default action, to save the user input before reloading, for example.
+function requestReloadIfNeeded(status) {
+    if (!RELOAD_STATUSES.includes(status)) {
+        return;
+    }
+    
+    let reloadRequiredEvent = new CustomEvent(RELOAD_REQUIRED_EVENT_NAME, {
+        cancelable: true,
+        detail: { status: status }
+    });
+    
+    if (window.dispatchEvent(reloadRequiredEvent)) {
+        window.location.reload();
+    }
+}
+
+function compileUpdateTemplate(templateId, templateCode, generation) {
+    let updateTemplate = getUpdateTemplate(templateId) ||
+            createAsyncFunction('$', 'GazeUIRuntime', templateCode);
+    
+    if (generation === null) {
+        if (untrackedUpdateTemplates.size >= MAX_UNTRACKED_UPDATE_TEMPLATES) {
+            untrackedUpdateTemplates.clear();
+        }
+        
+        untrackedUpdateTemplates.set(templateId, updateTemplate);
+    } else {
+        if (generation > updateTemplateGeneration) {
+            compiledUpdateTemplates.forEach(function(compiledTemplate, compiledTemplateId) {
+                if (compiledTemplate.generation < updateTemplateGeneration) {
+                    compiledUpdateTemplates.delete(compiledTemplateId);
+                }
+            });
+            
+            updateTemplateGeneration = generation;
+        }
+        
+        let compiledTemplate = compiledUpdateTemplates.get(templateId);
+        
+        // A template resent in a newer generation is kept as long as that generation
+        if (!compiledTemplate || compiledTemplate.generation < generation) {
+            compiledUpdateTemplates.set(templateId, {
+                updateTemplate: updateTemplate,
+                generation: generation
+            });
+        }
+    }
+    
+    let waiters = templateWaiters.get(templateId);
+    
+    if (waiters) {
+        templateWaiters.delete(templateId);
+        waiters.forEach(waiter => waiter.resolve(updateTemplate));
+    }
+}
+
+function getUpdateTemplate(templateId) {
+    let compiledTemplate = compiledUpdateTemplates.get(templateId);
+    
+    return compiledTemplate ? compiledTemplate.updateTemplate :
+            untrackedUpdateTemplates.get(templateId);
+}
+
+function waitForUpdateTemplate(templateId) {
+    if (eventsInFlight === 0) {
+        return Promise.reject(new Error(`The update template '${templateId}' is unknown`));
+    }
+    
+    return new Promise(function(resolve, reject) {
+        let waiters = templateWaiters.get(templateId) || [];
+        
+        waiters.push({ resolve: resolve, reject: reject });
+        templateWaiters.set(templateId, waiters);
+    });
+}
+
+// Called when no event is in flight, so the code of the awaited templates will not arrive anymore
+function rejectTemplateWaiters() {
+    templateWaiters.forEach(function(waiters, templateId) {
+        waiters.forEach(waiter => waiter.reject(
+                new Error(`The update template '${templateId}' is unknown`)));
+    });
+    
+    templateWaiters.clear();
+}
+
+// Returns a function that calls the given one limited by a rate policy, so the events discarded by
+// the policy never reach the server:
+// 
+//   - 'debounce': only the last call of a burst is made, after no call happens for the delay.
+//   - 'throttle': at most one call is made per delay. The first call of a burst is made at once
+//     and the last one at the end of the delay.
+//   - 'dropWhileInFlight': calls made while the promise of the previous one is pending are dropped.
+export function applyRatePolicy(func, ratePolicy, delay) {
+    switch (ratePolicy) {
+        case 'debounce': {
+            let timeoutId;
+            
+            return function(...args) {
+                clearTimeout(timeoutId);
+                timeoutId = setTimeout(function() { func(...args); }, delay);
+            };
+        }
+        
+        case 'throttle': {
+            let lastCallTime = -Infinity;
+            let trailingArgs;
+            let timeoutId;
+            
+            return function(...args) {
+                let remainingTime = lastCallTime + delay - performance.now();
+                
+                if (remainingTime <= 0) {
+                    lastCallTime = performance.now();
+                    func(...args);
+                } else {
+                    trailingArgs = args;
+                    
+                    if (timeoutId === undefined) {
+                        timeoutId = setTimeout(function() {
+                            timeoutId = undefined;
+                            lastCallTime = performance.now();
+                            func(...trailingArgs);
+                        }, remainingTime);
+                    }
+                }
+            };
+        }
+        
+        case 'dropWhileInFlight': {
+            let inFlight = false;
+            
+            return async function(...args) {
+                if (!inFlight) {
+                    inFlight = true;
+                    
+                    try {
+                        await func(...args);
+                    } finally {
+                        inFlight = false;
+                    }
+                }
+            };
+        }
+        
+        default:
+            return func;
+    }
 }
 
 async function getTextFromStream(readableStream) {
@@ -52,6 +332,10 @@ async function getTextFromStream(readableStream) {
 }
 
 async function executeJavaScriptCodeAsync(code) {
+    return createAsyncFunction('GazeUIRuntime', code)(runtime);
+}
+
+function createAsyncFunction(...parametersAndBody) {
     // 1. According to the MDN website, you should never use 'eval()', but 'window.Function()' instead¹.
     // 2. AsyncFunction is not a native global object².
     //
@@ -59,7 +343,6 @@ async function executeJavaScriptCodeAsync(code) {
     //   [2] https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/AsyncFunction
     
     let AsyncFunction = Object.getPrototypeOf(async function(){}).constructor;
-    let asyncFunction = new AsyncFunction(code);
     
-    return asyncFunction();
+    return new AsyncFunction(...parametersAndBody);
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+// Helper functions used by the scripts rendered in compact mode. Calling a shared function is much
+// shorter than repeating the same DOM statements for every control.
+
+export function createElement(tagName, id, text) {
+    let element = document.createElement(tagName);
+    element.id = id;
+    
+    if (text !== undefined) {
+        element.textContent = text;
+    }
+    
+    return element;
+}
+
+export function getElement(id) {
+    return document.getElementById(id);
+}
+
+// Returns the root element of a template created from the given HTML. The HTML is parsed only once
+// and then the element can be cloned for each instance using the 'instantiateTemplate' function.
+export function createTemplate(html) {
+    let template = document.createElement('template');
+    template.innerHTML = html;
+    
+    return template.content.firstChild;
+}
+
+// Clones a template element created by the 'createTemplate' function, setting the IDs and texts of
+// the cloned elements in document order. Returns all the cloned elements, also in document order.
+export function instantiateTemplate(templateElement, ids, texts) {
+    let rootElement = templateElement.cloneNode(true);
+    let elements = [rootElement, ...rootElement.querySelectorAll('*')];
+    
+    for (let i = 0; i < elements.length; i++) {
+        elements[i].id = ids[i];
+        
+        if (texts[i] !== undefined) {
+            elements[i].textContent = texts[i];
+        }
+    }
+    
+    return elements;
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+import * as GazeUICore from '../gazeui-core.mjs';
+
+// Time without scroll events, in milliseconds, before reporting the new position to the server
+const scrollDebounceDelay = 100;
+
+const scrollListenerOptions = {
+    capture: false,
+    passive: true
+};
+
+// The server is only notified when the user stops scrolling for a while, so a long scroll costs a
+// single round trip instead of one for each scroll event fired by the browser.
+export function addScrollListener(element, itemHeight, firstVisibleIndex) {
+    let processScrollEvent = GazeUICore.applyRatePolicy(function() {
+        let newFirstVisibleIndex = Math.floor(element.scrollTop / itemHeight);
+        return GazeUICore.processServerUIEvent(element.id, 'Scroll', String(newFirstVisibleIndex));
+    }, 'debounce', scrollDebounceDelay);
+    
+    element.addEventListener('scroll', processScrollEvent, scrollListenerOptions);
+    
+    if (firstVisibleIndex > 0) {
+        // The element is still detached when it is created, so it can only be scrolled later
+        requestAnimationFrame(function() {
+            scrollToIndex(element, itemHeight, firstVisibleIndex);
+        });
+    }
+}
+
+export function scrollToIndex(element, itemHeight, index) {
+    element.scrollTop = index * itemHeight;
+}
\ No newline at end of file
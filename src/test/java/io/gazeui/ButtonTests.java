@@ -0,0 +1,73 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.event.EventRatePolicy;
+
+class ButtonTests {
+    
+    @SuppressWarnings("serial")
+    public static class ButtonPage extends WebPage {
+        
+        private final Button button = new Button("B");
+        
+        public ButtonPage() {
+            this.setTitle("T");
+            this.getControls().add(this.button);
+        }
+    }
+    
+    @Test
+    void ratePoliciesAreRenderedAsListenerArgumentsInCompactMode() {
+        assertTrue(ButtonTests.renderCreation(EventRatePolicy.debounce(300), true).contains(
+                "L(_1,'debounce',300);"));
+        assertTrue(ButtonTests.renderCreation(EventRatePolicy.throttle(100), true).contains(
+                "L(_1,'throttle',100);"));
+        assertTrue(ButtonTests.renderCreation(EventRatePolicy.dropWhileInFlight(), true).contains(
+                "L(_1,'dropWhileInFlight');"));
+    }
+    
+    @Test
+    void ratePoliciesAreRenderedAsListenerArgumentsInReadableMode() {
+        assertTrue(ButtonTests.renderCreation(EventRatePolicy.debounce(300), false).contains(
+                "Button.addClickListener(_1, 'debounce', 300);\n"));
+        assertTrue(ButtonTests.renderCreation(EventRatePolicy.throttle(100), false).contains(
+                "Button.addClickListener(_1, 'throttle', 100);\n"));
+        assertTrue(ButtonTests.renderCreation(EventRatePolicy.dropWhileInFlight(), false).contains(
+                "Button.addClickListener(_1, 'dropWhileInFlight');\n"));
+    }
+    
+    @Test
+    void changingTheRatePolicyReplacesTheListener() {
+        Window window = Window.createInstance(ButtonPage.class);
+        Button button = ((ButtonPage)window.getChildPageOrNull()).button;
+        button.addOnClickHandler(e -> { }, EventRatePolicy.debounce(300));
+        window.renderCreation(new RenderScriptWriter());
+        
+        Window previousWindow = window.clone();
+        button.addOnClickHandler(e -> { }, EventRatePolicy.throttle(100));
+        
+        assertEquals(
+                "let Button = await import('./button/button.mjs');\n" +
+                "let _1 = document.getElementById('_1');\n" +
+                "Button.removeClickListener(_1);\n" +
+                "Button.addClickListener(_1, 'throttle', 100);\n",
+                Scripts.renderUpdate(window, previousWindow, false));
+    }
+    
+    private static String renderCreation(EventRatePolicy clickRatePolicy, boolean compact) {
+        Window window = Window.createInstance(ButtonPage.class);
+        ((ButtonPage)window.getChildPageOrNull()).button.addOnClickHandler(e -> { },
+                clickRatePolicy);
+        
+        return Scripts.renderCreation(window, compact);
+    }
+}
\ No newline at end of file
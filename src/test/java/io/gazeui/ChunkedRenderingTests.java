@@ -0,0 +1,82 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ChunkedRenderingTests {
+    
+    @SuppressWarnings("serial")
+    public static class DashboardPage extends WebPage {
+        
+        public DashboardPage() {
+            this.getControls().add(new Label("Header"));
+            
+            ContainerControl<Control> table = new ContainerControl<>();
+            
+            for (int i = 0; i < 5; i++) {
+                ContainerControl<Control> row = new ContainerControl<>();
+                row.getControls().add(new Label("Row " + i));
+                table.getControls().add(row);
+            }
+            
+            this.getControls().add(table);
+            this.getControls().add(new Label("Footer"));
+        }
+    }
+    
+    @Test
+    void eachTopLevelControlIsRenderedInItsOwnChunk() {
+        Window window = Window.createInstance(DashboardPage.class);
+        List<String> chunks = new ArrayList<>();
+        
+        window.renderCreationInChunks(
+                () -> new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS, true),
+                writer -> chunks.add(writer.toString()));
+        
+        assertEquals(4, chunks.size());
+        assertEquals("document.title='DashboardPage';", chunks.get(0));
+        assertEquals("let{createElement:E}=await import('./render-functions.mjs');" +
+                "let _1=E('span','_1','Header');document.body.appendChild(_1);", chunks.get(1));
+        
+        // Each chunk imports its own functions and declares its own templates, so it does not
+        // depend on the previous ones
+        assertTrue(chunks.get(2).contains("let v1=T('<div><span></span></div>');"));
+        assertTrue(chunks.get(2).endsWith("document.body.appendChild(_2);"));
+        assertTrue(chunks.get(3).startsWith(
+                "let{createElement:E}=await import('./render-functions.mjs');"));
+    }
+    
+    @Test
+    void chunksCreateTheSameControlsAsTheSingleScript() {
+        Window window = Window.createInstance(DashboardPage.class);
+        StringBuilder sbChunks = new StringBuilder();
+        
+        window.renderCreationInChunks(
+                () -> new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS, false),
+                writer -> sbChunks.append(writer.toString()));
+        
+        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                false);
+        window.renderCreation(writer);
+        
+        // In readable mode, the single script appends the children to the body all at once
+        for (String clientId : new String[] { "_1", "_2", "_d" }) {
+            String creation = String.format("let %1$s = document.createElement", clientId);
+            
+            assertTrue(writer.toString().contains(creation));
+            assertTrue(sbChunks.toString().contains(creation));
+            assertTrue(sbChunks.toString().contains(
+                    String.format("document.body.appendChild(%s);", clientId)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class ClientIdStrategyTests {
+    
+    @Test
+    void compactFormat() {
+        assertEquals("_1", ClientIdStrategy.COMPACT.format(1));
+        assertEquals("_z", ClientIdStrategy.COMPACT.format(35));
+        assertEquals("_10", ClientIdStrategy.COMPACT.format(36));
+    }
+    
+    @Test
+    void readableFormat() {
+        assertEquals("ctl01", ClientIdStrategy.READABLE.format(1));
+        assertEquals("ctl10", ClientIdStrategy.READABLE.format(10));
+        assertEquals("ctl123", ClientIdStrategy.READABLE.format(123));
+    }
+    
+    @Test
+    void parseClientId() {
+        for (ClientIdStrategy strategy : ClientIdStrategy.values()) {
+            for (int controlId = 1; controlId < 2000; controlId++) {
+                assertEquals(controlId, strategy.parseClientId(strategy.format(controlId)).getAsInt());
+            }
+        }
+    }
+    
+    @Test
+    void parseInvalidClientId() {
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("").isPresent());
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("_").isPresent());
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("_0").isPresent());
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("_01").isPresent());
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("_Z").isPresent());
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("_-1").isPresent());
+        assertFalse(ClientIdStrategy.COMPACT.parseClientId("ctl01").isPresent());
+        assertFalse(ClientIdStrategy.READABLE.parseClientId("ctl1").isPresent());
+        assertFalse(ClientIdStrategy.READABLE.parseClientId("ctl00").isPresent());
+        assertFalse(ClientIdStrategy.READABLE.parseClientId("_1").isPresent());
+    }
+    
+    @Test
+    void windowsKeepTheirOwnStrategy() {
+        Window compactWindow = Window.createInstance(CounterPage.class);
+        Window readableWindow = Window.createInstance(CounterPage.class);
+        readableWindow.setClientIdStrategy(ClientIdStrategy.READABLE);
+        
+        RenderScriptWriter compactWriter = new RenderScriptWriter();
+        compactWindow.renderCreation(compactWriter);
+        RenderScriptWriter readableWriter = new RenderScriptWriter();
+        readableWindow.renderCreation(readableWriter);
+        
+        assertTrue(compactWriter.toString().contains("'_3'"));
+        assertFalse(compactWriter.toString().contains("ctl03"));
+        assertTrue(readableWriter.toString().contains("'ctl03'"));
+        assertFalse(readableWriter.toString().contains("'_3'"));
+        
+        Window previousReadableWindow = readableWindow.clone();
+        readableWindow.processUIEvent("ctl03", "Click");
+        
+        assertEquals("1", ((CounterPage)readableWindow.getChildPageOrNull()).getLabel().getText());
+        assertEquals(ClientIdStrategy.READABLE, previousReadableWindow.getClientIdStrategy());
+    }
+    
+    @Test
+    void scriptTemplatesRenameTheClientIdsOfTheGivenStrategy() {
+        ScriptTemplate template = ScriptTemplate.parse("ctl01.textContent='1';",
+                ClientIdStrategy.READABLE);
+        
+        assertEquals("$0.textContent=$[0];", template.getCode());
+        assertEquals(Arrays.asList("1"), template.getArguments());
+    }
+}
\ No newline at end of file
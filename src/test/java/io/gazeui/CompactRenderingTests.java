@@ -0,0 +1,164 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class CompactRenderingTests {
+    
+    @SuppressWarnings("serial")
+    public static class ClickPage extends WebPage {
+        
+        private final Label label = new Label("A");
+        private final Button button = new Button("B");
+        
+        public ClickPage() {
+            this.setTitle("T");
+            this.getControls().add(this.label);
+            this.getControls().add(this.button);
+        }
+        
+        @Override
+        protected void bindEventHandlers() {
+            this.button.addOnClickHandler(e -> this.label.setText("Clicked"));
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class SectionContainer extends ContainerControl<Control> {
+        
+        @Override
+        protected String creationScript() {
+            return String.format(
+                    "let %1$s = document.createElement('section');\n" +
+                    "%1$s.id = '%1$s';\n", this.getClientIdOrNull());
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class QueriedLabel extends Label {
+        
+        @Override
+        protected String selectionScript() {
+            return String.format("let %1$s = document.querySelector('#%1$s');\n",
+                    this.getClientIdOrNull());
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class CustomHooksPage extends WebPage {
+        
+        private final SectionContainer section = new SectionContainer();
+        private final QueriedLabel label = new QueriedLabel();
+        
+        public CustomHooksPage() {
+            this.setTitle("T");
+            this.section.getControls().add(new Label("A"));
+            this.getControls().add(this.section);
+            this.label.setText("B");
+            this.getControls().add(this.label);
+        }
+    }
+    
+    @Test
+    void compactScriptsUseAliasedHelperFunctions() {
+        Window window = Window.createInstance(ClickPage.class);
+        
+        assertEquals("let{createElement:E}=await import('./render-functions.mjs');" +
+                "let{addClickListener:L}=await import('./button/button.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "document.title='T';let _1=E('span','_1','A');let _2=E('button','_2','B');L(_2);" +
+                "F(document.body,[_1,_2],null);",
+                Scripts.renderCreation(window, true));
+        
+        Window previousWindow = window.clone();
+        window.processUIEvent("_2", "Click");
+        
+        assertEquals("let{getElement:G}=await import('./render-functions.mjs');" +
+                "let _1=G('_1');_1.textContent='Clicked';",
+                Scripts.renderUpdate(window, previousWindow, true));
+    }
+    
+    @Test
+    void readableScriptsUseTheModulesDirectly() {
+        Window window = Window.createInstance(ClickPage.class);
+        
+        assertEquals(
+                "let Button = await import('./button/button.mjs');\n" +
+                "let DomFunctions = await import('./dom-functions.mjs');\n" +
+                "document.title = 'T';\n" +
+                "let _1 = document.createElement('span');\n" +
+                "_1.id = '_1';\n" +
+                "_1.textContent = 'A';\n" +
+                "let _2 = document.createElement('button');\n" +
+                "_2.id = '_2';\n" +
+                "_2.textContent = 'B';\n" +
+                "_2.addEventListener('click', Button.onClickHandler, {\n" +
+                "    capture: false,\n" +
+                "    passive: true\n" +
+                "});\n" +
+                "DomFunctions.insertAllBefore(document.body, [_1, _2], null);\n",
+                Scripts.renderCreation(window, false));
+        
+        Window previousWindow = window.clone();
+        window.processUIEvent("_2", "Click");
+        
+        assertEquals(
+                "let _1 = document.getElementById('_1');\n" +
+                "_1.textContent = 'Clicked';\n",
+                Scripts.renderUpdate(window, previousWindow, false));
+    }
+    
+    @Test
+    void overriddenScriptHooksAreUsedInCompactMode() {
+        Window window = Window.createInstance(CustomHooksPage.class);
+        
+        assertEquals("let{createElement:E}=await import('./render-functions.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "document.title='T';" +
+                "let _1 = document.createElement('section');\n" +
+                "_1.id = '_1';\n" +
+                "let _2=E('span','_2','A');_1.appendChild(_2);let _3=E('span','_3','B');" +
+                "F(document.body,[_1,_3],null);",
+                Scripts.renderCreation(window, true));
+        
+        Window previousWindow = window.clone();
+        ((CustomHooksPage)window.getChildPageOrNull()).label.setText("C");
+        
+        assertEquals("let _3 = document.querySelector('#_3');\n_3.textContent='C';",
+                Scripts.renderUpdate(window, previousWindow, true));
+    }
+    
+    @Test
+    void overriddenScriptHooksAreUsedInReadableMode() {
+        Window window = Window.createInstance(CustomHooksPage.class);
+        
+        assertEquals(
+                "let DomFunctions = await import('./dom-functions.mjs');\n" +
+                "document.title = 'T';\n" +
+                "let _1 = document.createElement('section');\n" +
+                "_1.id = '_1';\n" +
+                "let _2 = document.createElement('span');\n" +
+                "_2.id = '_2';\n" +
+                "_2.textContent = 'A';\n" +
+                "_1.appendChild(_2);\n" +
+                "let _3 = document.createElement('span');\n" +
+                "_3.id = '_3';\n" +
+                "_3.textContent = 'B';\n" +
+                "DomFunctions.insertAllBefore(document.body, [_1, _3], null);\n",
+                Scripts.renderCreation(window, false));
+        
+        Window previousWindow = window.clone();
+        ((CustomHooksPage)window.getChildPageOrNull()).label.setText("C");
+        
+        assertEquals(
+                "let _3 = document.querySelector('#_3');\n" +
+                "_3.textContent = 'C';\n",
+                Scripts.renderUpdate(window, previousWindow, false));
+    }
+}
\ No newline at end of file
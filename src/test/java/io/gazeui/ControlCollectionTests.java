@@ -7,6 +7,7 @@ package io.gazeui;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -166,6 +167,46 @@ class ControlCollectionTests {
         assertEquals(b4, controlCollection.get(6));
     }
     
+    @Test
+    void addControlsInBatch() {
+        ContainerControl<Control> container = new ContainerControl<>();
+        container.getControls().add(b1);
+        container.getControls().add(b2);
+        container.getControls().add(b3);
+        
+        container.addControlsInBatch(batch -> {
+            batch.add(b4);
+            batch.add(b2);
+            batch.add(b5);
+            batch.add(b4);
+        });
+        
+        assertEquals(5, container.getControls().size());
+        assertEquals(b1, container.getControls().get(0));
+        assertEquals(b3, container.getControls().get(1));
+        assertEquals(b4, container.getControls().get(2));
+        assertEquals(b2, container.getControls().get(3));
+        assertEquals(b5, container.getControls().get(4));
+        assertEquals(container, b5.getParent().get());
+    }
+    
+    @Test
+    void addControlsInBatchShouldSetClientIds() {
+        WebPage page = new WebPage() {};
+        ContainerControl<Control> container = new ContainerControl<>();
+        container.getControls().add(b1);
+        
+        page.addControlsInBatch(batch -> {
+            batch.add(container);
+            batch.add(b2);
+        });
+        
+        assertTrue(container.getClientId().isPresent());
+        assertTrue(b1.getClientId().isPresent());
+        assertTrue(b2.getClientId().isPresent());
+        assertEquals(page, b1.getPage().get());
+    }
+    
     @Test
     void setNonExistingElements() {
         controlCollection.add(b1);
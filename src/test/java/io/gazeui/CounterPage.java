@@ -0,0 +1,47 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+/**
+ * The page shared by the tests: a panel with a label, starting at zero, and a button incrementing
+ * it. The handler is bound in {@link #bindEventHandlers()}, so the page can also be a prototype.
+ */
+@SuppressWarnings("serial")
+public class CounterPage extends WebPage {
+    
+    // The client IDs given by the compact strategy, in rendering order
+    public static final String LABEL_ID = "_2";
+    public static final String BUTTON_ID = "_3";
+    
+    private final ContainerControl<Control> panel = new ContainerControl<>();
+    private final Label label = new Label("0");
+    private final Button button = new Button("+");
+    
+    public CounterPage() {
+        this.setTitle("Counter");
+        this.panel.getControls().add(this.label);
+        this.panel.getControls().add(this.button);
+        this.getControls().add(this.panel);
+    }
+    
+    @Override
+    protected void bindEventHandlers() {
+        this.button.addOnClickHandler(e -> this.label.setText(
+                Integer.toString(Integer.parseInt(this.label.getText()) + 1)));
+    }
+    
+    public ContainerControl<Control> getPanel() {
+        return this.panel;
+    }
+    
+    public Label getLabel() {
+        return this.label;
+    }
+    
+    public Button getButton() {
+        return this.button;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataGridTests {
+    
+    private DataGrid dataGrid;
+    
+    @BeforeEach
+    void setUp() {
+        this.dataGrid = new DataGrid("Name", "Age");
+        
+        for (int i = 0; i < 20; i++) {
+            this.dataGrid.addRow("n" + i, Integer.toString(i));
+        }
+        
+        new WebPage() {}.getControls().add(this.dataGrid);
+    }
+    
+    @Test
+    void changesDoNotAffectClones() {
+        DataGrid clonedDataGrid = this.dataGrid.clone();
+        
+        this.dataGrid.setCellValue(3, 0, "x");
+        this.dataGrid.removeRow(0);
+        this.dataGrid.addRow("y", "z");
+        
+        assertEquals("n3", clonedDataGrid.getCellValue(3, 0));
+        assertEquals(20, clonedDataGrid.getRowCount());
+        assertEquals("x", this.dataGrid.getCellValue(2, 0));
+        assertEquals("n1", this.dataGrid.getCellValue(0, 0));
+        assertEquals("y", this.dataGrid.getCellValue(19, 0));
+    }
+    
+    @Test
+    void updatePatchesOnlyChangedCells() {
+        DataGrid previousDataGrid = this.dataGrid.clone();
+        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS, true);
+        
+        this.dataGrid.renderUpdate(writer, previousDataGrid);
+        assertTrue(writer.isEmpty());
+        
+        this.dataGrid.setCellValue(5, 1, "50");
+        this.dataGrid.setCellValue(7, 0, "n7");
+        this.dataGrid.removeRow(19);
+        
+        writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS, true);
+        this.dataGrid.renderUpdate(writer, previousDataGrid);
+        String clientId = this.dataGrid.getClientId().get();
+        
+        assertTrue(writer.toString().endsWith(String.format(
+                "DataGrid.setCells(%1$s,[5,1,'50']);DataGrid.removeRows(%1$s,19);", clientId)));
+    }
+    
+    @Test
+    void rowsMustMatchColumns() {
+        assertThrows(IllegalArgumentException.class, () -> this.dataGrid.addRow("a"));
+        assertThrows(IndexOutOfBoundsException.class, () -> this.dataGrid.getCellValue(20, 0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeferredContainerTests {
+    
+    private Window window;
+    private LongPage page;
+    
+    @SuppressWarnings("serial")
+    public static class LongPage extends WebPage {
+        
+        private final DeferredContainer<Label> belowTheFold =
+                new DeferredContainer<>(DeferralTrigger.VISIBLE, 300);
+        
+        public LongPage() {
+            this.getControls().add(new Label("Header"));
+            
+            this.belowTheFold.getControls().add(new Label("First"));
+            this.belowTheFold.getControls().add(new Label("Second"));
+            this.getControls().add(this.belowTheFold);
+        }
+    }
+    
+    @BeforeEach
+    void setUp() {
+        this.window = Window.createInstance(LongPage.class);
+        this.page = (LongPage)this.window.getChildPageOrNull();
+    }
+    
+    @Test
+    void creationRendersOnlyThePlaceholder() {
+        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                true);
+        this.window.renderCreation(writer);
+        
+        assertTrue(writer.toString().contains("let _2=E('div','_2');_2.style.minHeight='300px';" +
+                "DeferredContainer.addMaterializeTrigger(_2,'visible');"));
+        assertFalse(writer.toString().contains("First"));
+    }
+    
+    @Test
+    void childrenAreRenderedInTheirCurrentStateOnceMaterialized() {
+        this.window.renderCreation(new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                true));
+        Window previousWindow = this.window.clone();
+        
+        // Changes before the materialization are not rendered, because the children are not in
+        // the live DOM tree
+        this.page.belowTheFold.getControls().get(0).setText("Changed");
+        assertEquals("", this.renderUpdate(previousWindow));
+        
+        this.window.processUIEvent(this.page.belowTheFold.getClientIdOrNull(), "Materialize");
+        
+        assertEquals("let{getElement:G,createElement:E}=await import('./render-functions.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "let _2=G('_2');_2.style.minHeight='';let _3=E('span','_3','Changed');" +
+                "let _4=E('span','_4','Second');F(_2,[_3,_4],null);",
+                this.renderUpdate(previousWindow));
+        
+        // Once materialized, the children are updated as in any other container
+        previousWindow = this.window.clone();
+        this.page.belowTheFold.getControls().get(1).setText("Updated");
+        
+        assertEquals("let{getElement:G}=await import('./render-functions.mjs');" +
+                "let _4=G('_4');_4.textContent='Updated';", this.renderUpdate(previousWindow));
+    }
+    
+    @Test
+    void serverStateIsRequiredUntilMaterialized() {
+        assertTrue(this.window.requiresServerState());
+        
+        this.page.belowTheFold.materialize();
+        
+        assertFalse(this.window.requiresServerState());
+    }
+    
+    @Test
+    void placeholderHeightMustNotBeNegative() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new DeferredContainer<>(DeferralTrigger.IDLE, -1));
+    }
+    
+    private String renderUpdate(Window previousWindow) {
+        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                true);
+        this.window.renderUpdate(writer, previousWindow);
+        
+        return writer.toString();
+    }
+}
\ No newline at end of file
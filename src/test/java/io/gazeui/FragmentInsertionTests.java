@@ -0,0 +1,97 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class FragmentInsertionTests {
+    
+    @SuppressWarnings("serial")
+    public static class ListPage extends WebPage {
+        
+        private final ContainerControl<Label> items = new ContainerControl<>();
+        
+        public ListPage() {
+            this.setTitle("T");
+            this.getControls().add(this.items);
+            this.getControls().add(new Label("End"));
+            
+            for (String text : new String[] { "A", "B", "C" }) {
+                this.items.getControls().add(new Label(text));
+            }
+        }
+        
+        /**
+         * Inserts a run of two labels before the first one and a single label before the second.
+         */
+        private void insertLabels() {
+            this.items.getControls().add(0, new Label("X"));
+            this.items.getControls().add(1, new Label("Y"));
+            this.items.getControls().add(3, new Label("Z"));
+        }
+    }
+    
+    @Test
+    void pageChildrenAreInsertedAllAtOnce() {
+        Window window = Window.createInstance(ListPage.class);
+        
+        assertEquals("let{createElement:E}=await import('./render-functions.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "document.title='T';let _1=E('div','_1');" +
+                "let _3=E('span','_3','A');_1.appendChild(_3);" +
+                "let _4=E('span','_4','B');_1.appendChild(_4);" +
+                "let _5=E('span','_5','C');_1.appendChild(_5);" +
+                "let _2=E('span','_2','End');F(document.body,[_1,_2],null);",
+                Scripts.renderCreation(window, true));
+    }
+    
+    @Test
+    void contiguousChildRunsAreInsertedThroughAFragmentInCompactMode() {
+        Window window = Window.createInstance(ListPage.class);
+        window.renderCreation(new RenderScriptWriter());
+        
+        Window previousWindow = window.clone();
+        ((ListPage)window.getChildPageOrNull()).insertLabels();
+        
+        // A single child is still inserted directly
+        assertEquals("let{getElement:G,createElement:E}=await import('./render-functions.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "let _1=G('_1');" +
+                "let _8=E('span','_8','Z');let _4=G('_4');_1.insertBefore(_8,_4);" +
+                "let _7=E('span','_7','Y');let _3=G('_3');let _6=E('span','_6','X');" +
+                "F(_1,[_6,_7],_3);",
+                Scripts.renderUpdate(window, previousWindow, true));
+    }
+    
+    @Test
+    void contiguousChildRunsAreInsertedThroughAFragmentInReadableMode() {
+        Window window = Window.createInstance(ListPage.class);
+        window.renderCreation(new RenderScriptWriter());
+        
+        Window previousWindow = window.clone();
+        ((ListPage)window.getChildPageOrNull()).insertLabels();
+        
+        assertEquals(
+                "let DomFunctions = await import('./dom-functions.mjs');\n" +
+                "let _1 = document.getElementById('_1');\n" +
+                "let _8 = document.createElement('span');\n" +
+                "_8.id = '_8';\n" +
+                "_8.textContent = 'Z';\n" +
+                "let _4 = document.getElementById('_4');\n" +
+                "_1.insertBefore(_8, _4);\n" +
+                "let _7 = document.createElement('span');\n" +
+                "_7.id = '_7';\n" +
+                "_7.textContent = 'Y';\n" +
+                "let _3 = document.getElementById('_3');\n" +
+                "let _6 = document.createElement('span');\n" +
+                "_6.id = '_6';\n" +
+                "_6.textContent = 'X';\n" +
+                "DomFunctions.insertAllBefore(_1, [_6, _7], _3);\n",
+                Scripts.renderUpdate(window, previousWindow, false));
+    }
+}
\ No newline at end of file
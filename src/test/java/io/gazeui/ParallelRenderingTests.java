@@ -0,0 +1,136 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelRenderingTests {
+    
+    @SuppressWarnings("serial")
+    public static class ReportPage extends WebPage {
+        
+        public ReportPage() {
+            ContainerControl<Control> table = new ContainerControl<>();
+            this.getControls().add(table);
+            
+            for (int i = 0; i < 500; i++) {
+                ContainerControl<Control> row = new ContainerControl<>();
+                row.getControls().add(new Label("Row " + i));
+                
+                // Rows with different structures use different templates, declared as shared
+                // variables in the order they are first used
+                if (i % 7 == 0) {
+                    row.getControls().add(new Button("Details"));
+                } else if (i % 11 == 0) {
+                    ContainerControl<Control> nestedTable = new ContainerControl<>();
+                    
+                    // A label subclass can not be created from a template, so the nested table is
+                    // rendered by a task that splits it in nested tasks
+                    nestedTable.getControls().add(new Label("Nested") {});
+                    
+                    for (int j = 0; j < 100; j++) {
+                        nestedTable.getControls().add(new Label(i + "." + j));
+                    }
+                    
+                    row.getControls().add(nestedTable);
+                } else {
+                    row.getControls().add(new Label(Integer.toString(i)));
+                }
+                
+                table.getControls().add(row);
+            }
+            
+            for (int i = 0; i < 100; i++) {
+                this.getControls().add(new Label("Footer " + i));
+            }
+        }
+    }
+    
+    @Test
+    void parallelRenderingMatchesSequentialRendering() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try {
+            for (boolean compact : new boolean[] { true, false }) {
+                Window window = Window.createInstance(ReportPage.class);
+                
+                RenderScriptWriter sequentialWriter = new RenderScriptWriter(
+                        RenderScriptWriter.USE_STATIC_IMPORTS, compact);
+                window.renderCreation(sequentialWriter);
+                
+                RenderScriptWriter parallelWriter = new RenderScriptWriter(
+                        RenderScriptWriter.USE_STATIC_IMPORTS, compact, pool);
+                window.renderCreation(parallelWriter);
+                
+                assertEquals(sequentialWriter.toString(), parallelWriter.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void parallelDiffingMatchesSequentialDiffing() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try {
+            for (boolean compact : new boolean[] { true, false }) {
+                Window window = Window.createInstance(ReportPage.class);
+                window.renderCreation(new RenderScriptWriter(RenderScriptWriter.USE_STATIC_IMPORTS,
+                        compact));
+                Window previousWindow = window.clone();
+                
+                WebPage page = window.getChildPageOrNull();
+                ContainerControl<Control> table = (ContainerControl<Control>)page.getControls().get(0);
+                
+                // Updates inside rows, nested tables and footers, plus removed, added and moved rows,
+                // so both the same structure and the Longest Common Subsequence branches fork
+                for (int i = 0; i < table.getControls().size(); i += 3) {
+                    ContainerControl<Control> row =
+                            (ContainerControl<Control>)table.getControls().get(i);
+                    ((Label)row.getControls().get(0)).setText("Changed " + i);
+                    
+                    if (row.getControls().get(1) instanceof ContainerControl) {
+                        ContainerControl<Control> nestedTable =
+                                (ContainerControl<Control>)row.getControls().get(1);
+                        ((Label)nestedTable.getControls().get(50)).setText("Changed " + i);
+                    }
+                }
+                
+                for (int i = 0; i < 20; i++) {
+                    table.getControls().remove(i * 10);
+                }
+                
+                for (int i = 0; i < 20; i++) {
+                    ContainerControl<Control> row = new ContainerControl<>();
+                    row.getControls().add(new Label("New " + i));
+                    row.getControls().add(new Button("Details"));
+                    table.getControls().add(i * 15, row);
+                }
+                
+                table.getControls().add(table.getControls().remove(100));
+                ((Label)page.getControls().get(42)).setText("Changed footer");
+                
+                RenderScriptWriter sequentialWriter = new RenderScriptWriter(
+                        RenderScriptWriter.USE_DYNAMIC_IMPORTS, compact);
+                window.renderUpdate(sequentialWriter, previousWindow);
+                
+                RenderScriptWriter parallelWriter = new RenderScriptWriter(
+                        RenderScriptWriter.USE_DYNAMIC_IMPORTS, compact, pool);
+                window.renderUpdate(parallelWriter, previousWindow);
+                
+                assertEquals(sequentialWriter.toString(), parallelWriter.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
\ No newline at end of file
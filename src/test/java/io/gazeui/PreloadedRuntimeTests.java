@@ -0,0 +1,84 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PreloadedRuntimeTests {
+    
+    private Window window;
+    private ClickPage page;
+    
+    @SuppressWarnings("serial")
+    public static class ClickPage extends WebPage {
+        
+        private final Label label = new Label("Waiting");
+        
+        public ClickPage() {
+            this.setTitle("Preloaded Runtime");
+            
+            Button button = new Button("Click me");
+            button.addOnClickHandler(eventArgs -> {
+                Button newButton = new Button("New");
+                newButton.addOnClickHandler(newEventArgs -> {});
+                
+                this.label.setText("Clicked");
+                this.getControls().add(newButton);
+            });
+            
+            this.getControls().add(button);
+            this.getControls().add(this.label);
+        }
+    }
+    
+    @BeforeEach
+    void setUp() {
+        this.window = Window.createInstance(ClickPage.class);
+        this.page = (ClickPage)this.window.getChildPageOrNull();
+    }
+    
+    @Test
+    void namespacesAreNamedAfterTheModuleFiles() {
+        assertEquals("Button", RenderScriptWriter.getRuntimeNamespaceName("./button/button.mjs"));
+        assertEquals("DomFunctions", RenderScriptWriter.getRuntimeNamespaceName("./dom-functions.mjs"));
+        assertEquals("GazeuiCore", RenderScriptWriter.getRuntimeNamespaceName("./gazeui-core.mjs"));
+    }
+    
+    @Test
+    void staticScriptsImportTheBundleOnly() {
+        for (boolean compact : new boolean[] { false, true }) {
+            RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_STATIC_IMPORTS,
+                    compact, null, true);
+            this.window.renderCreation(writer);
+            String script = writer.toString();
+            
+            assertTrue(script.startsWith("import * as GazeUIRuntime from './gazeui-runtime.mjs';"));
+            assertEquals(1, script.split("import").length - 1);
+        }
+    }
+    
+    @Test
+    void dynamicScriptsTakeTheModulesFromTheBundle() {
+        for (boolean compact : new boolean[] { false, true }) {
+            Window previousWindow = this.window.clone();
+            Button button = (Button)this.page.getControls().get(0);
+            button.processOnClickEvent();
+            
+            RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                    compact, null, true);
+            this.window.renderUpdate(writer, previousWindow);
+            String script = writer.toString();
+            
+            assertFalse(script.contains("import"));
+            assertTrue(script.contains("GazeUIRuntime.Button;"));
+        }
+    }
+}
\ No newline at end of file
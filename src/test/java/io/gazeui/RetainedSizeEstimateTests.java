@@ -0,0 +1,68 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class RetainedSizeEstimateTests {
+    
+    @Test
+    void ancestorsFollowTreeChanges() {
+        WebPage page = new WebPage() {};
+        ContainerControl<Control> container = new ContainerControl<>();
+        Label label = new Label("abc");
+        long emptyPageSize = page.getRetainedSizeEstimate();
+        long emptyContainerSize = container.getRetainedSizeEstimate();
+        
+        page.getControls().add(container);
+        container.getControls().add(label);
+        
+        assertEquals(emptyPageSize + emptyContainerSize + label.getRetainedSizeEstimate(),
+                page.getRetainedSizeEstimate());
+        assertEquals(Control.CONTROL_RETAINED_SIZE + Control.estimateStringSize("abc"),
+                label.getRetainedSizeEstimate());
+        
+        long pageSize = page.getRetainedSizeEstimate();
+        label.setText("abcdef");
+        
+        assertEquals(pageSize + 3 * 2, page.getRetainedSizeEstimate());
+        
+        container.getControls().addAll(Arrays.asList(new Button("a"), new Label()));
+        container.getControls().subList(1, 3).clear();
+        page.getControls().add(label);
+        
+        assertEquals(emptyContainerSize, container.getRetainedSizeEstimate());
+        assertEquals(pageSize + 3 * 2, page.getRetainedSizeEstimate());
+        
+        page.getControls().clear();
+        
+        assertEquals(emptyPageSize, page.getRetainedSizeEstimate());
+    }
+    
+    @Test
+    void dataGridAccountsItsCells() {
+        DataGrid dataGrid = new DataGrid("Name");
+        long emptySize = dataGrid.getRetainedSizeEstimate();
+        
+        for (int i = 0; i < 100; i++) {
+            dataGrid.addRow("row");
+        }
+        
+        assertTrue(dataGrid.getRetainedSizeEstimate() >
+                emptySize + 100 * Control.estimateStringSize("row"));
+        
+        dataGrid.removeRow(0);
+        dataGrid.setCellValue(0, 0, null);
+        dataGrid.clearRows();
+        
+        assertEquals(emptySize, dataGrid.getRetainedSizeEstimate());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.text.Strings;
+
+class ScriptTemplateTests {
+    
+    @Test
+    void literalsAndClientIdsAreParameterized() {
+        ScriptTemplate template = ScriptTemplate.parse(
+                "let{getElement:G}=await import('./render-functions.mjs');" +
+                "let _4=G('_4');_4.textContent='Updated';");
+        
+        assertEquals("let{getElement:G}=await import('./render-functions.mjs');" +
+                "let $0=G($[0]);$0.textContent=$[1];", template.getCode());
+        assertEquals(Arrays.asList("_4", "Updated"), template.getArguments());
+    }
+    
+    @Test
+    void scriptsWithTheSameStructureShareTheTemplate() {
+        ScriptTemplate template1 = ScriptTemplate.parse(
+                "let _4=G('_4');_4.textContent='First';let _5=G('_5');_5.remove();");
+        ScriptTemplate template2 = ScriptTemplate.parse(
+                "let _a=G('_a');_a.textContent='Second';let _2=G('_2');_2.remove();");
+        ScriptTemplate template3 = ScriptTemplate.parse(
+                "let _4=G('_4');_4.textContent='First';");
+        
+        assertEquals(template1.getCode(), template2.getCode());
+        assertEquals(template1.getId(), template2.getId());
+        assertEquals(Arrays.asList("_a", "Second", "_2"), template2.getArguments());
+        assertNotEquals(template1.getId(), template3.getId());
+    }
+    
+    @Test
+    void numbersAndEscapedStringsAreArguments() {
+        ScriptTemplate template = ScriptTemplate.parse(
+                "VirtualList.scrollToIndex(G('_2'),20,15);v1.style.opacity=0.5;" +
+                "_3.textContent='It\\'s';");
+        
+        assertEquals("VirtualList.scrollToIndex(G($[0]),$[1],$[2]);v1.style.opacity=$[3];" +
+                "$0.textContent=$[4];", template.getCode());
+        assertEquals(Arrays.asList("_2", 20L, 15L, 0.5, "It's"), template.getArguments());
+    }
+    
+    @Test
+    void escapedUserTextsAreSingleArguments() {
+        String text = "It's a \"quote\",\n\ta C:\\path\u2028and 'two' strings";
+        ScriptTemplate template = ScriptTemplate.parse(
+                "_3.textContent='" + Strings.escapeJavaScript(text) + "';");
+        
+        assertEquals("$0.textContent=$[0];", template.getCode());
+        assertEquals(Arrays.asList(text), template.getArguments());
+    }
+    
+    @Test
+    void malformedUnicodeEscapesKeepTheLetter() {
+        ScriptTemplate template = ScriptTemplate.parse("_3.textContent='\\u12';");
+        
+        assertEquals(Arrays.asList("u12"), template.getArguments());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+/**
+ * Renders the scripts compared by the rendering tests, with dynamic imports.
+ */
+final class Scripts {
+    
+    private Scripts() {
+        // No instances allowed
+    }
+    
+    static String renderCreation(Window window, boolean compact) {
+        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                compact);
+        window.renderCreation(writer);
+        
+        return writer.toString();
+    }
+    
+    static String renderUpdate(Window window, Window previousWindow, boolean compact) {
+        RenderScriptWriter writer = new RenderScriptWriter(RenderScriptWriter.USE_DYNAMIC_IMPORTS,
+                compact);
+        window.renderUpdate(writer, previousWindow);
+        
+        return writer.toString();
+    }
+}
\ No newline at end of file
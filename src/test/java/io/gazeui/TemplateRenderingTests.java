@@ -0,0 +1,124 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+class TemplateRenderingTests {
+    
+    @SuppressWarnings("serial")
+    public static class RowsPage extends WebPage {
+        
+        private final ContainerControl<ContainerControl<Control>> rows = new ContainerControl<>();
+        
+        public RowsPage() {
+            this(3);
+        }
+        
+        protected RowsPage(int rowCount) {
+            this.setTitle("T");
+            this.getControls().add(this.rows);
+            
+            for (int i = 1; i <= rowCount; i++) {
+                ContainerControl<Control> row = new ContainerControl<>();
+                row.getControls().add(new Label("R" + i));
+                row.getControls().add(new Button("X"));
+                this.rows.getControls().add(row);
+            }
+        }
+        
+        @Override
+        protected void bindEventHandlers() {
+            for (ContainerControl<Control> row : this.rows.getControls()) {
+                ((Button)row.getControls().get(1)).addOnClickHandler(e -> { });
+            }
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class TwoRowsPage extends RowsPage {
+        
+        public TwoRowsPage() {
+            super(2);
+        }
+    }
+    
+    @Test
+    void repeatedSubtreesAreClonedFromASingleTemplate() {
+        Window window = Window.createInstance(RowsPage.class);
+        
+        // The listeners are added to each instance, because cloning does not copy them
+        assertEquals("let{createElement:E,createTemplate:T,instantiateTemplate:I}=" +
+                "await import('./render-functions.mjs');" +
+                "let{addClickListener:L}=await import('./button/button.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "let v1=T('<div><span></span><button></button></div>');" +
+                "document.title='T';let _1=E('div','_1');" +
+                "let[_2,_3,_4]=I(v1,['_2','_3','_4'],[,'R1','X']);L(_4);_1.appendChild(_2);" +
+                "let[_5,_6,_7]=I(v1,['_5','_6','_7'],[,'R2','X']);L(_7);_1.appendChild(_5);" +
+                "let[_8,_9,_a]=I(v1,['_8','_9','_a'],[,'R3','X']);L(_a);_1.appendChild(_8);" +
+                "F(document.body,[_1],null);",
+                Scripts.renderCreation(window, true));
+    }
+    
+    @Test
+    void subtreesRepeatedTooFewTimesAreNotTemplated() {
+        Window window = Window.createInstance(TwoRowsPage.class);
+        
+        assertEquals("let{createElement:E}=await import('./render-functions.mjs');" +
+                "let{addClickListener:L}=await import('./button/button.mjs');" +
+                "let{insertAllBefore:F}=await import('./dom-functions.mjs');" +
+                "document.title='T';let _1=E('div','_1');" +
+                "let _2=E('div','_2');let _3=E('span','_3','R1');_2.appendChild(_3);" +
+                "let _4=E('button','_4','X');L(_4);_2.appendChild(_4);_1.appendChild(_2);" +
+                "let _5=E('div','_5');let _6=E('span','_6','R2');_5.appendChild(_6);" +
+                "let _7=E('button','_7','X');L(_7);_5.appendChild(_7);_1.appendChild(_5);" +
+                "F(document.body,[_1],null);",
+                Scripts.renderCreation(window, true));
+    }
+    
+    @Test
+    void readableScriptsCreateEveryElement() {
+        Window window = Window.createInstance(RowsPage.class);
+        String script = Scripts.renderCreation(window, false);
+        
+        assertFalse(script.contains("Template"));
+        assertEquals(
+                "let Button = await import('./button/button.mjs');\n" +
+                "let DomFunctions = await import('./dom-functions.mjs');\n" +
+                "document.title = 'T';\n" +
+                "let _1 = document.createElement('div');\n" +
+                "_1.id = '_1';\n" +
+                TemplateRenderingTests.readableRowCreation("_2", "_3", "R1", "_4") +
+                TemplateRenderingTests.readableRowCreation("_5", "_6", "R2", "_7") +
+                TemplateRenderingTests.readableRowCreation("_8", "_9", "R3", "_a") +
+                "DomFunctions.insertAllBefore(document.body, [_1], null);\n",
+                script);
+    }
+    
+    private static String readableRowCreation(String rowId, String labelId, String labelText,
+            String buttonId) {
+        return String.format(
+                "let %1$s = document.createElement('div');\n" +
+                "%1$s.id = '%1$s';\n" +
+                "let %2$s = document.createElement('span');\n" +
+                "%2$s.id = '%2$s';\n" +
+                "%2$s.textContent = '%3$s';\n" +
+                "%1$s.appendChild(%2$s);\n" +
+                "let %4$s = document.createElement('button');\n" +
+                "%4$s.id = '%4$s';\n" +
+                "%4$s.textContent = 'X';\n" +
+                "%4$s.addEventListener('click', Button.onClickHandler, {\n" +
+                "    capture: false,\n" +
+                "    passive: true\n" +
+                "});\n" +
+                "%1$s.appendChild(%4$s);\n" +
+                "_1.appendChild(%1$s);\n", rowId, labelId, labelText, buttonId);
+    }
+}
\ No newline at end of file
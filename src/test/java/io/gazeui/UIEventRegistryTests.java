@@ -0,0 +1,109 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UIEventRegistryTests {
+    
+    private static final AtomicInteger clickCount = new AtomicInteger();
+    
+    private Window window;
+    private ButtonPage page;
+    
+    @SuppressWarnings("serial")
+    public static class CustomButton extends Button {
+    }
+    
+    @SuppressWarnings("serial")
+    public static class ButtonPage extends WebPage {
+        
+        private final CustomButton button = new CustomButton();
+        
+        public ButtonPage() {
+            this.getControls().add(this.button);
+        }
+        
+        @Override
+        protected void bindEventHandlers() {
+            this.button.addOnClickHandler(
+                    eventArgs -> UIEventRegistryTests.clickCount.incrementAndGet());
+        }
+    }
+    
+    @BeforeEach
+    void setUp() {
+        UIEventRegistryTests.clickCount.set(0);
+        this.window = Window.createInstance(ButtonPage.class);
+        this.page = (ButtonPage)this.window.getChildPageOrNull();
+        this.window.renderCreation(new RenderScriptWriter());
+    }
+    
+    @Test
+    void eventsAreProcessedForSubclassesOfTheControlDeclaringThem() {
+        this.window.processUIEvent(this.page.button.getClientIdOrNull(), "Click");
+        
+        assertEquals(1, UIEventRegistryTests.clickCount.get());
+    }
+    
+    @Test
+    void unknownEventsAreRejected() {
+        assertThrows(GazeUIException.class,
+                () -> this.window.processUIEvent(this.page.button.getClientIdOrNull(), "Scroll"));
+    }
+    
+    @Test
+    void eventsNotFoundKeepTheWindowInItsInitialState() {
+        assertThrows(NoSuchElementException.class, () -> this.window.processUIEvent("_9", "Click"));
+        assertThrows(GazeUIException.class,
+                () -> this.window.processUIEvent(this.page.button.getClientIdOrNull(), "Scroll"));
+        
+        assertTrue(this.window.isInInitialState());
+        
+        this.window.processUIEvent(this.page.button.getClientIdOrNull(), "Click");
+        
+        assertFalse(this.window.isInInitialState());
+    }
+    
+    @Test
+    void handlerExceptionsArePropagatedUnwrapped() {
+        IllegalStateException handlerException = new IllegalStateException("Handler failure");
+        this.page.button.addOnClickHandler(eventArgs -> {
+            throw handlerException;
+        });
+        
+        IllegalStateException thrownException = assertThrows(IllegalStateException.class,
+                () -> this.window.processUIEvent(this.page.button.getClientIdOrNull(), "Click"));
+        
+        assertSame(handlerException, thrownException);
+        // The handlers added before the failing one were called
+        assertEquals(1, UIEventRegistryTests.clickCount.get());
+    }
+    
+    @Test
+    void handlersAddedToACloneAreNotAddedToTheOriginal() {
+        Button clonedButton = this.page.button.clone();
+        clonedButton.addOnClickHandler(eventArgs -> UIEventRegistryTests.clickCount.addAndGet(10));
+        
+        this.page.button.processOnClickEvent();
+        assertEquals(1, UIEventRegistryTests.clickCount.get());
+        
+        clonedButton.processOnClickEvent();
+        assertEquals(12, UIEventRegistryTests.clickCount.get());
+        assertTrue(clonedButton.getRetainedSizeEstimate() >
+                this.page.button.getRetainedSizeEstimate());
+    }
+}
\ No newline at end of file
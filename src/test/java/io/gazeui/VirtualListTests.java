@@ -0,0 +1,106 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VirtualListTests {
+    
+    private static final int ITEM_COUNT = 1000;
+    
+    private VirtualListDataProvider<Integer> dataProvider;
+    private VirtualList<Integer> virtualList;
+    
+    @BeforeEach
+    void setUp() {
+        this.dataProvider = new VirtualListDataProvider<Integer>() {
+            @Override
+            public int getItemCount() {
+                return ITEM_COUNT;
+            }
+            
+            @Override
+            public List<Integer> getItems(int fromIndex, int toIndex) {
+                return IntStream.range(fromIndex, toIndex).boxed().collect(Collectors.toList());
+            }
+        };
+        
+        // 10 visible items and 10 overscan items
+        this.virtualList = new VirtualList<>(this.dataProvider, item -> new Label(item.toString()), 20, 200);
+    }
+    
+    @Test
+    void initialWindow() {
+        assertEquals(20, this.virtualList.getControls().size());
+        assertEquals("0", this.getRowText(0));
+        assertEquals("19", this.getRowText(19));
+    }
+    
+    @Test
+    void scrollKeepsRowsInsideTheWindow() {
+        Control row15 = this.virtualList.getControls().get(15);
+        
+        this.virtualList.processOnScrollEvent("12");
+        
+        assertEquals(30, this.virtualList.getControls().size());
+        assertEquals("2", this.getRowText(0));
+        assertEquals("31", this.getRowText(29));
+        assertSame(row15, this.virtualList.getControls().get(13));
+        
+        this.virtualList.processOnScrollEvent("500");
+        
+        assertEquals(30, this.virtualList.getControls().size());
+        assertEquals("490", this.getRowText(0));
+        
+        this.virtualList.processOnScrollEvent("5000");
+        
+        assertEquals(ITEM_COUNT - 1, this.virtualList.getFirstVisibleIndex());
+        assertEquals(11, this.virtualList.getControls().size());
+        assertEquals("989", this.getRowText(0));
+    }
+    
+    @Test
+    void malformedScrollIndexesAreRejected() {
+        this.virtualList.processOnScrollEvent("12");
+        
+        assertThrows(InvalidEventArgumentException.class,
+                () -> this.virtualList.processOnScrollEvent("12abc"));
+        assertThrows(InvalidEventArgumentException.class,
+                () -> this.virtualList.processOnScrollEvent("99999999999"));
+        assertThrows(InvalidEventArgumentException.class,
+                () -> this.virtualList.processOnScrollEvent(null));
+        
+        assertEquals(12, this.virtualList.getFirstVisibleIndex());
+        assertEquals("2", this.getRowText(0));
+    }
+    
+    @Test
+    void negativeScrollIndexesAreClamped() {
+        this.virtualList.processOnScrollEvent("-5");
+        
+        assertEquals(0, this.virtualList.getFirstVisibleIndex());
+        assertEquals("0", this.getRowText(0));
+    }
+    
+    @Test
+    void dimensionsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new VirtualList<>(this.dataProvider, item -> new Label(), 0, 200));
+    }
+    
+    private String getRowText(int rowIndex) {
+        return ((Label)this.virtualList.getControls().get(rowIndex)).getText();
+    }
+}
\ No newline at end of file
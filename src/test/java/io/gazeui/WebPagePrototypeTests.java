@@ -0,0 +1,145 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class WebPagePrototypeTests {
+    
+    @SuppressWarnings("serial")
+    public static class ConstructorHandlerPage extends WebPage {
+        
+        private final Label label = new Label("0");
+        
+        public ConstructorHandlerPage() {
+            Button button = new Button("+");
+            button.addOnClickHandler(e -> this.label.setText("1"));
+            
+            this.getControls().add(this.label);
+            this.getControls().add(button);
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class CollectionFieldPage extends WebPage {
+        
+        private final List<Label> labels = new ArrayList<>();
+        
+        public CollectionFieldPage() {
+            for (int i = 0; i < 3; i++) {
+                Label label = new Label(Integer.toString(i));
+                
+                this.labels.add(label);
+                this.getControls().add(label);
+            }
+        }
+    }
+    
+    /**
+     * Keeps a label that is only attached when the button is clicked.
+     */
+    @SuppressWarnings("serial")
+    public static class DetachedFieldPage extends WebPage {
+        
+        private final Label detailsLabel = new Label("Details");
+        private final Button button = new Button("Show");
+        
+        public DetachedFieldPage() {
+            this.getControls().add(this.button);
+        }
+        
+        @Override
+        protected void bindEventHandlers() {
+            this.button.addOnClickHandler(e -> this.getControls().add(this.detailsLabel));
+        }
+    }
+    
+    @Test
+    void copiesAreIndependentLiveTrees() {
+        WebPagePrototype<CounterPage> prototype = new WebPagePrototype<>(CounterPage.class);
+        CounterPage page1 = prototype.createCopy();
+        CounterPage page2 = prototype.createCopy();
+        
+        assertNotSame(page1.getLabel(), page2.getLabel());
+        assertSame(page1.getLabel(), page1.getPanel().getControls().get(0));
+        assertSame(page1.getPanel(), page1.getLabel().getParent().get());
+        assertSame(page1, page1.getButton().getPage().get());
+        assertEquals(page2.getButton().getClientId(), page1.getButton().getClientId());
+        
+        page1.getButton().processOnClickEvent();
+        
+        assertEquals("1", page1.getLabel().getText());
+        assertEquals("0", page2.getLabel().getText());
+        
+        Label newLabel = new Label();
+        page1.getControls().add(newLabel);
+        
+        assertEquals(4, newLabel.getControlId());
+    }
+    
+    @Test
+    void pagesAddingHandlersInTheirConstructorsAreRejected() {
+        assertThrows(GazeUIException.class,
+                () -> new WebPagePrototype<>(ConstructorHandlerPage.class));
+    }
+    
+    @Test
+    void pagesKeepingControlsInCollectionsAreRejected() {
+        assertThrows(GazeUIException.class,
+                () -> new WebPagePrototype<>(CollectionFieldPage.class));
+    }
+    
+    @Test
+    void pagesKeepingControlsOutsideTheirTreeInFieldsAreRejected() {
+        GazeUIException exception = assertThrows(GazeUIException.class,
+                () -> new WebPagePrototype<>(DetachedFieldPage.class));
+        
+        assertTrue(exception.getMessage().contains("detailsLabel"));
+    }
+    
+    @Test
+    void concurrentCopiesDoNotShareState() throws Exception {
+        WebPagePrototype<CounterPage> prototype = new WebPagePrototype<>(CounterPage.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<CounterPage>> futures = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < 16; i++) {
+                int clickCount = i;
+                
+                futures.add(executor.submit(() -> {
+                    CounterPage page = prototype.createCopy();
+                    
+                    for (int j = 0; j < clickCount; j++) {
+                        page.getButton().processOnClickEvent();
+                    }
+                    
+                    return page;
+                }));
+            }
+            
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(Integer.toString(i), futures.get(i).get().getLabel().getText());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertEquals("0", prototype.createCopy().getLabel().getText());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IntObjectHashMapTests {
+    
+    private IntObjectHashMap<String> map;
+    
+    @BeforeEach
+    void setUp() {
+        this.map = new IntObjectHashMap<>();
+    }
+    
+    @Test
+    void putAndGet() {
+        assertNull(map.put(1, "One"));
+        assertNull(map.put(-2, "Minus Two"));
+        assertNull(map.put(Integer.MAX_VALUE, "Max"));
+        
+        assertEquals(3, map.size());
+        assertEquals("One", map.get(1));
+        assertEquals("Minus Two", map.get(-2));
+        assertEquals("Max", map.get(Integer.MAX_VALUE));
+        assertNull(map.get(3));
+        assertTrue(map.containsKey(1));
+        assertFalse(map.containsKey(2));
+    }
+    
+    @Test
+    void putExistingKeyShouldReplaceValue() {
+        map.put(7, "Seven");
+        
+        assertEquals("Seven", map.put(7, "Sete"));
+        assertEquals(1, map.size());
+        assertEquals("Sete", map.get(7));
+    }
+    
+    @Test
+    void putZeroKeyShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, "Zero"));
+        assertFalse(map.containsKey(0));
+    }
+    
+    @Test
+    void putManyKeysShouldRehash() {
+        for (int key = 1; key <= 10_000; key++) {
+            map.put(key, Integer.toString(key));
+        }
+        
+        assertEquals(10_000, map.size());
+        
+        for (int key = 1; key <= 10_000; key++) {
+            assertEquals(Integer.toString(key), map.get(key));
+        }
+        
+        assertFalse(map.containsKey(10_001));
+    }
+    
+    @Test
+    void clearShouldAllowReuse() {
+        map.ensureCapacity(100);
+        
+        for (int key = 1; key <= 100; key++) {
+            map.put(key, Integer.toString(key));
+        }
+        
+        map.clear();
+        
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(50));
+        
+        map.put(50, "Fifty");
+        
+        assertEquals(1, map.size());
+        assertEquals("Fifty", map.get(50));
+    }
+}
\ No newline at end of file
@@ -185,4 +185,16 @@ class ListsTests {
         assertEquals("Two", result.get(obj2));
         assertEquals("Three", result.get(obj3));
     }
+    
+    @Test
+    void longestCommonSubsequenceMatchesTheCommonPrefixAndSuffix() {
+        List<String> list1 = Arrays.asList("A", "B", "C", "X", "Y", "D", "E");
+        List<String> list2 = Arrays.asList("A", "B", "Y", "C", "D", "E");
+        
+        List<String> result = Lists.longestCommonSubsequence(list1, list2, genericEqualsComparator);
+        
+        assertEquals(5, result.size());
+        assertIterableEquals(Arrays.asList("A", "B"), result.subList(0, 2));
+        assertIterableEquals(Arrays.asList("D", "E"), result.subList(3, 5));
+    }
 }
\ No newline at end of file
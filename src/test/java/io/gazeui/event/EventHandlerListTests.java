@@ -0,0 +1,78 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.Label;
+
+class EventHandlerListTests {
+    
+    private final List<String> calls = new ArrayList<>();
+    
+    private EventHandler<EventArgs> recordingHandler(String name) {
+        return eventArgs -> this.calls.add(name);
+    }
+    
+    @Test
+    void addingAndRemovingLeavesTheOriginalListUnchanged() {
+        EventHandler<EventArgs> first = this.recordingHandler("first");
+        EventHandler<EventArgs> second = this.recordingHandler("second");
+        
+        EventHandlerList<EventArgs> oneHandler = EventHandlerList.<EventArgs>empty().add(first);
+        EventHandlerList<EventArgs> twoHandlers = oneHandler.add(second);
+        EventHandlerList<EventArgs> removed = twoHandlers.remove(first);
+        
+        assertEquals(1, oneHandler.size());
+        assertEquals(2, twoHandlers.size());
+        assertEquals(1, removed.size());
+        assertTrue(removed.contains(second));
+        
+        twoHandlers.fire(new EventArgs(new Label()));
+        assertEquals(Arrays.asList("first", "second"), this.calls);
+    }
+    
+    @Test
+    void unchangedListsAreReturnedAsTheyAre() {
+        EventHandler<EventArgs> handler = this.recordingHandler("handler");
+        EventHandlerList<EventArgs> handlers = EventHandlerList.<EventArgs>empty().add(handler);
+        
+        assertSame(handlers, handlers.add(handler));
+        assertSame(handlers, handlers.remove(this.recordingHandler("other")));
+        assertSame(EventHandlerList.empty(), handlers.remove(handler));
+    }
+    
+    @Test
+    void eventArgsAreCreatedOnlyWhenThereAreHandlers() {
+        List<EventArgs> createdEventArgs = new ArrayList<>();
+        EventKey<EventArgs> eventKey = EventKey.of("Test", source -> {
+            EventArgs eventArgs = new EventArgs(source);
+            createdEventArgs.add(eventArgs);
+            
+            return eventArgs;
+        });
+        Label source = new Label();
+        
+        EventHandlerList.<EventArgs>empty().fire(eventKey, source);
+        assertTrue(createdEventArgs.isEmpty());
+        
+        EventHandlerList.<EventArgs>empty()
+                .add(this.recordingHandler("first"))
+                .add(this.recordingHandler("second"))
+                .fire(eventKey, source);
+        assertEquals(1, createdEventArgs.size());
+        assertSame(source, createdEventArgs.get(0).getSource());
+        assertEquals(Arrays.asList("first", "second"), this.calls);
+    }
+}
\ No newline at end of file
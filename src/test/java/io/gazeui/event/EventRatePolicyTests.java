@@ -0,0 +1,48 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class EventRatePolicyTests {
+    
+    @Test
+    void delaysMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> EventRatePolicy.debounce(0));
+        assertThrows(IllegalArgumentException.class, () -> EventRatePolicy.debounce(-1));
+        assertThrows(IllegalArgumentException.class, () -> EventRatePolicy.throttle(0));
+        assertThrows(IllegalArgumentException.class, () -> EventRatePolicy.throttle(-1));
+    }
+    
+    @Test
+    void policiesKeepTheirKindAndDelay() {
+        EventRatePolicy debounce = EventRatePolicy.debounce(300);
+        EventRatePolicy throttle = EventRatePolicy.throttle(100);
+        EventRatePolicy dropWhileInFlight = EventRatePolicy.dropWhileInFlight();
+        
+        assertEquals(EventRatePolicy.Kind.DEBOUNCE, debounce.getKind());
+        assertEquals(300, debounce.getDelayMillis());
+        assertEquals(EventRatePolicy.Kind.THROTTLE, throttle.getKind());
+        assertEquals(100, throttle.getDelayMillis());
+        assertEquals(EventRatePolicy.Kind.DROP_WHILE_IN_FLIGHT, dropWhileInFlight.getKind());
+        assertEquals(0, dropWhileInFlight.getDelayMillis());
+        assertSame(dropWhileInFlight, EventRatePolicy.dropWhileInFlight());
+    }
+    
+    @Test
+    void policiesAreEqualWhenKindAndDelayAre() {
+        assertEquals(EventRatePolicy.debounce(300), EventRatePolicy.debounce(300));
+        assertEquals(EventRatePolicy.debounce(300).hashCode(),
+                EventRatePolicy.debounce(300).hashCode());
+        assertNotEquals(EventRatePolicy.debounce(300), EventRatePolicy.debounce(200));
+        assertNotEquals(EventRatePolicy.debounce(300), EventRatePolicy.throttle(300));
+    }
+}
\ No newline at end of file
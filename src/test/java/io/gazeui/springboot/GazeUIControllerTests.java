@@ -0,0 +1,409 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import io.gazeui.CounterPage;
+import io.gazeui.DeterministicInitialRender;
+import io.gazeui.GazeUIException;
+import io.gazeui.Label;
+import io.gazeui.VirtualList;
+import io.gazeui.VirtualListDataProvider;
+import io.gazeui.WebPage;
+import io.gazeui.springboot.annotation.EnableGazeUI;
+import io.gazeui.springboot.configuration.PropertiesConfiguration;
+import io.gazeui.springboot.viewstate.PassivationViewStateRepository;
+import io.gazeui.springboot.viewstate.SerializingViewStateRepository;
+import io.gazeui.springboot.viewstate.ViewStateOverflowPolicy;
+
+class GazeUIControllerTests {
+    
+    private static final Pattern VIEW_STATE_PATTERN =
+            Pattern.compile("setViewState\\('([^']+)'\\)");
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+    
+    @SuppressWarnings("serial")
+    public static class StaticPage extends WebPage {
+        
+        public StaticPage() {
+            this.setTitle("Static");
+            this.getControls().add(new Label("No events"));
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    @DeterministicInitialRender
+    public static class DeterministicCounterPage extends CounterPage {
+    }
+    
+    /**
+     * Wrongly annotated, because each instance has a different title.
+     */
+    @SuppressWarnings("serial")
+    @DeterministicInitialRender
+    public static class VisitorPage extends WebPage {
+        
+        private static final AtomicInteger visitorCount = new AtomicInteger();
+        
+        public VisitorPage() {
+            this.setTitle("Visitor " + VisitorPage.visitorCount.incrementAndGet());
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class ListPage extends WebPage {
+        
+        public ListPage() {
+            this.setTitle("List");
+            this.getControls().add(new VirtualList<>(new VirtualListDataProvider<Integer>() {
+                @Override
+                public int getItemCount() {
+                    return 1000;
+                }
+                
+                @Override
+                public List<Integer> getItems(int fromIndex, int toIndex) {
+                    return IntStream.range(fromIndex, toIndex).boxed().collect(Collectors.toList());
+                }
+            }, item -> new Label(item.toString()), 20, 200));
+        }
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = DeterministicCounterPage.class)
+    static class DeterministicConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = StaticPage.class, statelessPages = true)
+    static class StatelessConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = CounterPage.class, statelessPages = true)
+    static class StatelessCounterConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = VisitorPage.class)
+    static class VisitorConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = ListPage.class)
+    static class ListConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = CounterPage.class, clientViewState = true)
+    static class ClientViewStateConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = CounterPage.class)
+    static class ServerViewStateConfiguration {
+    }
+    
+    @Configuration
+    @EnableWebMvc
+    @EnableGazeUI(initialPage = CounterPage.class)
+    static class PassivationConfiguration {
+        
+        @Bean
+        PassivationViewStateRepository passivationViewStateRepository() {
+            return new SerializingPassivationRepository();
+        }
+    }
+    
+    static class SerializingPassivationRepository extends SerializingViewStateRepository
+            implements PassivationViewStateRepository {
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (this.context != null) {
+            this.context.close();
+        }
+    }
+    
+    @Test
+    void tamperedClientViewStatesAskTheClientToReload() throws Exception {
+        this.start(ClientViewStateConfiguration.class, new MockEnvironment().withProperty(
+                PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_SECRET_KEY,
+                Base64.getEncoder().encodeToString(new byte[32])));
+        
+        MockHttpSession session = new MockHttpSession();
+        String viewState = this.getInitialViewState(session);
+        MockHttpServletResponse response = this.perform(this.postClick(session, viewState, false));
+        
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"1\""));
+        
+        // Changes a character of the signed payload, keeping it valid Base64
+        char[] tamperedViewState = viewState.toCharArray();
+        tamperedViewState[10] = tamperedViewState[10] == 'A' ? 'B' : 'A';
+        
+        response = this.perform(this.postClick(session, new String(tamperedViewState),
+                false));
+        
+        assertEquals(400, response.getStatus());
+    }
+    
+    @Test
+    void missingWindowsOfPagesInTheirInitialStateAreReplaced() throws Exception {
+        this.start(ServerViewStateConfiguration.class, new MockEnvironment());
+        
+        // The session of the initial UI has expired, so the event starts a new one
+        this.perform(get("/create-initial-ui.mjs").session(new MockHttpSession()));
+        MockHttpServletResponse response =
+                this.perform(this.postClick(new MockHttpSession(), null, true));
+        
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"1\""));
+    }
+    
+    @Test
+    void missingWindowsOfUpdatedPagesAskTheClientToReload() throws Exception {
+        this.start(ServerViewStateConfiguration.class, new MockEnvironment());
+        
+        MockHttpSession session = new MockHttpSession();
+        this.perform(get("/create-initial-ui.mjs").session(session));
+        assertEquals(200, this.perform(this.postClick(session, null, true)).getStatus());
+        
+        // Invalidating the session evicts its window
+        session.invalidate();
+        
+        MockHttpServletResponse response =
+                this.perform(this.postClick(new MockHttpSession(), null, false));
+        
+        assertEquals(400, response.getStatus());
+    }
+    
+    @Test
+    void reloadedPagesAreNotInTheirInitialState() throws Exception {
+        this.start(ServerViewStateConfiguration.class, new MockEnvironment());
+        
+        MockHttpSession session = new MockHttpSession();
+        String initialScript = this.perform(get("/create-initial-ui.mjs").session(session))
+                .getContentAsString();
+        
+        assertFalse(initialScript.contains("setInitialState(false)"));
+        
+        this.perform(this.postClick(session, null, true));
+        String reloadedScript = this.perform(get("/create-initial-ui.mjs").session(session))
+                .getContentAsString();
+        
+        assertTrue(reloadedScript.contains("setInitialState(false)"));
+    }
+    
+    @Test
+    void eventsAfterAnEvictionAskTheClientToReload() throws Exception {
+        // Every window is over the limit, so it is evicted as soon as it is saved
+        this.start(ServerViewStateConfiguration.class, GazeUIControllerTests.sizeLimitedEnvironment(
+                ViewStateOverflowPolicy.EVICT));
+        
+        MockHttpSession session = new MockHttpSession();
+        this.perform(get("/create-initial-ui.mjs").session(session));
+        
+        assertEquals(200, this.perform(this.postClick(session, null, true)).getStatus());
+        assertEquals(400, this.perform(this.postClick(session, null, false)).getStatus());
+    }
+    
+    @Test
+    void passivationWithoutAPassivationRepositoryFailsAtStartup() {
+        assertThrows(Exception.class, () -> this.start(ServerViewStateConfiguration.class,
+                GazeUIControllerTests.sizeLimitedEnvironment(ViewStateOverflowPolicy.PASSIVATE)));
+    }
+    
+    @Test
+    void eventsAfterAPassivationUseThePassivatedWindow() throws Exception {
+        this.start(PassivationConfiguration.class, GazeUIControllerTests.sizeLimitedEnvironment(
+                ViewStateOverflowPolicy.PASSIVATE));
+        
+        MockHttpSession session = new MockHttpSession();
+        this.perform(get("/create-initial-ui.mjs").session(session));
+        this.perform(this.postClick(session, null, true));
+        MockHttpServletResponse response = this.perform(this.postClick(session, null, false));
+        
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"2\""));
+    }
+    
+    @Test
+    void malformedEventArgumentsAreRejectedWithoutAskingTheClientToReload() throws Exception {
+        this.start(ListConfiguration.class, new MockEnvironment());
+        
+        MockHttpSession session = new MockHttpSession();
+        this.perform(get("/create-initial-ui.mjs").session(session));
+        
+        // The virtual list is the first control of the page
+        assertEquals(422, this.perform(this.postScroll(session, "12abc")).getStatus());
+        assertEquals(200, this.perform(this.postScroll(session, "12")).getStatus());
+    }
+    
+    @Test
+    void cachedInitialScriptsAreIdenticalToAFreshRender() throws Exception {
+        this.start(DeterministicConfiguration.class, new MockEnvironment());
+        
+        // The script is cached once a second session confirms the first render
+        byte[] freshScript = this.perform(get("/create-initial-ui.mjs")
+                .session(new MockHttpSession())).getContentAsByteArray();
+        this.perform(get("/create-initial-ui.mjs").session(new MockHttpSession()));
+        
+        byte[] cachedScript = this.perform(get("/create-initial-ui.mjs")
+                .session(new MockHttpSession())).getContentAsByteArray();
+        
+        assertArrayEquals(freshScript, cachedScript);
+    }
+    
+    @Test
+    void windowsOfCachedInitialUIsAreCreatedByTheFirstEvent() throws Exception {
+        this.start(DeterministicConfiguration.class, new MockEnvironment());
+        this.perform(get("/create-initial-ui.mjs").session(new MockHttpSession()));
+        this.perform(get("/create-initial-ui.mjs").session(new MockHttpSession()));
+        
+        MvcResult result = this.mockMvc.perform(get("/create-initial-ui.mjs")).andReturn();
+        
+        assertEquals(200, result.getResponse().getStatus());
+        assertNull(result.getRequest().getSession(false));
+        
+        MockHttpServletResponse response =
+                this.perform(this.postClick(new MockHttpSession(), null, true));
+        
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"1\""));
+    }
+    
+    @Test
+    void statelessPagesAreServedWithoutASession() throws Exception {
+        this.start(StatelessConfiguration.class, new MockEnvironment());
+        
+        MvcResult result = this.mockMvc.perform(get("/create-initial-ui.mjs")).andReturn();
+        
+        assertEquals(200, result.getResponse().getStatus());
+        assertNull(result.getRequest().getSession(false));
+    }
+    
+    @Test
+    void pagesWithEventHandlersKeepTheirWindowEvenIfStatelessPagesAreEnabled() throws Exception {
+        this.start(StatelessCounterConfiguration.class, new MockEnvironment());
+        
+        MvcResult result = this.mockMvc.perform(get("/create-initial-ui.mjs")).andReturn();
+        
+        assertEquals(200, result.getResponse().getStatus());
+        assertNotNull(result.getRequest().getSession(false));
+    }
+    
+    @Test
+    void pagesRenderedDifferentlyPerSessionCanNotBeCached() throws Exception {
+        this.start(VisitorConfiguration.class, new MockEnvironment());
+        
+        this.perform(get("/create-initial-ui.mjs").session(new MockHttpSession()));
+        Exception exception = assertThrows(Exception.class,
+                () -> this.perform(get("/create-initial-ui.mjs").session(new MockHttpSession())));
+        
+        assertTrue(exception.getCause() instanceof GazeUIException);
+    }
+    
+    private static MockEnvironment sizeLimitedEnvironment(ViewStateOverflowPolicy overflowPolicy) {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setProperty(
+                PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_MAX_RETAINED_SIZE, "1");
+        environment.setProperty(
+                PropertiesConfiguration.PROPERTY_KEY_GAZEUI_VIEW_STATE_OVERFLOW_POLICY,
+                overflowPolicy.name());
+        
+        return environment;
+    }
+    
+    private void start(Class<?> configurationClass, MockEnvironment environment) {
+        this.context = new AnnotationConfigWebApplicationContext();
+        this.context.setServletContext(new MockServletContext());
+        this.context.setEnvironment(environment);
+        this.context.register(configurationClass);
+        this.context.refresh();
+        
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    }
+    
+    private String getInitialViewState(MockHttpSession session) throws Exception {
+        MockHttpServletResponse response =
+                this.perform(get("/create-initial-ui.mjs").session(session));
+        Matcher matcher = VIEW_STATE_PATTERN.matcher(response.getContentAsString());
+        
+        assertEquals(200, response.getStatus());
+        assertTrue(matcher.find());
+        
+        return matcher.group(1);
+    }
+    
+    private RequestBuilder postClick(MockHttpSession session, String viewState,
+            boolean initialState) {
+        String eventInfo = String.format(
+                "{\"controlId\":\"%s\",\"eventName\":\"Click\",\"initialState\":%b%s}",
+                CounterPage.BUTTON_ID, initialState,
+                viewState != null ? ",\"viewState\":\"" + viewState + "\"" : "");
+        
+        return post("/process-server-ui-event.json")
+                .session(session)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(eventInfo);
+    }
+    
+    private RequestBuilder postScroll(MockHttpSession session, String firstVisibleIndex) {
+        return post("/process-server-ui-event.json")
+                .session(session)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(String.format(
+                        "{\"controlId\":\"_1\",\"eventName\":\"Scroll\"," +
+                        "\"eventArgument\":\"%s\",\"initialState\":false}", firstVisibleIndex));
+    }
+    
+    private MockHttpServletResponse perform(RequestBuilder requestBuilder) throws Exception {
+        return this.mockMvc.perform(requestBuilder).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,60 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.GazeUIException;
+import io.gazeui.WebPage;
+
+class InitialUIScriptCacheTests {
+    
+    private final InitialUIScriptCache cache = new InitialUIScriptCache(WebPage.class);
+    
+    @Test
+    void scriptsAreSharedOnlyAfterASecondIdenticalRender() {
+        this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='A';"));
+        
+        assertNull(this.cache.getOrNull());
+        
+        this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='A';"));
+        
+        assertArrayEquals(InitialUIScriptCacheTests.bytes("document.title='A';"),
+                this.cache.getOrNull());
+    }
+    
+    @Test
+    void differentRendersAreReportedAndNeverShared() {
+        this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='Alice';"));
+        
+        GazeUIException exception = assertThrows(GazeUIException.class,
+                () -> this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='Bob';")));
+        
+        assertTrue(exception.getMessage().contains(WebPage.class.getName()));
+        assertNull(this.cache.getOrNull());
+    }
+    
+    @Test
+    void rendersAfterTheScriptIsSharedAreIgnored() {
+        this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='A';"));
+        this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='A';"));
+        this.cache.offer(InitialUIScriptCacheTests.bytes("document.title='B';"));
+        
+        assertArrayEquals(InitialUIScriptCacheTests.bytes("document.title='A';"),
+                this.cache.getOrNull());
+    }
+    
+    private static byte[] bytes(String script) {
+        return script.getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
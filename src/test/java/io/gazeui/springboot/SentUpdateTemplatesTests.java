@@ -0,0 +1,67 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot;
+
+import static io.gazeui.springboot.SentUpdateTemplates.ALREADY_SENT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SentUpdateTemplatesTests {
+    
+    @Test
+    void templatesAreSentOncePerCache() {
+        SentUpdateTemplates sentUpdateTemplates = new SentUpdateTemplates();
+        
+        assertNotEquals(ALREADY_SENT, sentUpdateTemplates.add("page1", "template1"));
+        assertEquals(ALREADY_SENT, sentUpdateTemplates.add("page1", "template1"));
+        assertNotEquals(ALREADY_SENT, sentUpdateTemplates.add("page2", "template1"));
+        assertNotEquals(ALREADY_SENT, sentUpdateTemplates.add("page1", "template2"));
+    }
+    
+    @Test
+    void templatesOfACacheShareItsGeneration() {
+        SentUpdateTemplates sentUpdateTemplates = new SentUpdateTemplates();
+        
+        assertEquals(sentUpdateTemplates.add("page", "template1"),
+                sentUpdateTemplates.add("page", "template2"));
+    }
+    
+    @Test
+    void leastRecentlyUsedCachesAreForgotten() {
+        SentUpdateTemplates sentUpdateTemplates = new SentUpdateTemplates();
+        long firstGeneration = sentUpdateTemplates.add("page1", "template");
+        
+        for (int i = 0; i <= SentUpdateTemplates.MAX_TRACKED_CACHES; i++) {
+            sentUpdateTemplates.add("page" + i, "template");
+            // Keeps the first cache as the most recently used one
+            sentUpdateTemplates.add("page0", "template");
+        }
+        
+        assertEquals(ALREADY_SENT, sentUpdateTemplates.add("page0", "template"));
+        // The page drops the templates it got before, since the generation is newer
+        assertTrue(sentUpdateTemplates.add("page1", "template") > firstGeneration);
+    }
+    
+    @Test
+    void fullCachesStartOverWithANewGeneration() {
+        SentUpdateTemplates sentUpdateTemplates = new SentUpdateTemplates();
+        long firstGeneration = sentUpdateTemplates.add("page", "template0");
+        
+        for (int i = 1; i < SentUpdateTemplates.MAX_TEMPLATES_PER_CACHE; i++) {
+            sentUpdateTemplates.add("page", "template" + i);
+        }
+        
+        assertEquals(ALREADY_SENT, sentUpdateTemplates.add("page", "template0"));
+        
+        long newGeneration = sentUpdateTemplates.add("page", "newTemplate");
+        
+        assertTrue(newGeneration > firstGeneration);
+        assertEquals(newGeneration, sentUpdateTemplates.add("page", "template0"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.CounterPage;
+import io.gazeui.GazeUIException;
+import io.gazeui.Label;
+import io.gazeui.VirtualList;
+import io.gazeui.VirtualListDataProvider;
+import io.gazeui.WebPage;
+import io.gazeui.Window;
+
+class SignedViewStateCodecTests {
+    
+    private static final byte[] SECRET_KEY = new byte[32];
+    
+    @SuppressWarnings("serial")
+    public static class NumbersProvider implements VirtualListDataProvider<Integer> {
+        
+        @Override
+        public int getItemCount() {
+            return 1000;
+        }
+        
+        @Override
+        public List<Integer> getItems(int fromIndex, int toIndex) {
+            return IntStream.range(fromIndex, toIndex).boxed().collect(Collectors.toList());
+        }
+    }
+    
+    @SuppressWarnings("serial")
+    public static class ListPage extends WebPage {
+        
+        final VirtualList<Integer> list = new VirtualList<>(new NumbersProvider(),
+                item -> new Label(item.toString()), 20, 200);
+        
+        public ListPage() {
+            this.getControls().add(this.list);
+        }
+    }
+    
+    @Test
+    void decodedWindowKeepsStateAndHandlers() {
+        SignedViewStateCodec codec = new SignedViewStateCodec(SECRET_KEY, 64 * 1024);
+        Window window = Window.createInstance(CounterPage.class);
+        CounterPage page = (CounterPage)window.getChildPage().get();
+        String buttonId = page.getButton().getClientId().get();
+        
+        window.processUIEvent(buttonId, "Click");
+        
+        Window decodedWindow = codec.decode(codec.encode(window));
+        decodedWindow.processUIEvent(buttonId, "Click");
+        
+        assertEquals("2", ((CounterPage)decodedWindow.getChildPage().get()).getLabel().getText());
+    }
+    
+    @Test
+    void decodedVirtualListsKeepLoadingItems() {
+        SignedViewStateCodec codec = new SignedViewStateCodec(SECRET_KEY, 64 * 1024);
+        Window window = Window.createInstance(ListPage.class);
+        String listId = ((ListPage)window.getChildPage().get()).list.getClientId().get();
+        
+        window.processUIEvent(listId, "Scroll", "100");
+        
+        Window decodedWindow = codec.decode(codec.encode(window));
+        decodedWindow.processUIEvent(listId, "Scroll", "500");
+        VirtualList<Integer> decodedList = ((ListPage)decodedWindow.getChildPage().get()).list;
+        
+        assertEquals(500, decodedList.getFirstVisibleIndex());
+        assertEquals("490", ((Label)decodedList.getControls().get(0)).getText());
+    }
+    
+    @Test
+    void tamperedTokensAreRejected() {
+        SignedViewStateCodec codec = new SignedViewStateCodec(SECRET_KEY, 64 * 1024);
+        String token = codec.encode(Window.createInstance(CounterPage.class));
+        
+        byte[] otherKey = Arrays.copyOf(SECRET_KEY, SECRET_KEY.length);
+        otherKey[0] = 1;
+        SignedViewStateCodec otherCodec = new SignedViewStateCodec(otherKey, 64 * 1024);
+        
+        assertThrows(InvalidViewStateException.class, () -> otherCodec.decode(token));
+        assertThrows(InvalidViewStateException.class, () -> codec.decode("A" + token));
+        assertThrows(InvalidViewStateException.class, () -> codec.decode("no signature"));
+    }
+    
+    @Test
+    void sizeIsLimited() {
+        SignedViewStateCodec codec = new SignedViewStateCodec(SECRET_KEY, 64);
+        
+        assertThrows(GazeUIException.class, () -> codec.encode(Window.createInstance(CounterPage.class)));
+        
+        char[] longToken = new char[1024];
+        Arrays.fill(longToken, 'A');
+        
+        assertThrows(InvalidViewStateException.class, () -> codec.decode(new String(longToken)));
+    }
+}
\ No newline at end of file
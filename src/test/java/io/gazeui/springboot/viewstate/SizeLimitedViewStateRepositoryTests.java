@@ -0,0 +1,85 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.CounterPage;
+import io.gazeui.Window;
+
+class SizeLimitedViewStateRepositoryTests {
+    
+    private InMemoryViewStateRepository repository;
+    private Window window;
+    
+    @BeforeEach
+    void setUp() {
+        this.repository = new InMemoryViewStateRepository();
+        this.window = Window.createInstance(CounterPage.class);
+    }
+    
+    @Test
+    void windowsWithinTheLimitAreSummedUp() {
+        SizeLimitedViewStateRepository sizeLimitedRepository = new SizeLimitedViewStateRepository(
+                this.repository, this.window.getRetainedSizeEstimate(), ViewStateOverflowPolicy.REJECT);
+        
+        sizeLimitedRepository.save("a", this.window);
+        sizeLimitedRepository.save("b", this.window);
+        sizeLimitedRepository.save("b", this.window);
+        
+        assertSame(this.window, sizeLimitedRepository.load("a").get());
+        assertEquals(2 * this.window.getRetainedSizeEstimate(),
+                sizeLimitedRepository.getTotalRetainedSize());
+        
+        sizeLimitedRepository.evict("a");
+        
+        assertEquals(this.window.getRetainedSizeEstimate(),
+                sizeLimitedRepository.getTotalRetainedSize());
+    }
+    
+    @Test
+    void rejectedWindowsAreEvicted() {
+        SizeLimitedViewStateRepository sizeLimitedRepository = new SizeLimitedViewStateRepository(
+                this.repository, this.window.getRetainedSizeEstimate(), ViewStateOverflowPolicy.REJECT);
+        
+        sizeLimitedRepository.save("a", this.window);
+        ((CounterPage)this.window.getChildPage().get()).getLabel().setText("a longer text");
+        
+        assertThrows(ViewStateSizeExceededException.class,
+                () -> sizeLimitedRepository.save("a", this.window));
+        assertFalse(sizeLimitedRepository.load("a").isPresent());
+        assertEquals(0, sizeLimitedRepository.getTotalRetainedSize());
+    }
+    
+    @Test
+    void passivatedWindowsAreStillLoaded() {
+        SizeLimitedViewStateRepository sizeLimitedRepository = new SizeLimitedViewStateRepository(
+                this.repository, 1, ViewStateOverflowPolicy.PASSIVATE,
+                new SerializingViewStateRepository());
+        
+        sizeLimitedRepository.save("a", this.window);
+        
+        assertEquals(0, this.repository.size());
+        assertNotSame(this.window, sizeLimitedRepository.load("a").get());
+        
+        sizeLimitedRepository.evict("a");
+        
+        assertFalse(sizeLimitedRepository.load("a").isPresent());
+    }
+    
+    @Test
+    void passivationRequiresAPassivationRepository() {
+        assertThrows(IllegalArgumentException.class, () -> new SizeLimitedViewStateRepository(
+                this.repository, 1, ViewStateOverflowPolicy.PASSIVATE));
+    }
+}
\ No newline at end of file
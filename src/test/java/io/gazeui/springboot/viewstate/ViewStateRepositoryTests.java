@@ -0,0 +1,64 @@
+//
+// Copyright (c) 2020 Rosberg Linhares (rosberglinhares@gmail.com)
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+//
+
+package io.gazeui.springboot.viewstate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import io.gazeui.CounterPage;
+import io.gazeui.Window;
+
+class ViewStateRepositoryTests {
+    
+    @Test
+    void inMemoryRepositoryKeepsTheWindowInstances() {
+        InMemoryViewStateRepository repository = new InMemoryViewStateRepository();
+        Window window = Window.createInstance(CounterPage.class);
+        
+        repository.save("a", window);
+        
+        assertSame(window, repository.load("a").get());
+        assertFalse(repository.load("b").isPresent());
+        
+        repository.evict("a");
+        
+        assertFalse(repository.load("a").isPresent());
+        assertEquals(0, repository.size());
+    }
+    
+    @Test
+    void serializingRepositoryKeepsTheSavedChanges() {
+        SerializingViewStateRepository repository = new SerializingViewStateRepository();
+        Window window = Window.createInstance(CounterPage.class);
+        CounterPage page = (CounterPage)window.getChildPage().get();
+        String buttonId = page.getButton().getClientId().get();
+        
+        repository.save("a", window);
+        
+        Window loadedWindow = repository.load("a").get();
+        loadedWindow.processUIEvent(buttonId, "Click");
+        
+        assertNotSame(window, loadedWindow);
+        assertEquals("0", ViewStateRepositoryTests.getCount(repository.load("a").get()));
+        
+        repository.save("a", loadedWindow);
+        
+        assertEquals("1", ViewStateRepositoryTests.getCount(repository.load("a").get()));
+        
+        repository.evict("a");
+        
+        assertFalse(repository.load("a").isPresent());
+        assertEquals(0, repository.size());
+    }
+    
+    private static String getCount(Window window) {
+        return ((CounterPage)window.getChildPage().get()).getLabel().getText();
+    }
+}
\ No newline at end of file
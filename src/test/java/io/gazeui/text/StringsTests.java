@@ -35,4 +35,24 @@ class StringsTests {
         assertFalse(Strings.isNullOrBlank(" t"));
         assertFalse(Strings.isNullOrBlank("          t          "));
     }
+    
+    @Test
+    void nullToEmptyShouldReturnEmptyOnlyForNull() {
+        assertEquals("", Strings.nullToEmpty(null));
+        assertEquals(" t", Strings.nullToEmpty(" t"));
+    }
+    
+    @Test
+    void escapeJavaScriptShouldKeepPlainTexts() {
+        String text = "Plain text, with <b>tags</b> & symbols";
+        
+        assertSame(text, Strings.escapeJavaScript(text));
+    }
+    
+    @Test
+    void escapeJavaScriptShouldEscapeQuotesBackslashesAndLineTerminators() {
+        assertEquals("It\\'s \\\"C:\\\\\\\"", Strings.escapeJavaScript("It's \"C:\\\""));
+        assertEquals("a\\nb\\r\\tc\\u0000\\u2028\\u2029",
+                Strings.escapeJavaScript("a\nb\r\tc\0\u2028\u2029"));
+    }
 }
\ No newline at end of file